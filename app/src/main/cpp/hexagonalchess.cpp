@@ -1,17 +1,756 @@
-// Write C++ code here.
+// Generador de movimientos, perft y búsqueda alfa-beta nativos para el tablero Gliński.
 //
-// Do not forget to dynamically load the C++ library into your application.
+// Replica exactamente las reglas de MoveValidator/HexBoard (mismas tablas, mismos índices
+// densos 0..90 y misma codificación de movimientos que Move.java) para que los resultados
+// se puedan comparar uno a uno con la versión Java. Desde Java se usa a través de
+// NativeMoveGenerator, que cae de vuelta a la implementación Java si la biblioteca no carga.
 //
-// For instance,
-//
-// In MainActivity.java:
-//    static {
-//       System.loadLibrary("hexagonalchess");
-//    }
-//
-// Or, in MainActivity.kt:
-//    companion object {
-//      init {
-//         System.loadLibrary("hexagonalchess")
-//      }
-//    }
\ No newline at end of file
+// Las llamadas son por lotes: Java pasa la posición completa una vez y el código nativo
+// recorre todo el árbol (perft o búsqueda) sin volver a cruzar JNI.
+
+#include <jni.h>
+
+#include <algorithm>
+#include <cstdint>
+#include <cstdlib>
+#include <cstring>
+
+namespace {
+
+// ==================== TABLAS ====================
+
+constexpr int N = 91;
+constexpr int BOARD_SIZE = 5;
+constexpr int SPAN = 2 * BOARD_SIZE + 1;
+
+// Códigos de celda: tipo (1..6 = ordinal de PieceType + 1) | color << 3 | movida << 4
+constexpr int PAWN = 1, KNIGHT = 2, BISHOP = 3, ROOK = 4, QUEEN = 5, KING = 6;
+constexpr int TYPE_MASK = 7;
+constexpr int COLOR_SHIFT = 3;
+constexpr int MOVED = 1 << 4;
+
+// Misma codificación que Move.java
+constexpr int FLAG_CAPTURE = 1 << 17;
+constexpr int FLAG_EN_PASSANT = 1 << 18;
+constexpr int FLAG_DOUBLE_PUSH = 1 << 19;
+
+constexpr int ORTHO[6][2] = {{1, 0}, {1, -1}, {0, -1}, {-1, 0}, {-1, 1}, {0, 1}};
+constexpr int DIAG[6][2] = {{2, -1}, {1, -2}, {-1, -1}, {-2, 1}, {-1, 2}, {1, 1}};
+constexpr int QUEEN_JUMPS[8][2] = {{2, 2}, {-2, -2}, {4, -2}, {-4, 2}, {2, -4}, {-2, 4}, {2, -2}, {-2, 2}};
+
+constexpr int PIECE_VALUES[7] = {0, 100, 300, 325, 500, 900, 0};
+
+int axialToIndex[SPAN * SPAN];
+int indexQ[N], indexR[N];
+
+int8_t orthoRays[N][6][SPAN];
+int8_t orthoLength[N][6];
+int8_t diagRays[N][6][SPAN];
+int8_t diagLength[N][6];
+int8_t orthoDirectionBetween[N * N];
+int8_t diagDirectionBetween[N * N];
+
+int8_t knightTargets[N][12];
+int8_t knightCount[N];
+int8_t kingTargets[N][6];
+int8_t kingCount[N];
+int8_t queenJumpTargets[N][8];
+int8_t queenJumpCount[N];
+
+int8_t pawnPush[2][N];
+int8_t pawnDoublePush[2][N];
+int8_t pawnEnPassant[2][N];
+
+int pieceSquare[7][N];
+int mirror[N];
+
+int indexOf(int q, int r) {
+    if (q < -BOARD_SIZE || q > BOARD_SIZE || r < -BOARD_SIZE || r > BOARD_SIZE) return -1;
+    return axialToIndex[(q + BOARD_SIZE) * SPAN + (r + BOARD_SIZE)];
+}
+
+void buildRay(int from, const int dir[2], int d, int8_t *ray, int8_t &length, int8_t *between) {
+    length = 0;
+    int q = indexQ[from] + dir[0];
+    int r = indexR[from] + dir[1];
+    int index;
+    while ((index = indexOf(q, r)) >= 0) {
+        ray[length++] = static_cast<int8_t>(index);
+        between[from * N + index] = static_cast<int8_t>(d);
+        q += dir[0];
+        r += dir[1];
+    }
+}
+
+void addLeaper(int from, int dq, int dr, int8_t *targets, int8_t &count) {
+    int index = indexOf(indexQ[from] + dq, indexR[from] + dr);
+    if (index >= 0) targets[count++] = static_cast<int8_t>(index);
+}
+
+void initTables() {
+    for (int &cell : axialToIndex) cell = -1;
+    int index = 0;
+    for (int q = -BOARD_SIZE; q <= BOARD_SIZE; q++) {
+        int r1 = std::max(-BOARD_SIZE, -q - BOARD_SIZE);
+        int r2 = std::min(BOARD_SIZE, -q + BOARD_SIZE);
+        for (int r = r1; r <= r2; r++) {
+            axialToIndex[(q + BOARD_SIZE) * SPAN + (r + BOARD_SIZE)] = index;
+            indexQ[index] = q;
+            indexR[index] = r;
+            index++;
+        }
+    }
+
+    std::memset(orthoDirectionBetween, -1, sizeof(orthoDirectionBetween));
+    std::memset(diagDirectionBetween, -1, sizeof(diagDirectionBetween));
+
+    for (int from = 0; from < N; from++) {
+        int q = indexQ[from];
+        int r = indexR[from];
+
+        for (int d = 0; d < 6; d++) {
+            buildRay(from, ORTHO[d], d, orthoRays[from][d], orthoLength[from][d], orthoDirectionBetween);
+            buildRay(from, DIAG[d], d, diagRays[from][d], diagLength[from][d], diagDirectionBetween);
+        }
+
+        // Caballo: 2 pasos en una dirección + 1 paso en una dirección adyacente
+        knightCount[from] = 0;
+        for (int i = 0; i < 6; i++) {
+            const int *dir1 = ORTHO[i];
+            const int *dir2 = ORTHO[(i + 1) % 6];
+            const int *dir3 = ORTHO[(i + 5) % 6];
+            addLeaper(from, 2 * dir1[0] + dir2[0], 2 * dir1[1] + dir2[1], knightTargets[from], knightCount[from]);
+            addLeaper(from, 2 * dir1[0] + dir3[0], 2 * dir1[1] + dir3[1], knightTargets[from], knightCount[from]);
+        }
+        kingCount[from] = 0;
+        for (const auto &dir : ORTHO) {
+            addLeaper(from, dir[0], dir[1], kingTargets[from], kingCount[from]);
+        }
+        queenJumpCount[from] = 0;
+        for (const auto &jump : QUEEN_JUMPS) {
+            addLeaper(from, jump[0], jump[1], queenJumpTargets[from], queenJumpCount[from]);
+        }
+
+        // Blancas avanzan hacia r negativo, negras hacia r positivo
+        pawnPush[0][from] = static_cast<int8_t>(indexOf(q, r - 1));
+        pawnDoublePush[0][from] = static_cast<int8_t>(indexOf(q, r - 2));
+        pawnEnPassant[0][from] = static_cast<int8_t>(indexOf(q + 1, r - 1));
+        pawnPush[1][from] = static_cast<int8_t>(indexOf(q, r + 1));
+        pawnDoublePush[1][from] = static_cast<int8_t>(indexOf(q, r + 2));
+        pawnEnPassant[1][from] = static_cast<int8_t>(indexOf(q - 1, r + 1));
+
+        // Tablas posicionales de Evaluator.java
+        mirror[from] = indexOf(-q, -r);
+        int center = 5 - std::max({std::abs(q), std::abs(r), std::abs(q + r)});
+        pieceSquare[PAWN][from] = -6 * r + 2 * center;
+        pieceSquare[KNIGHT][from] = 8 * center - 12;
+        pieceSquare[BISHOP][from] = 4 * center - 6;
+        pieceSquare[ROOK][from] = 2 * center;
+        pieceSquare[QUEEN][from] = 2 * center - 4;
+        pieceSquare[KING][from] = -6 * center;
+    }
+}
+
+// ==================== POSICIÓN ====================
+
+inline int typeOf(int code) { return code & TYPE_MASK; }
+inline int colorOf(int code) { return (code >> COLOR_SHIFT) & 1; }
+
+inline int moveFrom(int move) { return move & 0x7F; }
+inline int moveTo(int move) { return (move >> 7) & 0x7F; }
+inline int movePromotion(int move) { return (move >> 14) & 0x7; } // tipo nativo, 0 = ninguna
+
+inline int encode(int from, int to, int flags) { return from | (to << 7) | flags; }
+
+inline bool isPromotionCell(int side, int index) {
+    return indexR[index] == (side == 0 ? -BOARD_SIZE : BOARD_SIZE);
+}
+
+struct Undo {
+    int move;
+    uint8_t moved;
+    uint8_t captured;
+    int8_t capturedIndex;
+    int8_t enPassant;
+};
+
+struct Position {
+    uint8_t cell[N];
+    int side;      // 0 = blancas, 1 = negras
+    int enPassant; // celda saltada por el último avance doble, o -1
+    int king[2];   // -1 si no hay rey
+
+    void load(const jbyte *cells, int sideToMove, int enPassantIndex) {
+        king[0] = king[1] = -1;
+        for (int i = 0; i < N; i++) {
+            cell[i] = static_cast<uint8_t>(cells[i]);
+            if (typeOf(cell[i]) == KING) king[colorOf(cell[i])] = i;
+        }
+        side = sideToMove;
+        enPassant = enPassantIndex;
+    }
+
+    void make(int move, Undo &undo) {
+        int from = moveFrom(move);
+        int to = moveTo(move);
+        uint8_t piece = cell[from];
+        int us = colorOf(piece);
+
+        int capturedIndex = (move & FLAG_EN_PASSANT) ? pawnPush[1 - us][to] : to;
+        undo.move = move;
+        undo.moved = piece;
+        undo.captured = capturedIndex >= 0 ? cell[capturedIndex] : 0;
+        undo.capturedIndex = static_cast<int8_t>(capturedIndex);
+        undo.enPassant = static_cast<int8_t>(enPassant);
+
+        if (capturedIndex >= 0) {
+            if (typeOf(undo.captured) == KING) king[1 - us] = -1;
+            cell[capturedIndex] = 0;
+        }
+        cell[from] = 0;
+
+        int promotion = movePromotion(move);
+        cell[to] = static_cast<uint8_t>(promotion ? (promotion | (us << COLOR_SHIFT) | MOVED) : (piece | MOVED));
+        if (typeOf(piece) == KING) king[us] = to;
+
+        enPassant = (move & FLAG_DOUBLE_PUSH) ? pawnPush[us][from] : -1;
+        side = 1 - us;
+    }
+
+    void unmake(const Undo &undo) {
+        int from = moveFrom(undo.move);
+        int to = moveTo(undo.move);
+        int us = colorOf(undo.moved);
+
+        cell[to] = 0;
+        cell[from] = undo.moved;
+        if (typeOf(undo.moved) == KING) king[us] = from;
+        if (undo.capturedIndex >= 0) {
+            cell[undo.capturedIndex] = undo.captured;
+            if (typeOf(undo.captured) == KING) king[1 - us] = undo.capturedIndex;
+        }
+
+        enPassant = undo.enPassant;
+        side = us;
+    }
+
+    bool isOwn(int index, int color) const {
+        return cell[index] != 0 && colorOf(cell[index]) == color;
+    }
+
+    // Mismo criterio que los mapas de ataque de HexBoard
+    bool isAttacked(int index, int by) const {
+        for (int i = 0; i < knightCount[index]; i++) {
+            int c = cell[knightTargets[index][i]];
+            if (c && colorOf(c) == by && typeOf(c) == KNIGHT) return true;
+        }
+        // El peón captura en cualquier celda adyacente, igual que el rey
+        for (int i = 0; i < kingCount[index]; i++) {
+            int c = cell[kingTargets[index][i]];
+            if (c && colorOf(c) == by && (typeOf(c) == KING || typeOf(c) == PAWN)) return true;
+        }
+        for (int i = 0; i < queenJumpCount[index]; i++) {
+            int c = cell[queenJumpTargets[index][i]];
+            if (c && colorOf(c) == by && typeOf(c) == QUEEN) return true;
+        }
+        for (int d = 0; d < 6; d++) {
+            for (int i = 0; i < orthoLength[index][d]; i++) {
+                int c = cell[orthoRays[index][d][i]];
+                if (!c) continue;
+                if (colorOf(c) == by && (typeOf(c) == ROOK || typeOf(c) == QUEEN)) return true;
+                break;
+            }
+            for (int i = 0; i < diagLength[index][d]; i++) {
+                int c = cell[diagRays[index][d][i]];
+                if (!c) continue;
+                if (colorOf(c) == by && (typeOf(c) == BISHOP || typeOf(c) == QUEEN)) return true;
+                break;
+            }
+        }
+        return false;
+    }
+
+    // Cuántas piezas atacan la celda: mismo recuento que los mapas de ataque de HexBoard
+    // (el salto de la Dama cuenta aparte de sus rayos)
+    int countAttackers(int index, int by) const {
+        int count = 0;
+        for (int i = 0; i < knightCount[index]; i++) {
+            int c = cell[knightTargets[index][i]];
+            if (c && colorOf(c) == by && typeOf(c) == KNIGHT) count++;
+        }
+        for (int i = 0; i < kingCount[index]; i++) {
+            int c = cell[kingTargets[index][i]];
+            if (c && colorOf(c) == by && (typeOf(c) == KING || typeOf(c) == PAWN)) count++;
+        }
+        for (int i = 0; i < queenJumpCount[index]; i++) {
+            int c = cell[queenJumpTargets[index][i]];
+            if (c && colorOf(c) == by && typeOf(c) == QUEEN) count++;
+        }
+        for (int d = 0; d < 6; d++) {
+            for (int i = 0; i < orthoLength[index][d]; i++) {
+                int c = cell[orthoRays[index][d][i]];
+                if (!c) continue;
+                if (colorOf(c) == by && (typeOf(c) == ROOK || typeOf(c) == QUEEN)) count++;
+                break;
+            }
+            for (int i = 0; i < diagLength[index][d]; i++) {
+                int c = cell[diagRays[index][d][i]];
+                if (!c) continue;
+                if (colorOf(c) == by && (typeOf(c) == BISHOP || typeOf(c) == QUEEN)) count++;
+                break;
+            }
+        }
+        return count;
+    }
+
+    bool inCheck() const {
+        return king[side] >= 0 && isAttacked(king[side], 1 - side);
+    }
+};
+
+// ==================== GENERACIÓN ====================
+
+constexpr int MAX_MOVES = 512;
+constexpr int PROMOTION_TYPES[4] = {QUEEN, ROOK, BISHOP, KNIGHT};
+
+struct MoveBuffer {
+    int moves[MAX_MOVES];
+    int size = 0;
+
+    void add(int move) { moves[size++] = move; }
+};
+
+void addPawnMove(int from, int to, int flags, int side, MoveBuffer &out) {
+    if (isPromotionCell(side, to)) {
+        for (int type : PROMOTION_TYPES) {
+            // PieceType.ordinal() + 1 == tipo nativo
+            out.add(encode(from, to, flags) | (type << 14));
+        }
+    } else {
+        out.add(encode(from, to, flags));
+    }
+}
+
+bool isRayClear(const Position &pos, const int8_t *ray, int length, int to) {
+    for (int i = 0; i < length; i++) {
+        if (ray[i] == to) return true;
+        if (pos.cell[ray[i]]) return false;
+    }
+    return false;
+}
+
+bool reachesByRay(const Position &pos, int from, int to) {
+    int d = orthoDirectionBetween[from * N + to];
+    if (d >= 0 && isRayClear(pos, orthoRays[from][d], orthoLength[from][d], to)) return true;
+    d = diagDirectionBetween[from * N + to];
+    return d >= 0 && isRayClear(pos, diagRays[from][d], diagLength[from][d], to);
+}
+
+void addRayMoves(const Position &pos, int from, int8_t rays[6][SPAN], int8_t lengths[6], int us, MoveBuffer &out) {
+    for (int d = 0; d < 6; d++) {
+        for (int i = 0; i < lengths[d]; i++) {
+            int to = rays[d][i];
+            if (pos.cell[to]) {
+                if (!pos.isOwn(to, us)) out.add(encode(from, to, FLAG_CAPTURE));
+                break;
+            }
+            out.add(encode(from, to, 0));
+        }
+    }
+}
+
+void addLeaperMoves(const Position &pos, int from, const int8_t *targets, int count, int us, MoveBuffer &out) {
+    for (int i = 0; i < count; i++) {
+        int to = targets[i];
+        if (!pos.isOwn(to, us)) out.add(encode(from, to, pos.cell[to] ? FLAG_CAPTURE : 0));
+    }
+}
+
+void generatePseudoLegal(const Position &pos, MoveBuffer &out) {
+    int us = pos.side;
+    for (int from = 0; from < N; from++) {
+        int code = pos.cell[from];
+        if (!code || colorOf(code) != us) continue;
+
+        switch (typeOf(code)) {
+            case PAWN: {
+                int push = pawnPush[us][from];
+                if (push >= 0 && !pos.cell[push]) {
+                    addPawnMove(from, push, 0, us, out);
+                    int doublePush = pawnDoublePush[us][from];
+                    if (!(code & MOVED) && doublePush >= 0 && !pos.cell[doublePush]) {
+                        addPawnMove(from, doublePush, FLAG_DOUBLE_PUSH, us, out);
+                    }
+                }
+                int enPassant = pawnEnPassant[us][from];
+                for (int i = 0; i < kingCount[from]; i++) {
+                    int to = kingTargets[from][i];
+                    if (pos.cell[to]) {
+                        if (!pos.isOwn(to, us)) addPawnMove(from, to, FLAG_CAPTURE, us, out);
+                    } else if (to == enPassant && to == pos.enPassant) {
+                        addPawnMove(from, to, FLAG_EN_PASSANT, us, out);
+                    }
+                }
+                break;
+            }
+            case KNIGHT:
+                addLeaperMoves(pos, from, knightTargets[from], knightCount[from], us, out);
+                break;
+            case BISHOP:
+                addRayMoves(pos, from, diagRays[from], diagLength[from], us, out);
+                break;
+            case ROOK:
+                addRayMoves(pos, from, orthoRays[from], orthoLength[from], us, out);
+                break;
+            case QUEEN:
+                addRayMoves(pos, from, orthoRays[from], orthoLength[from], us, out);
+                addRayMoves(pos, from, diagRays[from], diagLength[from], us, out);
+                // Saltos que no repitan un destino ya alcanzado por los rayos
+                for (int i = 0; i < queenJumpCount[from]; i++) {
+                    int to = queenJumpTargets[from][i];
+                    if (!pos.isOwn(to, us) && !reachesByRay(pos, from, to)) {
+                        out.add(encode(from, to, pos.cell[to] ? FLAG_CAPTURE : 0));
+                    }
+                }
+                break;
+            case KING:
+                addLeaperMoves(pos, from, kingTargets[from], kingCount[from], us, out);
+                break;
+        }
+    }
+}
+
+// Como MoveValidator.generateLegalMoves: sin rey propio todos los movimientos son legales
+void generateLegal(Position &pos, MoveBuffer &out) {
+    MoveBuffer pseudo;
+    generatePseudoLegal(pos, pseudo);
+
+    int us = pos.side;
+    int king = pos.king[us];
+    if (king < 0) {
+        for (int i = 0; i < pseudo.size; i++) out.add(pseudo.moves[i]);
+        return;
+    }
+
+    bool inCheck = pos.isAttacked(king, 1 - us);
+    Undo undo;
+    for (int i = 0; i < pseudo.size; i++) {
+        int move = pseudo.moves[i];
+        int from = moveFrom(move);
+        // Fuera de jaque, una pieza que no está en línea con su rey no puede descubrirlo
+        if (!inCheck && from != king && !(move & FLAG_EN_PASSANT) &&
+            orthoDirectionBetween[king * N + from] < 0 && diagDirectionBetween[king * N + from] < 0) {
+            out.add(move);
+            continue;
+        }
+
+        pos.make(move, undo);
+        bool legal = !pos.isAttacked(pos.king[us], 1 - us);
+        pos.unmake(undo);
+        if (legal) out.add(move);
+    }
+}
+
+int64_t perft(Position &pos, int depth) {
+    if (depth == 0) return 1;
+
+    MoveBuffer moves;
+    generateLegal(pos, moves);
+    if (depth == 1) return moves.size;
+
+    int64_t nodes = 0;
+    Undo undo;
+    for (int i = 0; i < moves.size; i++) {
+        pos.make(moves.moves[i], undo);
+        nodes += perft(pos, depth - 1);
+        pos.unmake(undo);
+    }
+    return nodes;
+}
+
+// ==================== BÚSQUEDA ====================
+
+constexpr int MATE = 100000; // SearchEngine.MATE
+constexpr int MAX_PLY = 64;
+constexpr int INFINITE_SCORE = MATE + 1;
+
+// Penalizaciones de Evaluator.java
+constexpr int DOUBLED_PAWN = 12;
+constexpr int ISOLATED_PAWN = 10;
+constexpr int KING_ZONE_ATTACK = 8;
+
+int evaluate(const Position &pos) {
+    int value[2] = {0, 0};
+    int files[2][SPAN] = {};
+    for (int i = 0; i < N; i++) {
+        int code = pos.cell[i];
+        if (!code) continue;
+        int type = typeOf(code);
+        int color = colorOf(code);
+        value[color] += PIECE_VALUES[type] + pieceSquare[type][color == 0 ? i : mirror[i]];
+        if (type == PAWN) files[color][indexQ[i] + BOARD_SIZE]++;
+    }
+
+    for (int color = 0; color < 2; color++) {
+        for (int f = 0; f < SPAN; f++) {
+            int pawns = files[color][f];
+            if (pawns > 1) value[color] -= DOUBLED_PAWN * (pawns - 1);
+            bool neighbours = (f > 0 && files[color][f - 1]) || (f < SPAN - 1 && files[color][f + 1]);
+            if (!neighbours) value[color] -= ISOLATED_PAWN * pawns;
+        }
+
+        int king = pos.king[color];
+        if (king < 0) continue;
+        int attacked = pos.countAttackers(king, 1 - color);
+        for (int i = 0; i < kingCount[king]; i++) {
+            attacked += pos.countAttackers(kingTargets[king][i], 1 - color);
+        }
+        value[color] -= KING_ZONE_ATTACK * attacked;
+    }
+
+    int score = value[0] - value[1];
+    return pos.side == 0 ? score : -score;
+}
+
+class Searcher {
+public:
+    explicit Searcher(Position &position) : pos(position) {
+        std::memset(killers, 0, sizeof(killers));
+    }
+
+    int64_t nodes = 0;
+
+    int searchRoot(int depth, int &bestMove) {
+        MoveBuffer moves;
+        generateLegal(pos, moves);
+        bestMove = 0;
+        if (moves.size == 0) return -MATE;
+
+        int scores[MAX_MOVES];
+        scoreMoves(moves, scores, 0);
+
+        int alpha = -INFINITE_SCORE;
+        Undo undo;
+        for (int i = 0; i < moves.size; i++) {
+            pickNext(moves, scores, i);
+            pos.make(moves.moves[i], undo);
+            int score = -negamax(depth - 1, 1, -INFINITE_SCORE, -alpha);
+            pos.unmake(undo);
+            if (score > alpha) {
+                alpha = score;
+                bestMove = moves.moves[i];
+            }
+        }
+        return alpha;
+    }
+
+private:
+    static constexpr int CAPTURE_SCORE = 1 << 28;
+    static constexpr int KILLER_SCORE = 1 << 27;
+
+    Position &pos;
+    int killers[MAX_PLY + 1][2];
+
+    static bool isTactical(int move) {
+        return (move & FLAG_CAPTURE) || movePromotion(move);
+    }
+
+    int negamax(int depth, int ply, int alpha, int beta) {
+        nodes++;
+        bool inCheck = pos.inCheck();
+        if (inCheck) depth++; // extensión de jaque
+
+        if (depth <= 0) return quiesce(ply, alpha, beta);
+        if (ply >= MAX_PLY) return evaluate(pos);
+
+        MoveBuffer moves;
+        generateLegal(pos, moves);
+        // Sin movimientos pierde: por jaque mate o, en Gliński, por ahogado
+        if (moves.size == 0) return -(MATE - ply);
+
+        int scores[MAX_MOVES];
+        scoreMoves(moves, scores, ply);
+
+        int best = -INFINITE_SCORE;
+        Undo undo;
+        for (int i = 0; i < moves.size; i++) {
+            pickNext(moves, scores, i);
+            int move = moves.moves[i];
+            pos.make(move, undo);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            pos.unmake(undo);
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (!isTactical(move) && killers[ply][0] != move) {
+                            killers[ply][1] = killers[ply][0];
+                            killers[ply][0] = move;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    int quiesce(int ply, int alpha, int beta) {
+        nodes++;
+        if (ply >= MAX_PLY) return evaluate(pos);
+
+        bool inCheck = pos.inCheck();
+        MoveBuffer moves;
+        generateLegal(pos, moves);
+        if (moves.size == 0) return -(MATE - ply);
+
+        int best = -INFINITE_SCORE;
+        if (!inCheck) {
+            best = evaluate(pos);
+            if (best >= beta) return best;
+            if (best > alpha) alpha = best;
+        }
+
+        int scores[MAX_MOVES];
+        scoreMoves(moves, scores, ply);
+
+        Undo undo;
+        for (int i = 0; i < moves.size; i++) {
+            pickNext(moves, scores, i);
+            if (!inCheck && scores[i] < CAPTURE_SCORE) break;
+
+            pos.make(moves.moves[i], undo);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            pos.unmake(undo);
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) break;
+                }
+            }
+        }
+        return best;
+    }
+
+    // MVV-LVA para capturas y promociones, luego killers
+    void scoreMoves(const MoveBuffer &moves, int *scores, int ply) const {
+        for (int i = 0; i < moves.size; i++) {
+            int move = moves.moves[i];
+            if (isTactical(move)) {
+                int gain = 0;
+                if (move & FLAG_CAPTURE) {
+                    int victim = pos.cell[moveTo(move)];
+                    int victimValue = victim ? PIECE_VALUES[typeOf(victim)] : PIECE_VALUES[PAWN];
+                    gain = victimValue * 16 - PIECE_VALUES[typeOf(pos.cell[moveFrom(move)])] / 16;
+                }
+                gain += PIECE_VALUES[movePromotion(move)] * 16;
+                scores[i] = CAPTURE_SCORE + gain;
+            } else if (move == killers[ply][0]) {
+                scores[i] = KILLER_SCORE + 1;
+            } else if (move == killers[ply][1]) {
+                scores[i] = KILLER_SCORE;
+            } else {
+                scores[i] = 0;
+            }
+        }
+    }
+
+    static void pickNext(MoveBuffer &moves, int *scores, int i) {
+        int best = i;
+        for (int j = i + 1; j < moves.size; j++) {
+            if (scores[j] > scores[best]) best = j;
+        }
+        if (best != i) {
+            int move = moves.moves[i];
+            moves.moves[i] = moves.moves[best];
+            moves.moves[best] = move;
+            int score = scores[i];
+            scores[i] = scores[best];
+            scores[best] = score;
+        }
+    }
+};
+
+// ==================== JNI ====================
+
+bool loadPosition(JNIEnv *env, jbyteArray cells, jint side, jint enPassant, Position &pos) {
+    if (env->GetArrayLength(cells) != N) return false;
+    jbyte buffer[N];
+    env->GetByteArrayRegion(cells, 0, N, buffer);
+    pos.load(buffer, side, enPassant);
+    return true;
+}
+
+jint JNICALL nativeGenerateLegalMoves(JNIEnv *env, jclass, jbyteArray cells, jint side, jint enPassant,
+                                      jintArray out) {
+    Position pos;
+    if (!loadPosition(env, cells, side, enPassant, pos)) return -1;
+
+    MoveBuffer moves;
+    generateLegal(pos, moves);
+    if (env->GetArrayLength(out) < moves.size) return -1;
+    env->SetIntArrayRegion(out, 0, moves.size, reinterpret_cast<const jint *>(moves.moves));
+    return moves.size;
+}
+
+jlong JNICALL nativePerft(JNIEnv *env, jclass, jbyteArray cells, jint side, jint enPassant, jint depth) {
+    Position pos;
+    if (!loadPosition(env, cells, side, enPassant, pos)) return -1;
+    return perft(pos, depth);
+}
+
+jint JNICALL nativeEvaluate(JNIEnv *env, jclass, jbyteArray cells, jint side, jint enPassant) {
+    Position pos;
+    if (!loadPosition(env, cells, side, enPassant, pos)) return 0;
+    return evaluate(pos);
+}
+
+// result = {mejor movimiento, puntuación, nodos}
+jboolean JNICALL nativeSearch(JNIEnv *env, jclass, jbyteArray cells, jint side, jint enPassant, jint depth,
+                              jlongArray result) {
+    Position pos;
+    if (!loadPosition(env, cells, side, enPassant, pos) || env->GetArrayLength(result) < 3) return JNI_FALSE;
+
+    Searcher searcher(pos);
+    int bestMove = 0;
+    int score = 0;
+    // Profundización iterativa: las killers de cada iteración ordenan la siguiente
+    for (int d = 1; d <= depth; d++) {
+        score = searcher.searchRoot(d, bestMove);
+    }
+
+    jlong values[3] = {bestMove, score, searcher.nodes};
+    env->SetLongArrayRegion(result, 0, 3, values);
+    return JNI_TRUE;
+}
+
+const JNINativeMethod METHODS[] = {
+        {const_cast<char *>("nativeGenerateLegalMoves"), const_cast<char *>("([BII[I)I"),
+                reinterpret_cast<void *>(nativeGenerateLegalMoves)},
+        {const_cast<char *>("nativePerft"), const_cast<char *>("([BIII)J"),
+                reinterpret_cast<void *>(nativePerft)},
+        {const_cast<char *>("nativeEvaluate"), const_cast<char *>("([BII)I"),
+                reinterpret_cast<void *>(nativeEvaluate)},
+        {const_cast<char *>("nativeSearch"), const_cast<char *>("([BIII[J)Z"),
+                reinterpret_cast<void *>(nativeSearch)},
+};
+
+} // namespace
+
+// Registra los métodos por nombre al cargar la biblioteca, así no dependen del
+// nombre JNI decorado del paquete (que tiene guiones bajos)
+extern "C" JNIEXPORT jint JNICALL JNI_OnLoad(JavaVM *vm, void *) {
+    JNIEnv *env;
+    if (vm->GetEnv(reinterpret_cast<void **>(&env), JNI_VERSION_1_6) != JNI_OK) return JNI_ERR;
+
+    jclass generator = env->FindClass("upv_dap/sep_dic_25/itiid_76129/hexagonalchess/NativeMoveGenerator");
+    if (generator == nullptr) return JNI_ERR;
+    if (env->RegisterNatives(generator, METHODS, sizeof(METHODS) / sizeof(METHODS[0])) != JNI_OK) return JNI_ERR;
+
+    initTables();
+    return JNI_VERSION_1_6;
+}
@@ -4,28 +4,37 @@ import com.google.firebase.database.DataSnapshot;
 import com.google.firebase.database.DatabaseError;
 import com.google.firebase.database.DatabaseReference;
 import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.MutableData;
+import com.google.firebase.database.Transaction;
 import com.google.firebase.database.ValueEventListener;
 
-import java.util.HashMap;
-import java.util.Map;
-
-public class FirebaseManager {
+/**
+ * GameTransport sobre Firebase Realtime Database: cada partida es un nodo de "games".
+ */
+public class FirebaseManager implements GameTransport {
     private DatabaseReference gamesRef;
     private DatabaseReference currentGameRef;
     private String currentGameId;
     private String playerId;
     private GameState currentGameState;
+    // Reglas de las jugadas propias, aplicadas dentro de la transacción
+    private final MoveTransaction moveTransaction = new MoveTransaction();
 
     // NUEVO: Guardar el listener para poder removerlo después
     private ValueEventListener gameListener;
 
     public FirebaseManager() {
-        FirebaseDatabase database = FirebaseDatabase.getInstance();
+        this(FirebaseDatabase.getInstance());
+    }
+
+    // Base de datos inyectable (p. ej. la del emulador local)
+    public FirebaseManager(FirebaseDatabase database) {
         gamesRef = database.getReference("games");
         playerId = GameIdGenerator.generateNewId();
     }
 
     // Crear nueva partida
+    @Override
     public void createGame(OnGameCreatedListener listener) {
         String gameId = GameIdGenerator.generateNewId();
         DatabaseReference gameRef = gamesRef.child(gameId);
@@ -52,15 +61,7 @@ public class FirebaseManager {
         gameState.setWhitePlayerId(playerId);
 
         HexBoard board = new HexBoard(); // El constructor ya inicializa el tablero
-
-        Map<String, GameState.PieceData> piecesData = new HashMap<>();
-        for (Map.Entry<String, HexCell> entry : board.getAllCells().entrySet()) {
-            HexCell cell = entry.getValue();
-            if (cell.getPiece() != null) {
-                piecesData.put(entry.getKey(), new GameState.PieceData(cell.getPiece()));
-            }
-        }
-        gameState.setPieces(piecesData);
+        gameState.copyPiecesFrom(board);
 
         gameRef.setValue(gameState)
                 .addOnSuccessListener(aVoid -> {
@@ -73,6 +74,7 @@ public class FirebaseManager {
     }
 
     // Unirse a partida existente
+    @Override
     public void joinGame(String gameId, OnGameJoinedListener listener) {
         gamesRef.child(gameId).addListenerForSingleValueEvent(new ValueEventListener() {
             @Override
@@ -109,80 +111,49 @@ public class FirebaseManager {
         });
     }
 
-    // Realizar movimiento - VERSIÓN MEJORADA
+    // Realizar movimiento: una transacción sobre el nodo de la partida con la función de
+    // MoveTransaction.Commit (la misma que InMemoryGameTransport). Turno, propiedad de la
+    // pieza y legalidad se comprueban dentro, sobre el estado que tiene el servidor, y la
+    // jugada, el turno y el fin de partida se escriben en un solo compromiso: dos escrituras
+    // a la vez no pueden corromper la partida y un fallo la deja como estaba. El nodo es
+    // pequeño (foto compacta y registro de enteros) y, con la partida ya escuchada, la
+    // primera pasada usa la copia local y el compromiso cuesta un solo viaje.
+    @Override
     public void makeMove(String fromKey, String toKey, OnMoveCompleteListener listener) {
-        if (currentGameRef == null) {
+        if (currentGameRef == null || currentGameState == null) {
             listener.onError("No hay partida activa");
             return;
         }
 
-        currentGameRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(DataSnapshot snapshot) {
-                GameState gameState = snapshot.getValue(GameState.class);
+        String[] from = fromKey.split(",");
+        String[] to = toKey.split(",");
+        int fromIndex = HexBoard.indexOf(Integer.parseInt(from[0]), Integer.parseInt(from[1]));
+        int toIndex = HexBoard.indexOf(Integer.parseInt(to[0]), Integer.parseInt(to[1]));
+        MoveTransaction.Commit commit = moveTransaction.commit(playerId, fromIndex, toIndex);
 
-                if (gameState == null) {
-                    listener.onError("Estado de juego inválido");
-                    return;
-                }
-
-                // Validar turno
-                boolean isWhite = playerId.equals(gameState.getWhitePlayerId());
-                boolean isBlack = playerId.equals(gameState.getBlackPlayerId());
-                boolean correctTurn = (isWhite && "white".equals(gameState.getCurrentTurn())) ||
-                        (isBlack && "black".equals(gameState.getCurrentTurn()));
-
-                if (!correctTurn) {
-                    listener.onError("No es tu turno");
-                    return;
-                }
-
-                Map<String, GameState.PieceData> pieces = gameState.getPieces() != null ?
-                        gameState.getPieces() : new HashMap<>();
-
-                GameState.PieceData piece = pieces.get(fromKey);
-
-                if (piece == null) {
-                    listener.onError("No hay pieza en la posición origen");
-                    return;
-                }
-
-                // Validar que la pieza sea del color correcto
-                String expectedColor = "white".equals(gameState.getCurrentTurn()) ? "WHITE" : "BLACK";
-                if (!piece.color.equals(expectedColor)) {
-                    listener.onError("No puedes mover esa pieza");
-                    return;
-                }
-
-                // Realizar el movimiento
-                pieces.remove(fromKey);
-                piece.hasMoved = true; // Marcar que se ha movido (importante para peones)
-                pieces.put(toKey, piece);
-
-                String newTurn = "white".equals(gameState.getCurrentTurn()) ? "black" : "white";
-
-                Map<String, Object> updates = new HashMap<>();
-                updates.put("pieces", pieces);
-                updates.put("currentTurn", newTurn);
-                updates.put("lastMoveTimestamp", System.currentTimeMillis());
-
-                currentGameRef.updateChildren(updates)
-                        .addOnSuccessListener(aVoid -> {
-                            listener.onMoveComplete();
-                        })
-                        .addOnFailureListener(e -> {
-                            listener.onError("Error en Firebase: " + e.getMessage());
-                        });
+        currentGameRef.runTransaction(new Transaction.Handler() {
+            @Override
+            public Transaction.Result doTransaction(MutableData currentData) {
+                GameState gameState = currentData.getValue(GameState.class);
+                // Sin copia local la primera pasada llega vacía; el servidor la repite con datos
+                if (gameState == null) return Transaction.success(currentData);
+
+                GameState next = commit.apply(gameState);
+                if (next == null) return Transaction.abort();
+                currentData.setValue(next);
+                return Transaction.success(currentData);
             }
 
             @Override
-            public void onCancelled(DatabaseError error) {
-                listener.onError("Error de conexión: " + error.getMessage());
+            public void onComplete(DatabaseError error, boolean committed, DataSnapshot snapshot) {
+                commit.complete(error != null ? "Error en Firebase: " + error.getMessage() : null,
+                        committed, snapshot != null && snapshot.exists(), listener);
             }
         });
     }
 
     // Escuchar cambios en el juego
+    @Override
     public void listenToGame(OnGameUpdateListener listener) {
         if (currentGameRef == null) return;
 
@@ -211,6 +182,7 @@ public class FirebaseManager {
     }
 
     // NUEVO: Método para limpiar recursos
+    @Override
     public void cleanup() {
         if (currentGameRef != null && gameListener != null) {
             currentGameRef.removeEventListener(gameListener);
@@ -221,36 +193,18 @@ public class FirebaseManager {
         currentGameState = null;
     }
 
+    @Override
     public String getPlayerId() {
         return playerId;
     }
 
+    @Override
     public GameState getCurrentGameState() {
         return currentGameState;
     }
 
+    @Override
     public String getCurrentGameId() {
         return currentGameId;
     }
-
-    // Interfaces de callbacks
-    public interface OnGameCreatedListener {
-        void onGameCreated(String gameId);
-        void onError(String error);
-    }
-
-    public interface OnGameJoinedListener {
-        void onGameJoined(String gameId);
-        void onError(String error);
-    }
-
-    public interface OnMoveCompleteListener {
-        void onMoveComplete();
-        void onError(String error);
-    }
-
-    public interface OnGameUpdateListener {
-        void onGameUpdate(GameState gameState);
-        void onError(String error);
-    }
-}
\ No newline at end of file
+}
@@ -6,6 +6,7 @@ import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
 import android.graphics.PointF;
+import android.graphics.Rect;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
@@ -15,9 +16,11 @@ import java.util.List;
 public class HexagonalBoardView extends View {
     private HexBoard board;
     private MoveValidator moveValidator;
-    private Paint hexPaint, textPaint, highlightPaint, validMovePaint, dragPaint;
+    private Paint hexPaint, textPaint, highlightPaint, validMovePaint, dragPaint, hintPaint;
     private float hexSize = 50f;
     private float centerX, centerY;
+    private final HexLayout layout = new HexLayout();
+    private final Rect clip = new Rect();
 
     // Para drag and drop
     private HexCell draggedCell;
@@ -25,6 +28,16 @@ public class HexagonalBoardView extends View {
     private HexCell selectedCell;
     private List<HexCell> validMoves;
 
+    // Sugerencia del libro de aperturas (se recalcula solo cuando cambia la posición)
+    private OpeningBook openingBook;
+    private PonderService analysis;
+    private boolean showSuggestion;
+    private long suggestionKey;
+    private int suggestedMove = Move.NONE;
+    // Última pista del análisis comprobada para suggestionKey y su jugada si es legal
+    private SearchEngine.SearchResult checkedHint;
+    private int hintMove = Move.NONE;
+
     // Listeners
     private OnCellClickListener cellClickListener;
     private OnMoveAttemptListener moveAttemptListener;
@@ -70,6 +83,11 @@ public class HexagonalBoardView extends View {
         dragPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         dragPaint.setStyle(Paint.Style.FILL);
         dragPaint.setAlpha(200);
+
+        hintPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        hintPaint.setStyle(Paint.Style.STROKE);
+        hintPaint.setStrokeCap(Paint.Cap.ROUND);
+        hintPaint.setColor(Color.argb(140, 30, 136, 229));
     }
 
     @Override
@@ -79,6 +97,7 @@ public class HexagonalBoardView extends View {
         centerY = h / 2f;
         // Ajustar para radio 5 (11 hexágonos en el diámetro más ancho)
         hexSize = Math.min(w, h) / 19f;
+        layout.setGeometry(hexSize, centerX, centerY);
     }
 
     @Override
@@ -87,11 +106,15 @@ public class HexagonalBoardView extends View {
 
         if (board == null) return;
 
-        // Dibujar todas las celdas
-        for (HexCell cell : board.getAllCells().values()) {
+        // Dibujar las celdas que caen en la región a redibujar (ver invalidateCells)
+        boolean clipped = canvas.getClipBounds(clip);
+        for (int i = 0; i < HexBoard.CELL_COUNT; i++) {
+            HexCell cell = board.getCell(i);
+            if (clipped && !intersectsClip(cell)) continue;
             drawHexCell(canvas, cell);
         }
         //drawCoordinates(canvas);
+        drawSuggestedMove(canvas);
         // Dibujar movimientos válidos si hay una celda seleccionada
         if (selectedCell != null && validMoves != null) {
             for (HexCell cell : validMoves) {
@@ -134,6 +157,13 @@ public class HexagonalBoardView extends View {
         }
     }
 
+    private boolean intersectsClip(HexCell cell) {
+        float x = layout.toPixelX(cell.getQ(), cell.getR());
+        float y = layout.toPixelY(cell.getQ(), cell.getR());
+        return x + hexSize >= clip.left && x - hexSize <= clip.right
+                && y + hexSize >= clip.top && y - hexSize <= clip.bottom;
+    }
+
     private int getCellColor(HexCell cell) {
         // Colores que coinciden con la imagen de referencia
         switch (cell.getColor()) {
@@ -169,6 +199,28 @@ public class HexagonalBoardView extends View {
         drawPiece(canvas, dragPosition, draggedCell.getPiece());
     }
 
+    private void drawSuggestedMove(Canvas canvas) {
+        int move = getSuggestedMove();
+        if (move == Move.NONE) return;
+
+        HexCell from = board.getCell(Move.from(move));
+        HexCell to = board.getCell(Move.to(move));
+        PointF start = hexToPixel(from.getQ(), from.getR());
+        PointF end = hexToPixel(to.getQ(), to.getR());
+
+        hintPaint.setStrokeWidth(hexSize * 0.25f);
+        canvas.drawLine(start.x, start.y, end.x, end.y, hintPaint);
+
+        // Punta de la flecha
+        float angle = (float) Math.atan2(end.y - start.y, end.x - start.x);
+        float length = hexSize * 0.6f;
+        for (float side : new float[]{-0.5f, 0.5f}) {
+            canvas.drawLine(end.x, end.y,
+                    end.x - length * (float) Math.cos(angle + side),
+                    end.y - length * (float) Math.sin(angle + side), hintPaint);
+        }
+    }
+
     private void drawHexHighlight(Canvas canvas, HexCell cell) {
         PointF center = hexToPixel(cell.getQ(), cell.getR());
         Path hexPath = createHexagonPath(center);
@@ -240,7 +292,7 @@ public class HexagonalBoardView extends View {
             dragPosition = new PointF(x, y);
 
             selectedCell = cell;
-            validMoves = moveValidator.getValidMoves(cell);
+            validMoves = moveValidator.getLegalMoves(cell);
 
             invalidate();
             return true;
@@ -268,7 +320,7 @@ public class HexagonalBoardView extends View {
         dragPosition = null;
 
         if (targetCell != null && fromCell != targetCell) {
-            if (moveValidator.isValidMove(fromCell, targetCell)) {
+            if (moveValidator.isLegalMove(fromCell, targetCell)) {
                 if (moveAttemptListener != null) {
                     moveAttemptListener.onMoveAttempt(fromCell, targetCell, isValid -> {
                         selectedCell = null;
@@ -297,56 +349,113 @@ public class HexagonalBoardView extends View {
     // ==================== CONVERSIÓN DE COORDENADAS ====================
 
     private PointF hexToPixel(int q, int r) {
-        // CORRECCIÓN: Fórmula para point-top orientation
-        float x = hexSize * (float) (3.0 / 2 * q);
-        float y = hexSize * (float) (Math.sqrt(3) * (r + q / 2.0));
-
-        return new PointF(centerX + x, centerY + y);
+        return new PointF(layout.toPixelX(q, r), layout.toPixelY(q, r));
     }
 
     private HexCell pixelToHex(float x, float y) {
-        // CORRECCIÓN: Conversión inversa para point-top
-        float relX = (x - centerX) / hexSize;
-        float relY = (y - centerY) / hexSize;
+        int index = layout.pixelToIndex(x, y);
+        return index >= 0 ? board.getCell(index) : null;
+    }
 
-        float q = (float) (2.0 / 3 * relX);
-        float r = (float) ((-1.0 / 3 * relX + Math.sqrt(3) / 3 * relY));
+    // ==================== MÉTODOS PÚBLICOS ====================
 
-        return hexRound(q, r);
+    public HexBoard getBoard() {
+        return board;
     }
 
-    private HexCell hexRound(float q, float r) {
-        float s = -q - r;
-
-        int rq = Math.round(q);
-        int rr = Math.round(r);
-        int rs = Math.round(s);
+    public void setBoard(HexBoard board) {
+        this.board = board;
+        this.moveValidator = new MoveValidator(board);
+        invalidate();
+    }
 
-        float qDiff = Math.abs(rq - q);
-        float rDiff = Math.abs(rr - r);
-        float sDiff = Math.abs(rs - s);
+    /**
+     * Redibuja solo la región de las celdas marcadas (bitboard de índices), p. ej. las
+     * que cambió la última actualización de la partida. Con la sugerencia visible la
+     * flecha puede cambiar de sitio, así que entonces se redibuja todo.
+     */
+    @SuppressWarnings("deprecation")
+    public void invalidateCells(long lo, long hi) {
+        if (showSuggestion || selectedCell != null) {
+            invalidate();
+            return;
+        }
 
-        if (qDiff > rDiff && qDiff > sDiff) {
-            rq = -rr - rs;
-        } else if (rDiff > sDiff) {
-            rr = -rq - rs;
+        float left = Float.MAX_VALUE, top = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE, bottom = -Float.MAX_VALUE;
+        for (int i = 0; i < HexBoard.CELL_COUNT; i++) {
+            if (!Bitboard.isSet(lo, hi, i)) continue;
+            float x = layout.toPixelX(HexBoard.qOf(i), HexBoard.rOf(i));
+            float y = layout.toPixelY(HexBoard.qOf(i), HexBoard.rOf(i));
+            left = Math.min(left, x - hexSize);
+            top = Math.min(top, y - hexSize);
+            right = Math.max(right, x + hexSize);
+            bottom = Math.max(bottom, y + hexSize);
         }
+        if (left > right) return;
 
-        return board.getCell(rq, rr);
+        // Con aceleración por hardware (API 28+) el sistema redibuja la vista entera
+        invalidate((int) Math.floor(left), (int) Math.floor(top),
+                (int) Math.ceil(right) + 1, (int) Math.ceil(bottom) + 1);
     }
 
-    // ==================== MÉTODOS PÚBLICOS ====================
+    public void setOpeningBook(OpeningBook book) {
+        this.openingBook = book;
+        suggestedMove = Move.NONE;
+        suggestionKey = 0;
+        invalidate();
+    }
 
-    public HexBoard getBoard() {
-        return board;
+    /**
+     * Análisis en segundo plano que da la sugerencia cuando la posición no está en el libro
+     */
+    public void setAnalysis(PonderService analysis) {
+        this.analysis = analysis;
+        checkedHint = null;
+        hintMove = Move.NONE;
+        invalidate();
     }
 
-    public void setBoard(HexBoard board) {
-        this.board = board;
-        this.moveValidator = new MoveValidator(board);
+    /**
+     * Muestra u oculta la flecha con el movimiento sugerido (libro o análisis)
+     */
+    public void setShowSuggestion(boolean show) {
+        this.showSuggestion = show;
         invalidate();
     }
 
+    public boolean isShowingSuggestion() {
+        return showSuggestion;
+    }
+
+    /**
+     * Movimiento del libro para la posición actual o, si no está, el del análisis en
+     * segundo plano; Move.NONE si no hay ninguno o la sugerencia está oculta
+     */
+    public int getSuggestedMove() {
+        if (!showSuggestion || board == null) return Move.NONE;
+
+        long key = board.getHash();
+        if (key != suggestionKey) {
+            suggestionKey = key;
+            suggestedMove = openingBook != null ? openingBook.bestMove(board) : Move.NONE;
+            checkedHint = null;
+            hintMove = Move.NONE;
+        }
+        // La pista del análisis puede llegar más tarde: en cada fotograma solo se mira si
+        // cambió, y la legalidad se comprueba una vez por pista nueva
+        if (suggestedMove == Move.NONE && analysis != null) {
+            SearchEngine.SearchResult hint = analysis.peekHint(key);
+            if (hint != checkedHint) {
+                checkedHint = hint;
+                SearchEngine.SearchResult verified = PonderService.verify(board, hint);
+                hintMove = verified != null ? verified.bestMove : Move.NONE;
+            }
+            return hintMove;
+        }
+        return suggestedMove;
+    }
+
     public void clearSelection() {
         selectedCell = null;
         validMoves = null;
@@ -2,6 +2,7 @@ package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
 
 import androidx.appcompat.app.AppCompatActivity;
 import android.app.AlertDialog;
+import android.content.res.AssetFileDescriptor;
 import android.os.Bundle;
 import android.util.Log;
 import android.widget.Button;
@@ -9,17 +10,35 @@ import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
 
+import java.io.FileInputStream;
+import java.io.IOException;
+
 public class MainActivity extends AppCompatActivity {
     private static final String TAG = "MainActivity";
+    private static final long CPU_TIME_MS = 2000; // tiempo de búsqueda por jugada de la CPU
+    private static final String OPENING_BOOK_ASSET = "opening.book";
+    private static final String TABLEBASE_ASSETS = "tablebases";
+    // Profundidad mínima para que la CPU juegue al instante la respuesta ya analizada
+    private static final int PONDER_MIN_DEPTH = 4;
 
     private HexagonalBoardView boardView;
     private TextView tvGameId, tvTurn;
-    private Button btnCreateGame, btnJoinGame;
+    private Button btnCreateGame, btnJoinGame, btnPlayCpu, btnHint;
 
-    private FirebaseManager firebaseManager;
+    private GameTransport firebaseManager;
     private HexCell selectedCell;
+    private GameReplay gameReplay; // partida en línea: tablero reconstruido con el registro
     private boolean isMyTurn = false;
 
+    // Partida local contra la computadora (el jugador lleva blancas)
+    private ComputerPlayer computerPlayer;
+    private boolean cpuMode = false;
+    private OpeningBook openingBook;
+    private EndgameTablebase tablebase;
+
+    // Análisis en segundo plano (opcional: solo mientras se muestran las pistas)
+    private PonderService ponder;
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -27,6 +46,9 @@ public class MainActivity extends AppCompatActivity {
 
         initializeViews();
         firebaseManager = new FirebaseManager();
+        openingBook = loadOpeningBook();
+        boardView.setOpeningBook(openingBook);
+        tablebase = loadTablebase();
         setupListeners();
 
         // IMPORTANTE: Verificar posiciones iniciales para debugging
@@ -39,6 +61,8 @@ public class MainActivity extends AppCompatActivity {
         tvTurn = findViewById(R.id.tvTurn);
         btnCreateGame = findViewById(R.id.btnCreateGame);
         btnJoinGame = findViewById(R.id.btnJoinGame);
+        btnPlayCpu = findViewById(R.id.btnPlayCpu);
+        btnHint = findViewById(R.id.btnHint);
     }
 
     private void setupListeners() {
@@ -48,8 +72,19 @@ public class MainActivity extends AppCompatActivity {
         // Botón unirse a partida
         btnJoinGame.setOnClickListener(v -> showJoinGameDialog());
 
+        // Botón jugar contra la computadora
+        btnPlayCpu.setOnClickListener(v -> startCpuGame());
+
+        // Botón mostrar/ocultar la sugerencia del libro de aperturas
+        btnHint.setOnClickListener(v -> toggleSuggestion());
+
         // IMPORTANTE: Usar el listener correcto para drag & drop
         boardView.setOnMoveAttemptListener((from, to, callback) -> {
+            if (cpuMode) {
+                makeLocalMove(from, to, callback);
+                return;
+            }
+
             if (!isMyTurn) {
                 Toast.makeText(this, "No es tu turno", Toast.LENGTH_SHORT).show();
                 callback.onMoveValidated(false);
@@ -63,11 +98,20 @@ public class MainActivity extends AppCompatActivity {
                 return;
             }
 
-            // Realizar el movimiento en Firebase
+            int move = new MoveValidator(boardView.getBoard()).findLegalMove(from, to);
+            if (move == Move.NONE || gameReplay == null || gameReplay.getPly() < 0) {
+                callback.onMoveValidated(false);
+                return;
+            }
+
+            // Se muestra al instante; la actualización de Firebase la confirma o se deshace
             String fromKey = from.getQ() + "," + from.getR();
             String toKey = to.getQ() + "," + to.getR();
+            gameReplay.applyPending(move);
+            isMyTurn = false;
+            callback.onMoveValidated(true);
 
-            makeMove(fromKey, toKey, callback);
+            makeMove(fromKey, toKey);
         });
     }
 
@@ -83,7 +127,8 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void createGame() {
-        firebaseManager.createGame(new FirebaseManager.OnGameCreatedListener() {
+        stopCpuGame();
+        firebaseManager.createGame(new GameTransport.OnGameCreatedListener() {
             @Override
             public void onGameCreated(String gameId) {
                 tvGameId.setText("ID: " + gameId);
@@ -123,7 +168,8 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void joinGame(String gameId) {
-        firebaseManager.joinGame(gameId, new FirebaseManager.OnGameJoinedListener() {
+        stopCpuGame();
+        firebaseManager.joinGame(gameId, new GameTransport.OnGameJoinedListener() {
             @Override
             public void onGameJoined(String gameId) {
                 tvGameId.setText("ID: " + gameId);
@@ -143,12 +189,22 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void listenToGameUpdates() {
-        firebaseManager.listenToGame(new FirebaseManager.OnGameUpdateListener() {
+        // Tablero nuevo para la partida; cada actualización solo le aplica las jugadas nuevas
+        boardView.setBoard(new HexBoard());
+        gameReplay = new GameReplay(boardView.getBoard());
+        firebaseManager.listenToGame(new GameTransport.OnGameUpdateListener() {
             @Override
             public void onGameUpdate(GameState gameState) {
                 updateBoard(gameState);
                 updateTurnDisplay(gameState);
                 checkMyTurn(gameState);
+
+                // Mientras el rival piensa se analizan sus respuestas probables
+                if ("finished".equals(gameState.getStatus())) {
+                    stopPondering();
+                } else {
+                    startPondering();
+                }
             }
 
             @Override
@@ -160,35 +216,28 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void updateBoard(GameState gameState) {
-        HexBoard board = boardView.getBoard();
-
-        // Limpiar todas las piezas
-        for (HexCell cell : board.getAllCells().values()) {
-            cell.setPiece(null);
+        // Foto más jugadas del registro; el turno queda en el tablero (entra en la clave Zobrist)
+        try {
+            int applied = gameReplay.sync(gameState);
+            Log.d(TAG, "Jugadas nuevas: " + applied + " (ply " + gameReplay.getPly() + ")");
+        } catch (IllegalArgumentException e) {
+            Log.e(TAG, "Posición recibida inválida: " + e.getMessage());
+            return;
         }
 
-        // Colocar piezas según Firebase
-        if (gameState.getPieces() != null) {
-            for (String key : gameState.getPieces().keySet()) {
-                GameState.PieceData pieceData = gameState.getPieces().get(key);
-                String[] coords = key.split(",");
-                int q = Integer.parseInt(coords[0]);
-                int r = Integer.parseInt(coords[1]);
-
-                HexCell cell = board.getCell(q, r);
-                if (cell != null && pieceData != null) {
-                    ChessPiece piece = pieceData.toPiece();
-                    // IMPORTANTE: Actualizar el estado hasMoved
-                    piece.setMoved(pieceData.hasMoved);
-                    cell.setPiece(piece);
-                }
-            }
-        }
-
-        boardView.invalidate();
+        // Solo se redibujan las celdas que cambiaron (todas si se reconstruyó)
+        boardView.invalidateCells(gameReplay.getChangedLo(), gameReplay.getChangedHi());
+        gameReplay.clearChanges();
     }
 
     private void updateTurnDisplay(GameState gameState) {
+        if ("finished".equals(gameState.getStatus())) {
+            String winner = "white".equals(gameState.getWinner()) ? "Blancas" : "Negras";
+            String reason = "stalemate".equals(gameState.getEndReason()) ? "ahogado" : "jaque mate";
+            tvTurn.setText("Fin: ganan " + winner + " (" + reason + ")");
+            return;
+        }
+
         String turn = gameState.getCurrentTurn();
         tvTurn.setText("Turno: " + (turn.equals("white") ? "Blancas" : "Negras"));
         tvTurn.setTextColor(turn.equals("white") ?
@@ -202,8 +251,11 @@ public class MainActivity extends AppCompatActivity {
         boolean amBlack = myId.equals(gameState.getBlackPlayerId());
 
         String currentTurn = gameState.getCurrentTurn();
-        isMyTurn = (amWhite && "white".equals(currentTurn)) ||
-                (amBlack && "black".equals(currentTurn));
+        // Con una jugada propia sin confirmar el turno ya es del rival
+        isMyTurn = !"finished".equals(gameState.getStatus()) &&
+                (gameReplay == null || gameReplay.getPendingCount() == 0) &&
+                ((amWhite && "white".equals(currentTurn)) ||
+                        (amBlack && "black".equals(currentTurn)));
     }
 
     private boolean isMyPiece(ChessPiece piece) {
@@ -221,22 +273,26 @@ public class MainActivity extends AppCompatActivity {
                 (amBlack && piece.getColor() == ChessPiece.PieceColor.BLACK);
     }
 
-    private void makeMove(String fromKey, String toKey,
-                          HexagonalBoardView.OnMoveValidationCallback callback) {
+    private void makeMove(String fromKey, String toKey) {
+        GameReplay replay = gameReplay;
         firebaseManager.makeMove(fromKey, toKey,
-                new FirebaseManager.OnMoveCompleteListener() {
+                new GameTransport.OnMoveCompleteListener() {
                     @Override
                     public void onMoveComplete() {
-                        Toast.makeText(MainActivity.this,
-                                "Movimiento realizado", Toast.LENGTH_SHORT).show();
-                        callback.onMoveValidated(true);
+                        Log.d(TAG, "Movimiento confirmado: " + fromKey + " -> " + toKey);
                     }
 
                     @Override
                     public void onError(String error) {
+                        // Si el registro ya la confirmó o la sustituyó no queda nada pendiente
+                        if (replay == gameReplay) {
+                            replay.rollbackPending();
+                            GameState gameState = firebaseManager.getCurrentGameState();
+                            if (gameState != null) checkMyTurn(gameState);
+                            boardView.invalidate();
+                        }
                         Toast.makeText(MainActivity.this,
                                 "Error: " + error, Toast.LENGTH_SHORT).show();
-                        callback.onMoveValidated(false);
                     }
                 });
     }
@@ -244,11 +300,205 @@ public class MainActivity extends AppCompatActivity {
     private void enableButtons(boolean enable) {
         btnCreateGame.setEnabled(enable);
         btnJoinGame.setEnabled(enable);
+        btnPlayCpu.setEnabled(enable);
+    }
+
+    // ==================== PARTIDA CONTRA LA COMPUTADORA ====================
+
+    private void startCpuGame() {
+        if (computerPlayer == null) {
+            computerPlayer = new ComputerPlayer(Runtime.getRuntime().availableProcessors());
+            computerPlayer.setOpeningBook(openingBook);
+            computerPlayer.setTablebase(tablebase);
+        }
+        computerPlayer.cancel();
+        cpuMode = true;
+
+        boardView.setBoard(new HexBoard());
+        tvGameId.setText("Vs CPU");
+        if (!checkLocalGameOver()) {
+            startPondering();
+        }
+    }
+
+    private void stopCpuGame() {
+        cpuMode = false;
+        if (computerPlayer != null) {
+            computerPlayer.cancel();
+        }
+        stopPondering();
+    }
+
+    private void makeLocalMove(HexCell from, HexCell to,
+                               HexagonalBoardView.OnMoveValidationCallback callback) {
+        HexBoard board = boardView.getBoard();
+        if (computerPlayer.isThinking() || board.getSideToMove() != ChessPiece.PieceColor.WHITE) {
+            Toast.makeText(this, "No es tu turno", Toast.LENGTH_SHORT).show();
+            callback.onMoveValidated(false);
+            return;
+        }
+
+        int move = new MoveValidator(board).findLegalMove(from, to);
+        if (move == Move.NONE) {
+            callback.onMoveValidated(false);
+            return;
+        }
+
+        board.makeMove(move);
+        callback.onMoveValidated(true);
+        // La CPU necesita el procesador; lo que ya se analizó queda en la caché
+        stopPondering();
+
+        if (!checkLocalGameOver()) {
+            SearchEngine.SearchResult ready = ponder != null ? ponder.getHint(board) : null;
+            if (ready != null && ready.depth >= PONDER_MIN_DEPTH) {
+                Log.d(TAG, "CPU (analizada de antemano): " + ready);
+                playComputerMove(ready);
+            } else {
+                startComputerTurn();
+            }
+        }
+    }
+
+    private void startComputerTurn() {
+        tvTurn.setText("CPU pensando...");
+
+        // La búsqueda corre en un hilo de fondo sobre una copia del tablero
+        computerPlayer.think(boardView.getBoard(), CPU_TIME_MS, result -> runOnUiThread(() -> {
+            if (!cpuMode || result.bestMove == Move.NONE) return;
+
+            Log.d(TAG, "CPU: " + result);
+            playComputerMove(result);
+        }));
+    }
+
+    private void playComputerMove(SearchEngine.SearchResult result) {
+        boardView.getBoard().makeMove(result.bestMove);
+        boardView.invalidate();
+        tvGameId.setText("Vs CPU (" + result.nodesPerSecond() / 1000 + "k nodos/s)");
+        if (!checkLocalGameOver()) {
+            startPondering();
+        }
+    }
+
+    /**
+     * Actualiza el turno en pantalla; devuelve true si el color que mueve ya no tiene movimientos
+     */
+    private boolean checkLocalGameOver() {
+        HexBoard board = boardView.getBoard();
+        ChessPiece.PieceColor toMove = board.getSideToMove();
+        MoveValidator.GameStatus status = new MoveValidator(board).getGameStatus(toMove);
+
+        if (status == MoveValidator.GameStatus.PLAYING) {
+            tvTurn.setText("Turno: " + (toMove == ChessPiece.PieceColor.WHITE ? "Blancas" : "Negras") +
+                    endgameVerdict(board));
+            return false;
+        }
+
+        String winner = toMove == ChessPiece.PieceColor.WHITE ? "Negras" : "Blancas";
+        String reason = status == MoveValidator.GameStatus.CHECKMATE ? "jaque mate" : "ahogado";
+        tvTurn.setText("Fin: ganan " + winner + " (" + reason + ")");
+        return true;
+    }
+
+    // ==================== LIBRO DE APERTURAS ====================
+
+    /**
+     * Mapea el libro desde los assets (se empaqueta sin comprimir); null si no existe
+     */
+    private OpeningBook loadOpeningBook() {
+        try (AssetFileDescriptor fd = getAssets().openFd(OPENING_BOOK_ASSET);
+             FileInputStream input = fd.createInputStream()) {
+            OpeningBook book = OpeningBook.open(input.getChannel(), fd.getStartOffset(), fd.getLength());
+            Log.d(TAG, "Libro de aperturas: " + book.size() + " registros");
+            return book;
+        } catch (IOException e) {
+            Log.d(TAG, "Sin libro de aperturas: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // ==================== TABLAS DE FINALES ====================
+
+    /**
+     * Mapea las tablas de assets/tablebases (sin comprimir); null si no hay ninguna
+     */
+    private EndgameTablebase loadTablebase() {
+        EndgameTablebase tablebase = new EndgameTablebase();
+        try {
+            String[] files = getAssets().list(TABLEBASE_ASSETS);
+            if (files == null) return null;
+            for (String name : files) {
+                if (!name.endsWith(EndgameTablebase.EXTENSION)) continue;
+                try (AssetFileDescriptor fd = getAssets().openFd(TABLEBASE_ASSETS + "/" + name);
+                     FileInputStream input = fd.createInputStream()) {
+                    tablebase.add(input.getChannel(), fd.getStartOffset(), fd.getLength());
+                }
+            }
+        } catch (IOException e) {
+            Log.d(TAG, "Error al cargar las tablas de finales: " + e.getMessage());
+        }
+        Log.d(TAG, "Tablas de finales: hasta " + tablebase.getMaxPieces() + " piezas");
+        return tablebase.getMaxPieces() > 0 ? tablebase : null;
+    }
+
+    /**
+     * Resultado teórico de la posición si está en las tablas, para mostrarlo junto al turno
+     */
+    private String endgameVerdict(HexBoard board) {
+        if (tablebase == null) return "";
+
+        int score = tablebase.probe(board);
+        if (score == EndgameTablebase.NOT_FOUND) return "";
+        if (score == 0) return " · tablas";
+
+        boolean whiteWins = (score > 0) == (board.getSideToMove() == ChessPiece.PieceColor.WHITE);
+        return " · ganan " + (whiteWins ? "Blancas" : "Negras") + " en " + EndgameTablebase.movesToMate(score);
+    }
+
+    private void toggleSuggestion() {
+        boardView.setShowSuggestion(!boardView.isShowingSuggestion());
+        if (!boardView.isShowingSuggestion()) {
+            stopPondering();
+            return;
+        }
+
+        if (ponder == null) {
+            ponder = new PonderService();
+            ponder.setTablebase(tablebase);
+            // Cada pista nueva se dibuja en cuanto llega
+            ponder.setListener((key, result) -> boardView.post(boardView::invalidate));
+            boardView.setAnalysis(ponder);
+        }
+        if (boardView.getSuggestedMove() == Move.NONE) {
+            Toast.makeText(this, "Analizando la posición...", Toast.LENGTH_SHORT).show();
+        }
+        if (cpuMode ? !computerPlayer.isThinking() : firebaseManager.getCurrentGameState() != null) {
+            startPondering();
+        }
+    }
+
+    // ==================== ANÁLISIS EN SEGUNDO PLANO ====================
+
+    /**
+     * Analiza la posición del tablero y las réplicas probables si las pistas están activas
+     */
+    private void startPondering() {
+        if (ponder == null || !boardView.isShowingSuggestion()) return;
+        ponder.start(boardView.getBoard());
+    }
+
+    private void stopPondering() {
+        if (ponder != null) {
+            ponder.stop();
+        }
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        stopCpuGame();
+        stopPondering();
         // Limpiar el listener de Firebase
         if (firebaseManager != null) {
             firebaseManager.cleanup();
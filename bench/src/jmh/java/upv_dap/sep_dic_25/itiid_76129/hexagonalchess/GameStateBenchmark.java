@@ -0,0 +1,61 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversión tablero <-> GameState, la que hacen FirebaseManager.initializeGameRoom y
+ * MainActivity.updateBoard, con el formato compacto y con el mapa de PieceData anterior
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class GameStateBenchmark {
+    private HexBoard board;
+    private GameState gameState;
+    private GameState legacyState;
+
+    @Setup
+    public void setUp() {
+        board = new HexBoard();
+        gameState = new GameState("BENCH1");
+        gameState.copyPiecesFrom(board);
+
+        Map<String, GameState.PieceData> pieces = new HashMap<>();
+        for (Map.Entry<String, HexCell> entry : board.getAllCells().entrySet()) {
+            if (entry.getValue().getPiece() != null) {
+                pieces.put(entry.getKey(), new GameState.PieceData(entry.getValue().getPiece()));
+            }
+        }
+        legacyState = new GameState("BENCH1");
+        legacyState.setPieces(pieces);
+    }
+
+    @Benchmark
+    public GameState boardToGameState() {
+        GameState state = new GameState("BENCH1");
+        state.copyPiecesFrom(board);
+        return state;
+    }
+
+    @Benchmark
+    public HexBoard gameStateToBoard() {
+        gameState.applyPiecesTo(board);
+        return board;
+    }
+
+    @Benchmark
+    public HexBoard legacyGameStateToBoard() {
+        legacyState.applyPiecesTo(board);
+        return board;
+    }
+}
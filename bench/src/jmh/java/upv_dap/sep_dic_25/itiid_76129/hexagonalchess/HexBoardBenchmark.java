@@ -0,0 +1,53 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Construcción del tablero, búsqueda de celdas por coordenada axial y evaluación
+ * (incremental frente a recálculo completo)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HexBoardBenchmark {
+    private HexBoard board;
+
+    @Setup
+    public void setUp() {
+        board = new HexBoard();
+    }
+
+    @Benchmark
+    public HexBoard construct() {
+        return new HexBoard();
+    }
+
+    // Las 121 coordenadas del cuadrado axial, 91 dentro del tablero y 30 fuera
+    @Benchmark
+    public void getCellAllCoordinates(Blackhole blackhole) {
+        for (int q = -5; q <= 5; q++) {
+            for (int r = -5; r <= 5; r++) {
+                blackhole.consume(board.getCell(q, r));
+            }
+        }
+    }
+
+    @Benchmark
+    public int evaluate() {
+        return Evaluator.evaluate(board);
+    }
+
+    @Benchmark
+    public int evaluateFull() {
+        return Evaluator.evaluateFull(board);
+    }
+}
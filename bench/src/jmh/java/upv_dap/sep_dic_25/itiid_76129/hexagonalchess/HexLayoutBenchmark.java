@@ -0,0 +1,56 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detección de celda bajo el dedo (pixelToHex/hexRound de HexagonalBoardView)
+ * y posición de dibujo de las 91 celdas en cada cuadro
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HexLayoutBenchmark {
+    private static final int POINTS = 256;
+
+    private final HexLayout layout = new HexLayout();
+    private final float[] xs = new float[POINTS];
+    private final float[] ys = new float[POINTS];
+
+    @Setup
+    public void setUp() {
+        // Pantalla de 1080x1920 como en onSizeChanged
+        layout.setGeometry(1080 / 19f, 540f, 960f);
+        Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = random.nextFloat() * 1080f;
+            ys[i] = 400f + random.nextFloat() * 1120f;
+        }
+    }
+
+    @Benchmark
+    public void pixelToIndex(Blackhole blackhole) {
+        for (int i = 0; i < POINTS; i++) {
+            blackhole.consume(layout.pixelToIndex(xs[i], ys[i]));
+        }
+    }
+
+    @Benchmark
+    public void cellCentersPerFrame(Blackhole blackhole) {
+        for (int i = 0; i < HexBoard.CELL_COUNT; i++) {
+            int q = HexBoard.qOf(i);
+            int r = HexBoard.rOf(i);
+            blackhole.consume(layout.toPixelX(q, r));
+            blackhole.consume(layout.toPixelY(q, r));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación y generación de movimientos por tipo de pieza. La pieza medida se coloca
+ * en el centro del tablero inicial, donde tiene más destinos y rayos más largos.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoveValidatorBenchmark {
+    @Param({"PAWN", "KNIGHT", "BISHOP", "ROOK", "QUEEN", "KING"})
+    public ChessPiece.PieceType pieceType;
+
+    private HexBoard board;
+    private MoveValidator validator;
+    private HexCell from;
+    private HexCell[] targets;
+    private final MoveList moves = new MoveList();
+
+    @Setup
+    public void setUp() {
+        board = new HexBoard();
+        validator = new MoveValidator(board);
+        from = board.getCell(0, 0);
+        from.setPiece(new ChessPiece(pieceType, ChessPiece.PieceColor.WHITE));
+        targets = board.getAllCells().values().toArray(new HexCell[0]);
+    }
+
+    @Benchmark
+    public Object getValidMoves() {
+        return validator.getValidMoves(from);
+    }
+
+    @Benchmark
+    public Object getLegalMoves() {
+        return validator.getLegalMoves(from);
+    }
+
+    // Lo que hacía getValidMoves antes del generador: validar las 91 celdas
+    @Benchmark
+    public void isValidMoveAllTargets(Blackhole blackhole) {
+        for (HexCell to : targets) {
+            blackhole.consume(validator.isValidMove(from, to));
+        }
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        moves.clear();
+        validator.generateMoves(from.getIndex(), moves);
+        return moves.size();
+    }
+
+    @Benchmark
+    public int generateLegalAll() {
+        moves.clear();
+        validator.generateLegalMoves(ChessPiece.PieceColor.WHITE, moves);
+        return moves.size();
+    }
+}
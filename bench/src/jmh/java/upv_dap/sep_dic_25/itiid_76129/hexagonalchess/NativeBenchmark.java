@@ -0,0 +1,54 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generador Java contra el nativo con el mismo trabajo: perft(4) desde la posición inicial
+ * y búsqueda a profundidad 5. Sin la biblioteca nativa, las filas native* miden el respaldo Java.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class NativeBenchmark {
+    private HexBoard board;
+    private Perft perft;
+
+    @Setup
+    public void setUp() {
+        board = new HexBoard();
+        perft = new Perft(board);
+        if (!NativeMoveGenerator.isAvailable()) {
+            System.err.println("Biblioteca nativa no disponible: se mide el respaldo Java");
+        }
+    }
+
+    @Benchmark
+    public long javaPerft4() {
+        return perft.perft(4);
+    }
+
+    @Benchmark
+    public long nativePerft4() {
+        return NativeMoveGenerator.perft(board, 4);
+    }
+
+    @Benchmark
+    public int javaSearch5() {
+        HexBoard copy = new HexBoard();
+        copy.copyFrom(board);
+        return new SearchEngine(copy).search(TimeUnit.MINUTES.toMillis(10), 5).bestMove;
+    }
+
+    @Benchmark
+    public int nativeSearch5() {
+        return NativeMoveGenerator.search(board, 5).bestMove;
+    }
+}
@@ -0,0 +1,57 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tiempo hasta profundidad de la búsqueda Lazy SMP con 1..N hilos. La aceleración es
+ * el cociente entre la fila de 1 hilo y la de N. Cada medición empieza con la tabla vacía.
+ * Ejemplo: ./gradlew :bench:jmh -Pjmh.includes=SearchScaling
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SearchScalingBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"5"})
+    public int depth;
+
+    @Param({"initial", "tactical"})
+    public String position;
+
+    private static final String TACTICAL_POSITION =
+            "Kw@-1,5 Kb@4,-5 Qw@1,4 Rb@3,-5 Pw@2,-4 Pb@-1,-1 Nw@0,0 Bb@0,-3 Pw@-2,3 Pb@-3,2 Pb@2,-2 w";
+
+    private ParallelSearch search;
+    private HexBoard board;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        search = new ParallelSearch(threads, 64);
+        board = new HexBoard();
+        if (position.equals("tactical")) {
+            Perft.setupPosition(board, TACTICAL_POSITION);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        search.getTable().clear();
+    }
+
+    @Benchmark
+    public int timeToDepth() {
+        return search.search(board, TimeUnit.MINUTES.toMillis(10), depth).bestMove;
+    }
+}
@@ -0,0 +1,149 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.Arrays;
+
+/**
+ * Tablas de ataque precalculadas para las 91 celdas del tablero Gliński.
+ * Se construyen una sola vez; las consultas de MoveValidator solo recorren
+ * estas tablas o aplican máscaras de bits, sin aritmética de coordenadas.
+ */
+public final class AttackTables {
+
+    // Direcciones ortogonales (comparten arista)
+    static final int[][] ORTHO_DIRECTIONS = {
+            {1, 0}, {1, -1}, {0, -1}, {-1, 0}, {-1, 1}, {0, 1}
+    };
+
+    // Direcciones diagonales (pasan por el vértice entre dos celdas)
+    static final int[][] DIAG_DIRECTIONS = {
+            {2, -1}, {1, -2}, {-1, -1}, {-2, 1}, {-1, 2}, {1, 1}
+    };
+
+    // Saltos especiales de la Dama, tal como los acepta MoveValidator:
+    // dos pasos diagonales y dos pasos sobre el eje s
+    static final int[][] QUEEN_JUMP_OFFSETS = {
+            {2, 2}, {-2, -2}, {4, -2}, {-4, 2}, {2, -4}, {-2, 4},
+            {2, -2}, {-2, 2}
+    };
+
+    private static final int N = HexBoard.CELL_COUNT;
+
+    /** Celdas a lo largo de cada rayo ortogonal, recortadas al borde: [celda][dirección][paso] */
+    public static final int[][][] ORTHO_RAYS = new int[N][6][];
+    /** Celdas a lo largo de cada rayo diagonal, recortadas al borde: [celda][dirección][paso] */
+    public static final int[][][] DIAG_RAYS = new int[N][6][];
+
+    public static final int[][] KNIGHT_TARGETS = new int[N][];
+    public static final int[][] KING_TARGETS = new int[N][];
+    public static final int[][] QUEEN_JUMP_TARGETS = new int[N][];
+
+    public static final long[] KNIGHT_LO = new long[N];
+    public static final long[] KNIGHT_HI = new long[N];
+    public static final long[] KING_LO = new long[N];
+    public static final long[] KING_HI = new long[N];
+    public static final long[] QUEEN_JUMP_LO = new long[N];
+    public static final long[] QUEEN_JUMP_HI = new long[N];
+
+    /** Avance simple y doble del peón por color (WHITE = 0, BLACK = 1); -1 si sale del tablero */
+    public static final int[][] PAWN_PUSH = new int[2][N];
+    public static final int[][] PAWN_DOUBLE_PUSH = new int[2][N];
+    /** Única celda desde la que MoveValidator acepta la captura al paso; -1 si no existe */
+    public static final int[][] PAWN_EN_PASSANT = new int[2][N];
+
+    /** Dirección ortogonal (0..5) que lleva de una celda a otra, o -1: [desde * 91 + hasta] */
+    public static final byte[] ORTHO_DIRECTION_BETWEEN = new byte[N * N];
+    /** Dirección diagonal (0..5) que lleva de una celda a otra, o -1: [desde * 91 + hasta] */
+    public static final byte[] DIAG_DIRECTION_BETWEEN = new byte[N * N];
+
+    static {
+        Arrays.fill(ORTHO_DIRECTION_BETWEEN, (byte) -1);
+        Arrays.fill(DIAG_DIRECTION_BETWEEN, (byte) -1);
+
+        for (int from = 0; from < N; from++) {
+            int q = HexBoard.qOf(from);
+            int r = HexBoard.rOf(from);
+
+            for (int d = 0; d < 6; d++) {
+                ORTHO_RAYS[from][d] = buildRay(from, q, r, ORTHO_DIRECTIONS[d], d, ORTHO_DIRECTION_BETWEEN);
+                DIAG_RAYS[from][d] = buildRay(from, q, r, DIAG_DIRECTIONS[d], d, DIAG_DIRECTION_BETWEEN);
+            }
+
+            // Caballo: 2 pasos en una dirección + 1 paso en una dirección adyacente
+            int[][] knightOffsets = new int[12][];
+            for (int i = 0; i < 6; i++) {
+                int[] dir1 = ORTHO_DIRECTIONS[i];
+                int[] dir2 = ORTHO_DIRECTIONS[(i + 1) % 6];
+                int[] dir3 = ORTHO_DIRECTIONS[(i + 5) % 6];
+                knightOffsets[2 * i] = new int[]{2 * dir1[0] + dir2[0], 2 * dir1[1] + dir2[1]};
+                knightOffsets[2 * i + 1] = new int[]{2 * dir1[0] + dir3[0], 2 * dir1[1] + dir3[1]};
+            }
+            KNIGHT_TARGETS[from] = buildLeaper(q, r, knightOffsets);
+            KING_TARGETS[from] = buildLeaper(q, r, ORTHO_DIRECTIONS);
+            QUEEN_JUMP_TARGETS[from] = buildLeaper(q, r, QUEEN_JUMP_OFFSETS);
+
+            for (int to : KNIGHT_TARGETS[from]) {
+                KNIGHT_LO[from] |= Bitboard.bitLo(to);
+                KNIGHT_HI[from] |= Bitboard.bitHi(to);
+            }
+            for (int to : KING_TARGETS[from]) {
+                KING_LO[from] |= Bitboard.bitLo(to);
+                KING_HI[from] |= Bitboard.bitHi(to);
+            }
+            for (int to : QUEEN_JUMP_TARGETS[from]) {
+                QUEEN_JUMP_LO[from] |= Bitboard.bitLo(to);
+                QUEEN_JUMP_HI[from] |= Bitboard.bitHi(to);
+            }
+
+            // Blancas avanzan hacia r negativo, negras hacia r positivo
+            PAWN_PUSH[0][from] = HexBoard.indexOf(q, r - 1);
+            PAWN_DOUBLE_PUSH[0][from] = HexBoard.indexOf(q, r - 2);
+            PAWN_EN_PASSANT[0][from] = HexBoard.indexOf(q + 1, r - 1);
+            PAWN_PUSH[1][from] = HexBoard.indexOf(q, r + 1);
+            PAWN_DOUBLE_PUSH[1][from] = HexBoard.indexOf(q, r + 2);
+            PAWN_EN_PASSANT[1][from] = HexBoard.indexOf(q - 1, r + 1);
+        }
+    }
+
+    private AttackTables() {}
+
+    private static int[] buildRay(int from, int q, int r, int[] dir, int d, byte[] between) {
+        int length = 0;
+        int[] buffer = new int[2 * 5 + 1];
+        int cq = q + dir[0];
+        int cr = r + dir[1];
+        int index;
+        while ((index = HexBoard.indexOf(cq, cr)) >= 0) {
+            buffer[length++] = index;
+            between[from * N + index] = (byte) d;
+            cq += dir[0];
+            cr += dir[1];
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static int[] buildLeaper(int q, int r, int[][] offsets) {
+        int length = 0;
+        int[] buffer = new int[offsets.length];
+        for (int[] offset : offsets) {
+            int index = HexBoard.indexOf(q + offset[0], r + offset[1]);
+            if (index >= 0) {
+                buffer[length++] = index;
+            }
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Fila de promoción: r = -5 para blancas (side 0), r = 5 para negras (side 1)
+     */
+    public static boolean isPromotionCell(int side, int index) {
+        return HexBoard.rOf(index) == (side == 0 ? -5 : 5);
+    }
+
+    /**
+     * Índice de tabla de peón para un color (las grises usan la tabla de las negras)
+     */
+    public static int pawnSide(ChessPiece.PieceColor color) {
+        return color == ChessPiece.PieceColor.WHITE ? 0 : 1;
+    }
+}
@@ -0,0 +1,38 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+/**
+ * Utilidades para bitboards de 128 bits representados con dos longs.
+ * Las celdas 0..63 viven en la parte baja (lo) y las celdas 64..90 en la alta (hi).
+ */
+public final class Bitboard {
+
+    private Bitboard() {}
+
+    public static boolean isSet(long lo, long hi, int index) {
+        if (index < 64) {
+            return (lo & (1L << index)) != 0;
+        }
+        return (hi & (1L << (index - 64))) != 0;
+    }
+
+    public static long bitLo(int index) {
+        return index < 64 ? 1L << index : 0L;
+    }
+
+    public static long bitHi(int index) {
+        return index < 64 ? 0L : 1L << (index - 64);
+    }
+
+    public static int count(long lo, long hi) {
+        return Long.bitCount(lo) + Long.bitCount(hi);
+    }
+
+    /**
+     * Índice de la primera celda presente, o -1 si el bitboard está vacío
+     */
+    public static int first(long lo, long hi) {
+        if (lo != 0) return Long.numberOfTrailingZeros(lo);
+        if (hi != 0) return 64 + Long.numberOfTrailingZeros(hi);
+        return -1;
+    }
+}
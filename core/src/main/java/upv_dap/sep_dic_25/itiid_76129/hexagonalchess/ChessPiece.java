@@ -23,6 +23,10 @@ public class ChessPiece {
     public boolean hasMoved() { return hasMoved; }
     public void setMoved(boolean moved) { this.hasMoved = moved; }
 
+    // Solo para HexBoard.makeMove/unmakeMove: la pieza debe estar fuera del tablero
+    // mientras cambia de tipo, para que los bitboards sigan coherentes
+    void setType(PieceType type) { this.type = type; }
+
     // Obtener símbolo Unicode para representar la pieza
     public String getSymbol() {
         // Usar símbolos más consistentes (todos rellenos o todos vacíos)
@@ -0,0 +1,115 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.Random;
+
+/**
+ * Oponente de la computadora: ejecuta la búsqueda en un hilo de fondo sobre una copia
+ * de la posición, para que el tablero que se dibuja no cambie mientras piensa.
+ * Con más de un hilo usa {@link ParallelSearch}. Si tiene libro de aperturas y la
+ * posición está en él, juega del libro sin buscar; lo mismo con las tablas de finales.
+ */
+public class ComputerPlayer {
+    private final ParallelSearch search;
+    private final Random random = new Random();
+    private volatile Thread worker;
+    private volatile OpeningBook book;
+    private volatile EndgameTablebase tablebase;
+
+    public ComputerPlayer() {
+        this(1);
+    }
+
+    public ComputerPlayer(int threads) {
+        search = new ParallelSearch(threads, SearchEngine.DEFAULT_TABLE_MB);
+    }
+
+    public interface OnMoveFoundListener {
+        /**
+         * Se llama en el hilo de búsqueda; result.bestMove es Move.NONE si no hay movimientos
+         */
+        void onMoveFound(SearchEngine.SearchResult result);
+    }
+
+    /**
+     * Empieza a buscar un movimiento para el color que mueve en la posición dada.
+     * Cancela la búsqueda anterior si aún no había terminado.
+     */
+    public void think(HexBoard position, long timeMillis, OnMoveFoundListener listener) {
+        cancel();
+        // La copia se hace aquí, en el hilo que llama, antes de que el tablero pueda cambiar
+        HexBoard snapshot = new HexBoard();
+        snapshot.copyFrom(position);
+
+        Thread thread = new Thread(() -> {
+            SearchEngine.SearchResult result = lookup(snapshot);
+            if (result == null) {
+                result = search.search(snapshot, timeMillis, SearchEngine.MAX_PLY);
+            }
+            // Una búsqueda cancelada no entrega su movimiento
+            if (worker == Thread.currentThread()) {
+                worker = null;
+                listener.onMoveFound(result);
+            }
+        }, "ComputerPlayer");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    /**
+     * Detiene la búsqueda en curso y espera a que el hilo termine
+     */
+    public void cancel() {
+        Thread thread = worker;
+        if (thread == null) return;
+
+        worker = null;
+        thread.interrupt();
+        search.stop();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isThinking() {
+        return worker != null;
+    }
+
+    /**
+     * Movimiento de las tablas de finales o del libro, o null si hay que buscar
+     */
+    private SearchEngine.SearchResult lookup(HexBoard position) {
+        EndgameTablebase endgames = tablebase;
+        if (endgames != null) {
+            int move = endgames.bestMove(position);
+            if (move != Move.NONE) {
+                return new SearchEngine.SearchResult(move, endgames.probe(position), 0, 0, 0);
+            }
+        }
+
+        OpeningBook openingBook = book;
+        int move = openingBook != null ? openingBook.pickMove(position, random) : Move.NONE;
+        return move != Move.NONE ? new SearchEngine.SearchResult(move, 0, 0, 0, 0) : null;
+    }
+
+    /**
+     * Libro de aperturas que se consulta antes de buscar; null para no usar ninguno
+     */
+    public void setOpeningBook(OpeningBook book) {
+        this.book = book;
+    }
+
+    /**
+     * Tablas de finales: se juega de ellas cuando la posición está, y la búsqueda las usa en sus hojas
+     */
+    public void setTablebase(EndgameTablebase tablebase) {
+        this.tablebase = tablebase;
+        search.setTablebase(tablebase);
+    }
+
+    public void setSearchListener(SearchEngine.Listener listener) {
+        search.setListener(listener);
+    }
+}
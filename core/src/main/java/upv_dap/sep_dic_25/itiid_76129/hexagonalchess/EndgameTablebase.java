@@ -0,0 +1,284 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tablas de finales sin peones generadas por {@link TablebaseGenerator}: para cada
+ * posición de un material guardan si el bando que mueve gana, pierde o hace tablas, y
+ * en cuántos plies termina la partida. Se leen de buffers mapeados en memoria.
+ *
+ * Formato de un archivo "KQvK.gtb" (big-endian): cabecera de 32 bytes (magia "GTB1",
+ * versión, número de piezas, mayor distancia en plies, un byte por pieza con su tipo
+ * y relleno) seguida de un byte por posición, primero con blancas al turno y después
+ * con negras (numeración de {@link TablebaseIndex}). Cada byte vale 0 si es tablas,
+ * 1..127 si el que mueve gana en 2v-1 plies, 128..254 si pierde en 2(v-128) plies,
+ * y 255 si la posición no es legal.
+ *
+ * Como en la búsqueda, el ahogado cuenta como derrota del bando ahogado.
+ */
+public final class EndgameTablebase {
+    public static final int MAGIC = 0x47544231; // "GTB1"
+    public static final int VERSION = 1;
+    public static final String EXTENSION = ".gtb";
+    /** Resultado de {@link #probe} cuando el material no está en las tablas */
+    public static final int NOT_FOUND = Integer.MIN_VALUE;
+
+    static final int HEADER_BYTES = 32;
+    static final int PIECES_OFFSET = 16;
+    static final int INVALID = 0xFF;
+    private static final int LOSS = 128;
+    /** Mayor distancia en plies que cabe en un byte */
+    static final int MAX_PLIES = 2 * (INVALID - 1 - LOSS);
+
+    private final Map<String, Table> tables = new HashMap<>();
+    private int maxPieces;
+
+    private static final class Table {
+        final TablebaseIndex index;
+        final ByteBuffer buffer;
+
+        Table(TablebaseIndex index, ByteBuffer buffer) {
+            this.index = index;
+            this.buffer = buffer;
+        }
+
+        int value(int side, int position) {
+            return buffer.get(HEADER_BYTES + side * index.sectionSize + position) & 0xFF;
+        }
+    }
+
+    /**
+     * Mapea todos los archivos .gtb de un directorio
+     */
+    public static EndgameTablebase open(File directory) throws IOException {
+        EndgameTablebase tablebase = new EndgameTablebase();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(EXTENSION));
+        if (files == null) {
+            throw new IOException("No es un directorio: " + directory);
+        }
+        for (File file : files) {
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                tablebase.add(raf.getChannel(), 0, raf.length());
+            }
+        }
+        return tablebase;
+    }
+
+    /**
+     * Agrega una tabla que ocupa una región de un archivo (p. ej. un asset sin comprimir)
+     */
+    public void add(FileChannel channel, long offset, long length) throws IOException {
+        add(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+    }
+
+    void add(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("No es una tabla de finales");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Versión de tabla no soportada: " + buffer.getInt(4));
+        }
+
+        int count = buffer.getInt(8);
+        if (count < 2 || count > TablebaseIndex.MAX_PIECES) {
+            throw new IOException("Número de piezas inválido: " + count);
+        }
+        List<Integer> white = new ArrayList<>();
+        List<Integer> black = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int code = buffer.get(PIECES_OFFSET + i) & 0xFF;
+            if ((code & 7) - 1 != ChessPiece.PieceType.KING.ordinal()) {
+                (code >> 3 == 0 ? white : black).add((code & 7) - 1);
+            }
+        }
+
+        TablebaseIndex index;
+        try {
+            index = TablebaseIndex.of(toArray(white), toArray(black));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage());
+        }
+        if (HEADER_BYTES + 2L * index.sectionSize > buffer.capacity()) {
+            throw new IOException("Tabla de finales truncada: " + index.name);
+        }
+
+        tables.put(index.name, new Table(index, buffer));
+        maxPieces = Math.max(maxPieces, index.pieceCount);
+    }
+
+    private static int[] toArray(List<Integer> types) {
+        int[] array = new int[types.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = types.get(i);
+        }
+        return TablebaseIndex.sortDescending(array);
+    }
+
+    public boolean contains(String material) {
+        return tables.containsKey(TablebaseIndex.of(material).name);
+    }
+
+    /**
+     * Mayor número de piezas (reyes incluidos) de las tablas cargadas; 0 si no hay ninguna
+     */
+    public int getMaxPieces() {
+        return maxPieces;
+    }
+
+    // ==================== CONSULTAS ====================
+
+    /**
+     * Resultado exacto para el bando que mueve, con la escala de {@link SearchEngine}:
+     * MATE - n si gana en n plies, -(MATE - n) si pierde en n plies (-MATE si ya perdió),
+     * 0 si es tablas, o {@link #NOT_FOUND} si la posición no está en las tablas.
+     */
+    public int probe(HexBoard board) {
+        if (maxPieces == 0 || Bitboard.count(board.getOccupiedLo(), board.getOccupiedHi()) > maxPieces) {
+            return NOT_FOUND;
+        }
+
+        // Piezas sin rey de cada color, con su celda
+        int[] whiteTypes = new int[maxPieces], blackTypes = new int[maxPieces];
+        int[] whiteCells = new int[maxPieces], blackCells = new int[maxPieces];
+        int whiteCount = 0, blackCount = 0;
+        int whiteKing = -1, blackKing = -1;
+        for (int cell = 0; cell < HexBoard.CELL_COUNT; cell++) {
+            ChessPiece piece = board.getCell(cell).getPiece();
+            if (piece == null) continue;
+
+            boolean white = piece.getColor() == ChessPiece.PieceColor.WHITE;
+            int type = piece.getType().ordinal();
+            if (piece.getType() == ChessPiece.PieceType.PAWN) return NOT_FOUND;
+            if (piece.getType() == ChessPiece.PieceType.KING) {
+                if (white) whiteKing = cell;
+                else blackKing = cell;
+            } else if (white) {
+                whiteTypes[whiteCount] = type;
+                whiteCells[whiteCount++] = cell;
+            } else {
+                blackTypes[blackCount] = type;
+                blackCells[blackCount++] = cell;
+            }
+        }
+        if (whiteKing < 0 || blackKing < 0) return NOT_FOUND;
+
+        int[] white = TablebaseIndex.sortDescending(Arrays.copyOf(whiteTypes, whiteCount));
+        int[] black = TablebaseIndex.sortDescending(Arrays.copyOf(blackTypes, blackCount));
+        boolean flip = TablebaseIndex.shouldFlip(white, black);
+        Table table = tables.get(flip ? TablebaseIndex.materialName(black, white) : TablebaseIndex.materialName(white, black));
+        if (table == null) return NOT_FOUND;
+
+        // Celdas en el orden de la tabla: cada pieza toma la primera del mismo tipo aún libre
+        TablebaseIndex index = table.index;
+        int[] cells = new int[index.pieceCount];
+        cells[0] = flip ? blackKing : whiteKing;
+        cells[index.whiteCount] = flip ? whiteKing : blackKing;
+        fill(index, cells, 1, flip ? blackTypes : whiteTypes, flip ? blackCells : whiteCells,
+                flip ? blackCount : whiteCount);
+        fill(index, cells, index.whiteCount + 1, flip ? whiteTypes : blackTypes, flip ? whiteCells : blackCells,
+                flip ? whiteCount : blackCount);
+
+        int side = board.getSideToMove() == ChessPiece.PieceColor.WHITE ? 0 : 1;
+        if (flip) side ^= 1;
+        return score(table.value(side, index.index(cells)));
+    }
+
+    private static void fill(TablebaseIndex index, int[] cells, int first, int[] types, int[] pieceCells, int count) {
+        boolean[] used = new boolean[count];
+        for (int i = first; i < first + count; i++) {
+            for (int j = 0; j < count; j++) {
+                if (!used[j] && types[j] == index.types[i]) {
+                    used[j] = true;
+                    cells[i] = pieceCells[j];
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Movimiento que conserva el mejor resultado: el mate más corto si gana, tablas si
+     * puede, o la derrota más larga. Move.NONE si la posición no está en las tablas.
+     */
+    public int bestMove(HexBoard board) {
+        if (probe(board) == NOT_FOUND) return Move.NONE;
+
+        MoveList moves = new MoveList();
+        new MoveValidator(board).generateLegalMoves(board.getSideToMove(), moves);
+
+        int bestMove = Move.NONE;
+        int bestScore = Integer.MIN_VALUE;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            int reply = probe(board);
+            board.unmakeMove();
+            if (reply == NOT_FOUND) continue; // falta la tabla a la que lleva la captura
+
+            int score = parentScore(reply);
+            if (score > bestScore) {
+                bestScore = score;
+                bestMove = move;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Valor de una posición para el bando que acaba de mover, a partir del valor para el
+     * que mueve ahora: un mate en n plies se vuelve derrota en n + 1, y al revés
+     */
+    static int parentScore(int score) {
+        if (score > 0) return -(score - 1);
+        if (score < 0) return -(score + 1);
+        return 0;
+    }
+
+    /**
+     * Jugadas (no plies) hasta el final para un resultado de {@link #probe}; 0 si es tablas
+     */
+    public static int movesToMate(int score) {
+        if (score == 0 || score == NOT_FOUND) return 0;
+        return (SearchEngine.MATE - Math.abs(score) + 1) / 2;
+    }
+
+    // ==================== CODIFICACIÓN ====================
+
+    static int score(int value) {
+        if (value == INVALID) return NOT_FOUND;
+        if (value == 0) return 0;
+        if (value < LOSS) return SearchEngine.MATE - (2 * value - 1);
+        return -(SearchEngine.MATE - 2 * (value - LOSS));
+    }
+
+    /**
+     * Byte de una posición ganada en plies impares
+     */
+    static int winValue(int plies) {
+        return (plies + 1) / 2;
+    }
+
+    /**
+     * Byte de una posición perdida en plies pares (0 = sin movimientos)
+     */
+    static int lossValue(int plies) {
+        return LOSS + plies / 2;
+    }
+
+    static boolean isWin(int value) {
+        return value != 0 && value < LOSS;
+    }
+
+    static int winPlies(int value) {
+        return 2 * value - 1;
+    }
+}
@@ -0,0 +1,153 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+/**
+ * Evaluación estática: material más una tabla posicional por tipo de pieza sobre las
+ * 91 celdas. Las tablas están escritas para blancas; las negras usan la celda
+ * reflejada respecto al centro (-q, -r), que convierte su avance en el de las blancas.
+ * Se penalizan además los peones doblados y aislados (por columna q) y los ataques
+ * enemigos sobre la zona del rey.
+ *
+ * HexBoard mantiene todos los términos de forma incremental al cambiar cada pieza, así
+ * que {@link #evaluate} es O(1); {@link #evaluateFull} los recalcula recorriendo el
+ * tablero y solo sirve para comprobarlos (aserciones de la búsqueda y pruebas).
+ */
+public final class Evaluator {
+    // Valores por ordinal de PieceType: PAWN, KNIGHT, BISHOP, ROOK, QUEEN, KING
+    public static final int[] PIECE_VALUES = {100, 300, 325, 500, 900, 0};
+    public static final int DOUBLED_PAWN = 12;
+    public static final int ISOLATED_PAWN = 10;
+    public static final int KING_ZONE_ATTACK = 8;
+
+    private static final int N = HexBoard.CELL_COUNT;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    static final int[][] PIECE_SQUARE = new int[TYPES.length][N];
+    static final int[] MIRROR = new int[N];
+
+    static {
+        for (int i = 0; i < N; i++) {
+            int q = HexBoard.qOf(i);
+            int r = HexBoard.rOf(i);
+            MIRROR[i] = HexBoard.indexOf(-q, -r);
+
+            // 5 en el centro, 0 en el borde
+            int center = 5 - Math.max(Math.abs(q), Math.max(Math.abs(r), Math.abs(q + r)));
+
+            // Los peones blancos avanzan hacia r = -5
+            PIECE_SQUARE[ChessPiece.PieceType.PAWN.ordinal()][i] = -6 * r + 2 * center;
+            PIECE_SQUARE[ChessPiece.PieceType.KNIGHT.ordinal()][i] = 8 * center - 12;
+            PIECE_SQUARE[ChessPiece.PieceType.BISHOP.ordinal()][i] = 4 * center - 6;
+            PIECE_SQUARE[ChessPiece.PieceType.ROOK.ordinal()][i] = 2 * center;
+            PIECE_SQUARE[ChessPiece.PieceType.QUEEN.ordinal()][i] = 2 * center - 4;
+            // El rey está más seguro lejos del centro
+            PIECE_SQUARE[ChessPiece.PieceType.KING.ordinal()][i] = -6 * center;
+        }
+    }
+
+    private Evaluator() {}
+
+    /**
+     * Valor de una pieza en una celda desde el punto de vista de su propio color
+     */
+    public static int pieceValue(ChessPiece piece, int index) {
+        int type = piece.getType().ordinal();
+        int cell = piece.getColor() == ChessPiece.PieceColor.WHITE ? index : MIRROR[index];
+        return PIECE_VALUES[type] + PIECE_SQUARE[type][cell];
+    }
+
+    /**
+     * Puntuación en centipeones desde el punto de vista del color que mueve
+     */
+    public static int evaluate(HexBoard board) {
+        int score = 0;
+        for (ChessPiece.PieceColor color : ChessPiece.PieceColor.values()) {
+            int value = board.getMaterial(color) + board.getPositional(color)
+                    - DOUBLED_PAWN * board.getDoubledPawns(color)
+                    - ISOLATED_PAWN * board.getIsolatedPawns(color)
+                    - KING_ZONE_ATTACK * board.getKingZoneAttacks(color);
+            score += color == ChessPiece.PieceColor.WHITE ? value : -value;
+        }
+        return board.getSideToMove() == ChessPiece.PieceColor.WHITE ? score : -score;
+    }
+
+    // ==================== RECÁLCULO COMPLETO ====================
+
+    /**
+     * Misma puntuación que {@link #evaluate} pero calculada desde cero, sin los términos
+     * incrementales de HexBoard ni sus mapas de ataque. Recorre las 91 celdas.
+     */
+    public static int evaluateFull(HexBoard board) {
+        ChessPiece.PieceColor[] colors = ChessPiece.PieceColor.values();
+        int[] values = new int[colors.length];
+        int[][] files = new int[colors.length][11];
+        int[] kings = {-1, -1, -1};
+
+        for (int i = 0; i < N; i++) {
+            ChessPiece piece = board.getCell(i).getPiece();
+            if (piece == null) continue;
+
+            int color = piece.getColor().ordinal();
+            values[color] += pieceValue(piece, i);
+            if (piece.getType() == ChessPiece.PieceType.PAWN) {
+                files[color][HexBoard.qOf(i) + 5]++;
+            } else if (piece.getType() == ChessPiece.PieceType.KING && kings[color] < 0) {
+                kings[color] = i;
+            }
+        }
+
+        int score = 0;
+        for (ChessPiece.PieceColor color : colors) {
+            int c = color.ordinal();
+            int value = values[c];
+            for (int file = 0; file < files[c].length; file++) {
+                value -= DOUBLED_PAWN * HexBoard.doubledOn(files[c], file);
+                value -= ISOLATED_PAWN * HexBoard.isolatedOn(files[c], file);
+            }
+            if (kings[c] >= 0) {
+                int attacked = countEnemyAttackers(board, color, kings[c]);
+                for (int cell : AttackTables.KING_TARGETS[kings[c]]) {
+                    attacked += countEnemyAttackers(board, color, cell);
+                }
+                value -= KING_ZONE_ATTACK * attacked;
+            }
+            score += color == ChessPiece.PieceColor.WHITE ? value : -value;
+        }
+        return board.getSideToMove() == ChessPiece.PieceColor.WHITE ? score : -score;
+    }
+
+    /**
+     * Piezas de otros colores que atacan una celda, buscadas desde ella; mismo criterio
+     * que los mapas de ataque (el salto de la Dama cuenta aparte de sus rayos)
+     */
+    private static int countEnemyAttackers(HexBoard board, ChessPiece.PieceColor color, int index) {
+        int count = 0;
+        for (int cell : AttackTables.KNIGHT_TARGETS[index]) {
+            if (isEnemy(board, cell, color, ChessPiece.PieceType.KNIGHT, null)) count++;
+        }
+        // El peón captura en cualquier celda adyacente, igual que el rey
+        for (int cell : AttackTables.KING_TARGETS[index]) {
+            if (isEnemy(board, cell, color, ChessPiece.PieceType.PAWN, ChessPiece.PieceType.KING)) count++;
+        }
+        for (int cell : AttackTables.QUEEN_JUMP_TARGETS[index]) {
+            if (isEnemy(board, cell, color, ChessPiece.PieceType.QUEEN, null)) count++;
+        }
+        for (int d = 0; d < 6; d++) {
+            int slider = board.firstOccupied(AttackTables.ORTHO_RAYS[index][d]);
+            if (slider >= 0 && isEnemy(board, slider, color, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.QUEEN)) {
+                count++;
+            }
+            slider = board.firstOccupied(AttackTables.DIAG_RAYS[index][d]);
+            if (slider >= 0 && isEnemy(board, slider, color, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.QUEEN)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static boolean isEnemy(HexBoard board, int index, ChessPiece.PieceColor color,
+                                   ChessPiece.PieceType type, ChessPiece.PieceType other) {
+        ChessPiece piece = board.getCell(index).getPiece();
+        return piece != null && piece.getColor() != color
+                && (piece.getType() == type || piece.getType() == other);
+    }
+}
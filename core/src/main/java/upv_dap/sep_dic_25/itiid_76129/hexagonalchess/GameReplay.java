@@ -0,0 +1,247 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reconstruye sobre un HexBoard una partida guardada como registro de jugadas: la foto
+ * de GameState.board (tomada tras snapshotPly jugadas) más las jugadas de moves a partir
+ * de ese índice. Entre actualizaciones de la misma partida solo aplica las jugadas nuevas.
+ *
+ * También prepara la escritura de una jugada propia ({@link #recordMove}): una sola
+ * actualización pequeña con la jugada al final del registro y, cada
+ * {@link #SNAPSHOT_INTERVAL} jugadas, una foto nueva para que los que se unan tarde no
+ * tengan que repetir la partida entera.
+ *
+ * Las jugadas propias pueden mostrarse antes de que el servidor las confirme
+ * ({@link #applyPending}): quedan en el tablero por encima de las del registro y
+ * {@link #sync} las confirma cuando llegan en el registro o las deshace si no.
+ *
+ * Acumula además las celdas que cambiaron ({@link #getChangedLo}/{@link #getChangedHi})
+ * para que la vista redibuje solo esas.
+ */
+public class GameReplay {
+    public static final int SNAPSHOT_INTERVAL = 20;
+
+    private final HexBoard board;
+    private final MoveValidator validator;
+    private final MoveList legalMoves = new MoveList();
+    private String gameId;
+    private int ply = -1; // jugadas del registro aplicadas; -1 = hay que reconstruir
+    private int lastMove = Move.NONE;
+    private boolean legacyBase; // la foto no es del formato actual: la próxima jugada escribe una
+    private final ArrayDeque<Integer> pending = new ArrayDeque<>(); // aplicadas sin confirmar, en orden
+    private long changedLo, changedHi; // celdas tocadas desde el último clearChanges
+
+    public GameReplay(HexBoard board) {
+        this.board = board;
+        this.validator = new MoveValidator(board);
+    }
+
+    public HexBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * Jugadas del registro reflejadas en el tablero, o -1 si no está sincronizado
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    /**
+     * Lleva el tablero al estado de la partida y devuelve cuántas jugadas aplicó.
+     * Reconstruye desde la foto si es otra partida o si el registro no coincide con lo
+     * ya aplicado. Las jugadas pendientes que aparecen en el registro se confirman sin
+     * tocar el tablero; si el registro trae otra cosa se deshacen antes de aplicarlo.
+     * IllegalArgumentException si el registro
+     * trae una jugada ilegal (el tablero queda pendiente de reconstruir).
+     */
+    public int sync(GameState state) {
+        List<Integer> moves = state.getMoves();
+        int total = moves != null ? moves.size() : 0;
+
+        // El registro no se recorta: una foto nueva no obliga a reconstruir
+        boolean incremental = ply >= 0 && ply <= total
+                && (gameId == null ? state.getGameId() == null : gameId.equals(state.getGameId()))
+                && (lastMove == Move.NONE || Integer.valueOf(lastMove).equals(moves.get(ply - 1)));
+        try {
+            if (!incremental) rebuild(state);
+
+            while (!pending.isEmpty() && ply < total && pending.peekFirst().equals(moves.get(ply))) {
+                lastMove = pending.pollFirst();
+                ply++;
+            }
+            if (!pending.isEmpty() && ply < total) rollbackPending();
+
+            int start = ply;
+            while (ply < total) {
+                Integer move = moves.get(ply);
+                apply(move != null ? move : Move.NONE);
+            }
+            return total - start;
+        } catch (RuntimeException e) {
+            ply = -1;
+            throw e;
+        }
+    }
+
+    private void rebuild(GameState state) {
+        gameId = state.getGameId();
+        lastMove = Move.NONE;
+        pending.clear();
+        String base = state.getBoard();
+
+        changedLo = -1L;
+        changedHi = (1L << (HexBoard.CELL_COUNT - 64)) - 1;
+        board.clear();
+        if (base == null && state.getPieces() == null) {
+            board.copyFrom(new HexBoard());
+            legacyBase = true;
+        } else {
+            state.applyPiecesTo(board);
+            legacyBase = base == null || PositionCodec.version(base) != PositionCodec.VERSION;
+        }
+        // Los formatos anteriores no guardan el turno; esas partidas no tienen registro detrás
+        if (legacyBase) {
+            board.setSideToMove("black".equals(state.getCurrentTurn()) ?
+                    ChessPiece.PieceColor.BLACK : ChessPiece.PieceColor.WHITE);
+        }
+        ply = state.getSnapshotPly();
+    }
+
+    private void apply(int move) {
+        checkLegal(move);
+        makeTracked(move);
+        lastMove = move;
+        ply++;
+    }
+
+    private void checkLegal(int move) {
+        legalMoves.clear();
+        validator.generateLegalMoves(board.getSideToMove(), legalMoves);
+        boolean legal = false;
+        for (int i = 0; i < legalMoves.size() && !legal; i++) {
+            legal = legalMoves.get(i) == move;
+        }
+        if (!legal) {
+            throw new IllegalArgumentException("Jugada inválida en el registro (ply " + ply + ")");
+        }
+    }
+
+    // ==================== JUGADAS PENDIENTES ====================
+
+    /**
+     * Aplica al tablero una jugada propia que aún no está en el registro, para mostrarla
+     * sin esperar al servidor. IllegalArgumentException si no es legal.
+     */
+    public void applyPending(int move) {
+        if (ply < 0) {
+            throw new IllegalStateException("La partida no está sincronizada");
+        }
+        checkLegal(move);
+        makeTracked(move);
+        pending.addLast(move);
+    }
+
+    /**
+     * Jugadas aplicadas con {@link #applyPending} que el registro aún no confirmó
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Deshace las jugadas pendientes (la escritura falló o fue rechazada)
+     */
+    public void rollbackPending() {
+        while (!pending.isEmpty()) {
+            int move = pending.pollLast();
+            long lo = board.getOccupiedLo();
+            long hi = board.getOccupiedHi();
+            board.unmakeMove();
+            markChanged(lo, hi, Move.to(move));
+        }
+    }
+
+    // ==================== CELDAS CAMBIADAS ====================
+
+    /**
+     * Celdas 0..63 cambiadas desde {@link #clearChanges} (todas tras reconstruir)
+     */
+    public long getChangedLo() {
+        return changedLo;
+    }
+
+    /**
+     * Celdas 64..90 cambiadas desde {@link #clearChanges}
+     */
+    public long getChangedHi() {
+        return changedHi;
+    }
+
+    public void clearChanges() {
+        changedLo = 0;
+        changedHi = 0;
+    }
+
+    private void makeTracked(int move) {
+        long lo = board.getOccupiedLo();
+        long hi = board.getOccupiedHi();
+        board.makeMove(move);
+        markChanged(lo, hi, Move.to(move));
+    }
+
+    /**
+     * Las celdas que se vacían o se ocupan (origen, captura al paso) salen de comparar
+     * la ocupación; el destino se marca siempre porque en una captura sigue ocupado
+     */
+    private void markChanged(long occupiedLo, long occupiedHi, int to) {
+        changedLo |= (occupiedLo ^ board.getOccupiedLo()) | Bitboard.bitLo(to);
+        changedHi |= (occupiedHi ^ board.getOccupiedHi()) | Bitboard.bitHi(to);
+    }
+
+    // ==================== ESCRITURA ====================
+
+    /**
+     * Aplica una jugada legal del color que mueve y devuelve las rutas (relativas al
+     * nodo de la partida) que hay que escribir de una vez para registrarla. Si la
+     * escritura falla, la siguiente llamada a {@link #sync} reconstruye el tablero.
+     */
+    public Map<String, Object> recordMove(int move) {
+        if (ply < 0 || !pending.isEmpty()) {
+            throw new IllegalStateException("La partida no está sincronizada");
+        }
+        ChessPiece.PieceColor mover = board.getSideToMove();
+        int index = ply;
+        apply(move);
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("moves/" + index, move);
+        updates.put("currentTurn", turnName(board.getSideToMove()));
+        updates.put("lastMoveTimestamp", System.currentTimeMillis());
+
+        if (legacyBase || ply % SNAPSHOT_INTERVAL == 0) {
+            updates.put("board", PositionCodec.encode(board));
+            updates.put("snapshotPly", ply);
+            updates.put("pieces", null); // migra las partidas guardadas con el mapa de piezas
+            legacyBase = false;
+        }
+
+        // Terminar la partida si el rival se queda sin movimientos legales
+        MoveValidator.GameStatus result = validator.getGameStatus(board.getSideToMove());
+        if (result != MoveValidator.GameStatus.PLAYING) {
+            // En Gliński el ahogado también lo gana (parcialmente) quien lo provoca
+            updates.put("status", "finished");
+            updates.put("winner", turnName(mover));
+            updates.put("endReason", result == MoveValidator.GameStatus.CHECKMATE ? "checkmate" : "stalemate");
+        }
+        return updates;
+    }
+
+    static String turnName(ChessPiece.PieceColor color) {
+        return color == ChessPiece.PieceColor.WHITE ? "white" : "black";
+    }
+}
@@ -0,0 +1,159 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class GameState {
+    private String gameId;
+    private String whitePlayerId;
+    private String blackPlayerId;
+    private String currentTurn; // "white" o "black"
+    private String board; // foto de la posición codificada con PositionCodec (base64)
+    private int snapshotPly; // jugadas del registro ya incluidas en board
+    private List<Integer> moves; // registro de jugadas (Move) que solo crece, índice = ply
+    private Map<String, PieceData> pieces; // formato anterior, key: "q,r"; solo en partidas viejas
+    private String status; // "waiting", "playing", "finished"
+    private String winner;
+    private String endReason; // "checkmate", "stalemate"
+    private long lastMoveTimestamp;
+
+    public GameState() {
+        // Constructor vacío requerido por Firebase
+    }
+
+    public GameState(String gameId) {
+        this.gameId = gameId;
+        this.currentTurn = "white";
+        this.status = "waiting";
+        this.lastMoveTimestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Copia independiente del registro de jugadas (las PieceData del formato anterior
+     * se comparten: nadie las modifica)
+     */
+    public GameState(GameState other) {
+        this.gameId = other.gameId;
+        this.whitePlayerId = other.whitePlayerId;
+        this.blackPlayerId = other.blackPlayerId;
+        this.currentTurn = other.currentTurn;
+        this.board = other.board;
+        this.snapshotPly = other.snapshotPly;
+        this.moves = other.moves != null ? new ArrayList<>(other.moves) : null;
+        this.pieces = other.pieces != null ? new HashMap<>(other.pieces) : null;
+        this.status = other.status;
+        this.winner = other.winner;
+        this.endReason = other.endReason;
+        this.lastMoveTimestamp = other.lastMoveTimestamp;
+    }
+
+    // Formato anterior de las piezas: se sigue leyendo para migrar partidas guardadas
+    public static class PieceData {
+        public String type; // "PAWN", "KNIGHT", etc.
+        public String color; // "WHITE", "BLACK"
+        public boolean hasMoved;
+
+        public PieceData() {}
+
+        public PieceData(ChessPiece piece) {
+            this.type = piece.getType().name();
+            this.color = piece.getColor().name();
+            this.hasMoved = piece.hasMoved();
+        }
+
+        public ChessPiece toPiece() {
+            return new ChessPiece(
+                    ChessPiece.PieceType.valueOf(type),
+                    ChessPiece.PieceColor.valueOf(color)
+            );
+        }
+    }
+
+    /**
+     * Reemplaza las piezas de este estado por las del tablero, en el formato compacto
+     */
+    public void copyPiecesFrom(HexBoard board) {
+        this.board = PositionCodec.encode(board);
+        pieces = null;
+    }
+
+    /**
+     * Coloca en el tablero las piezas de este estado (las demás celdas quedan vacías).
+     * Lee el formato compacto o, en partidas guardadas antes de él, el mapa de PieceData.
+     */
+    public void applyPiecesTo(HexBoard board) {
+        if (this.board != null) {
+            PositionCodec.decode(this.board, board);
+            return;
+        }
+
+        for (HexCell cell : board.getAllCells().values()) {
+            cell.setPiece(null);
+        }
+
+        if (pieces == null) return;
+
+        for (Map.Entry<String, PieceData> entry : pieces.entrySet()) {
+            String[] coords = entry.getKey().split(",");
+            HexCell cell = board.getCell(Integer.parseInt(coords[0]), Integer.parseInt(coords[1]));
+            PieceData pieceData = entry.getValue();
+            if (cell != null && pieceData != null) {
+                ChessPiece piece = pieceData.toPiece();
+                piece.setMoved(pieceData.hasMoved);
+                cell.setPiece(piece);
+            }
+        }
+    }
+
+    /**
+     * Pasa un estado con el mapa de piezas anterior al formato compacto; devuelve
+     * false si ya estaba migrado. Al guardarlo hay que borrar "pieces" del servidor.
+     */
+    public boolean migratePieces() {
+        if (board != null || pieces == null) return false;
+
+        HexBoard hexBoard = new HexBoard();
+        applyPiecesTo(hexBoard);
+        copyPiecesFrom(hexBoard);
+        return true;
+    }
+
+    // Getters y Setters
+    public String getGameId() { return gameId; }
+    public void setGameId(String gameId) { this.gameId = gameId; }
+
+    public String getWhitePlayerId() { return whitePlayerId; }
+    public void setWhitePlayerId(String id) { this.whitePlayerId = id; }
+
+    public String getBlackPlayerId() { return blackPlayerId; }
+    public void setBlackPlayerId(String id) { this.blackPlayerId = id; }
+
+    public String getCurrentTurn() { return currentTurn; }
+    public void setCurrentTurn(String turn) { this.currentTurn = turn; }
+
+    public String getBoard() { return board; }
+    public void setBoard(String board) { this.board = board; }
+
+    public int getSnapshotPly() { return snapshotPly; }
+    public void setSnapshotPly(int ply) { this.snapshotPly = ply; }
+
+    public List<Integer> getMoves() { return moves; }
+    public void setMoves(List<Integer> moves) { this.moves = moves; }
+
+    public Map<String, PieceData> getPieces() { return pieces; }
+    public void setPieces(Map<String, PieceData> pieces) { this.pieces = pieces; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getWinner() { return winner; }
+    public void setWinner(String winner) { this.winner = winner; }
+
+    public String getEndReason() { return endReason; }
+    public void setEndReason(String endReason) { this.endReason = endReason; }
+
+    public long getLastMoveTimestamp() { return lastMoveTimestamp; }
+    public void setLastMoveTimestamp(long timestamp) { this.lastMoveTimestamp = timestamp; }
+}
\ No newline at end of file
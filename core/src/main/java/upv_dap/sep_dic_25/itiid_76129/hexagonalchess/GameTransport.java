@@ -0,0 +1,56 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+/**
+ * Canal de una partida en línea visto por un jugador: crear, unirse, mover y escuchar.
+ * FirebaseManager lo implementa sobre Realtime Database e {@link InMemoryGameTransport}
+ * en memoria, para medir y probar el flujo de juego sin red.
+ *
+ * Los callbacks se entregan en el hilo que elija la implementación (el hilo principal
+ * en Firebase).
+ */
+public interface GameTransport {
+
+    void createGame(OnGameCreatedListener listener);
+
+    void joinGame(String gameId, OnGameJoinedListener listener);
+
+    /**
+     * Propone la jugada entre dos celdas "q,r"; turno, propiedad y legalidad se
+     * comprueban de forma atómica contra el estado compartido
+     */
+    void makeMove(String fromKey, String toKey, OnMoveCompleteListener listener);
+
+    /**
+     * Entrega el estado actual y después cada cambio, hasta {@link #cleanup}
+     */
+    void listenToGame(OnGameUpdateListener listener);
+
+    void cleanup();
+
+    String getPlayerId();
+
+    GameState getCurrentGameState();
+
+    String getCurrentGameId();
+
+    // Interfaces de callbacks
+    interface OnGameCreatedListener {
+        void onGameCreated(String gameId);
+        void onError(String error);
+    }
+
+    interface OnGameJoinedListener {
+        void onGameJoined(String gameId);
+        void onError(String error);
+    }
+
+    interface OnMoveCompleteListener {
+        void onMoveComplete();
+        void onError(String error);
+    }
+
+    interface OnGameUpdateListener {
+        void onGameUpdate(GameState gameState);
+        void onError(String error);
+    }
+}
@@ -0,0 +1,718 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class HexBoard {
+    private static final int BOARD_SIZE = 5;
+    public static final int CELL_COUNT = 91; // 3*5*(5+1) + 1
+    private static final int AXIAL_SPAN = 2 * BOARD_SIZE + 1;
+
+    // Tabla axial -> índice denso (O(1)), -1 para coordenadas fuera del tablero
+    private static final int[] AXIAL_TO_INDEX = new int[AXIAL_SPAN * AXIAL_SPAN];
+    private static final int[] INDEX_Q = new int[CELL_COUNT];
+    private static final int[] INDEX_R = new int[CELL_COUNT];
+
+    private static final int[][] DIRECTIONS = {
+            {1, 0}, {1, -1}, {0, -1}, {-1, 0}, {-1, 1}, {0, 1}
+    };
+
+    static {
+        Arrays.fill(AXIAL_TO_INDEX, -1);
+        int index = 0;
+        for (int q = -BOARD_SIZE; q <= BOARD_SIZE; q++) {
+            int r1 = Math.max(-BOARD_SIZE, -q - BOARD_SIZE);
+            int r2 = Math.min(BOARD_SIZE, -q + BOARD_SIZE);
+            for (int r = r1; r <= r2; r++) {
+                AXIAL_TO_INDEX[(q + BOARD_SIZE) * AXIAL_SPAN + (r + BOARD_SIZE)] = index;
+                INDEX_Q[index] = q;
+                INDEX_R[index] = r;
+                index++;
+            }
+        }
+    }
+
+    private final HexCell[] cellArray = new HexCell[CELL_COUNT];
+    private Map<String, HexCell> cells; // vista de compatibilidad, key: "q,r"; se crea al pedirla
+
+    // Bitboards de ocupación (128 bits = dos longs: lo para 0..63, hi para 64..90)
+    private long occupiedLo, occupiedHi;
+    private final long[] colorLo = new long[ChessPiece.PieceColor.values().length];
+    private final long[] colorHi = new long[ChessPiece.PieceColor.values().length];
+    private final long[] typeLo = new long[ChessPiece.PieceType.values().length];
+    private final long[] typeHi = new long[ChessPiece.PieceType.values().length];
+
+    // Mapas de ataque: cuántas piezas de cada color atacan (o defienden) cada celda.
+    // Se actualizan de forma incremental en cada cambio de pieza.
+    private final int[][] attacks = new int[ChessPiece.PieceColor.values().length][CELL_COUNT];
+
+    // Términos de la evaluación por color, también incrementales (ver Evaluator)
+    private final int[] material = new int[ChessPiece.PieceColor.values().length];
+    private final int[] positional = new int[ChessPiece.PieceColor.values().length];
+    private final int[][] pawnFiles = new int[ChessPiece.PieceColor.values().length][AXIAL_SPAN]; // peones por columna q
+    private final int[] doubledPawns = new int[ChessPiece.PieceColor.values().length];
+    private final int[] isolatedPawns = new int[ChessPiece.PieceColor.values().length];
+    // Zona del rey: su celda y las adyacentes. kingZoneOwners marca por celda (bit = ordinal
+    // del color) a qué reyes pertenece, para sumar los ataques enemigos que caen en ella.
+    private final byte[] kingZoneOwners = new byte[CELL_COUNT];
+    private final int[] kingZoneCenter = {-1, -1, -1};
+    private final int[] kingZoneAttacks = new int[ChessPiece.PieceColor.values().length];
+
+    private ChessPiece.PieceColor sideToMove = ChessPiece.PieceColor.WHITE;
+    private int enPassantIndex = -1; // celda saltada por el último avance doble
+    private long hash; // clave Zobrist de la posición, mantenida de forma incremental
+    private int halfmoveClock; // jugadas desde el último avance de peón o captura
+
+    // Pila de deshacer preasignada (crece solo si se supera la capacidad inicial)
+    private static final int INITIAL_UNDO_CAPACITY = 1024;
+    private int ply;
+    private int[] undoMove;
+    private ChessPiece[] undoCaptured;
+    private int[] undoCapturedIndex;
+    private boolean[] undoHadMoved;
+    private int[] undoEnPassant;
+    private ChessPiece.PieceColor[] undoSideToMove;
+    private long[] undoHash;
+    private int[] undoHalfmoveClock;
+
+    public HexBoard() {
+        this(INITIAL_UNDO_CAPACITY);
+    }
+
+    /**
+     * Tablero con una pila de deshacer inicial más pequeña (crece al llenarse). La de
+     * por defecto ocupa unos 33 KB, pensada para la búsqueda; un servidor con miles de
+     * partidas abiertas que solo avanzan puede empezar con pocas entradas.
+     */
+    public HexBoard(int undoCapacity) {
+        int capacity = Math.max(1, undoCapacity);
+        undoMove = new int[capacity];
+        undoCaptured = new ChessPiece[capacity];
+        undoCapturedIndex = new int[capacity];
+        undoHadMoved = new boolean[capacity];
+        undoEnPassant = new int[capacity];
+        undoSideToMove = new ChessPiece.PieceColor[capacity];
+        undoHash = new long[capacity];
+        undoHalfmoveClock = new int[capacity];
+
+        initializeBoard();
+        setupInitialPieces();
+    }
+
+    private void initializeBoard() {
+        for (int i = 0; i < CELL_COUNT; i++) {
+            int q = INDEX_Q[i];
+            int r = INDEX_R[i];
+            cellArray[i] = new HexCell(q, r, getCellColor(q, r), this, i);
+        }
+    }
+
+    /**
+     * Vacía el tablero y reinicia turno, captura al paso e historia de movimientos
+     */
+    public void clear() {
+        for (HexCell cell : cellArray) {
+            cell.setPiece(null);
+        }
+        ply = 0;
+        halfmoveClock = 0;
+        setEnPassantIndex(-1);
+        setSideToMove(ChessPiece.PieceColor.WHITE);
+    }
+
+    /**
+     * Copia la posición de otro tablero (piezas nuevas, turno, captura al paso y reloj
+     * de medias jugadas) para poder buscar sobre ella sin tocar el original.
+     * La historia de movimientos no se copia.
+     */
+    public void copyFrom(HexBoard source) {
+        clear();
+        for (int i = 0; i < CELL_COUNT; i++) {
+            ChessPiece piece = source.cellArray[i].getPiece();
+            if (piece != null) {
+                ChessPiece copy = new ChessPiece(piece.getType(), piece.getColor());
+                copy.setMoved(piece.hasMoved());
+                cellArray[i].setPiece(copy);
+            }
+        }
+        halfmoveClock = source.halfmoveClock;
+        setEnPassantIndex(source.enPassantIndex);
+        setSideToMove(source.sideToMove);
+    }
+
+    private String getCellColor(int q, int r) {
+        // Patrón verificado para ajedrez hexagonal Gliński
+        // Usando la fórmula: (q - r) mod 3
+
+        int colorValue = (q - r) % 3;
+        if (colorValue < 0) colorValue += 3;
+
+        switch (colorValue) {
+            case 0: return "medium";
+            case 1: return "light";
+            case 2: return "dark";
+            default: return "light";
+        }
+    }
+
+    // Posiciones según tablero estándar de Gliński
+    // Mirando la imagen de referencia con fondo blanco:
+    // - Negras arriba (filas 10-11)
+    // - Blancas abajo (filas 1-2)
+    private void setupInitialPieces() {
+        // === PIEZAS NEGRAS (ARRIBA - lado norte) ===
+
+        // Fila 11 (r = -5) - Piezas principales negras
+        placePiece(-1, -4, ChessPiece.PieceType.QUEEN, ChessPiece.PieceColor.BLACK);
+        placePiece(1, -5, ChessPiece.PieceType.KING, ChessPiece.PieceColor.BLACK);
+
+        placePiece(0, -5, ChessPiece.PieceType.BISHOP, ChessPiece.PieceColor.BLACK);
+        placePiece(0, -4, ChessPiece.PieceType.BISHOP, ChessPiece.PieceColor.BLACK);
+        placePiece(0, -3, ChessPiece.PieceType.BISHOP, ChessPiece.PieceColor.BLACK);
+
+        placePiece(2, -5, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceColor.BLACK);
+        placePiece(-2, -3, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceColor.BLACK);
+        placePiece(3, -5, ChessPiece.PieceType.ROOK, ChessPiece.PieceColor.BLACK);
+        placePiece(-3, -2, ChessPiece.PieceType.ROOK, ChessPiece.PieceColor.BLACK);
+
+        // Fila 10 (r = -4) - Peones negros
+        placePiece(-4, -1, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.BLACK);
+        placePiece(-3, -1, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.BLACK);
+        placePiece(-2, -1, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.BLACK);
+        placePiece(-1, -1, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.BLACK);
+        placePiece(0, -1, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.BLACK);
+        placePiece(1, -2, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.BLACK);
+        placePiece(2, -3, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.BLACK);
+        placePiece(3, -4, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.BLACK);
+        placePiece(4, -5, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.BLACK);
+
+        // === PIEZAS BLANCAS (ABAJO) === - COORDENADAS INVERTIDAS
+
+// Réplica simétrica de las piezas negras
+        placePiece(1, 4, ChessPiece.PieceType.QUEEN, ChessPiece.PieceColor.WHITE);
+        placePiece(-1, 5, ChessPiece.PieceType.KING, ChessPiece.PieceColor.WHITE);
+
+        placePiece(0, 5, ChessPiece.PieceType.BISHOP, ChessPiece.PieceColor.WHITE);
+        placePiece(0, 4, ChessPiece.PieceType.BISHOP, ChessPiece.PieceColor.WHITE);
+        placePiece(0, 3, ChessPiece.PieceType.BISHOP, ChessPiece.PieceColor.WHITE);
+
+        placePiece(-2, 5, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceColor.WHITE);
+        placePiece(2, 3, ChessPiece.PieceType.KNIGHT, ChessPiece.PieceColor.WHITE);
+        placePiece(-3, 5, ChessPiece.PieceType.ROOK, ChessPiece.PieceColor.WHITE);
+        placePiece(3, 2, ChessPiece.PieceType.ROOK, ChessPiece.PieceColor.WHITE);
+
+// Peones blancos
+        placePiece(4, 1, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.WHITE);
+        placePiece(3, 1, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.WHITE);
+        placePiece(2, 1, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.WHITE);
+        placePiece(1, 1, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.WHITE);
+        placePiece(0, 1, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.WHITE);
+        placePiece(-1, 2, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.WHITE);
+        placePiece(-2, 3, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.WHITE);
+        placePiece(-3, 4, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.WHITE);
+        placePiece(-4, 5, ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.WHITE);
+    }
+
+    private void placePiece(int q, int r, ChessPiece.PieceType type, ChessPiece.PieceColor color) {
+        HexCell cell = getCell(q, r);
+        if (cell != null) {
+            cell.setPiece(new ChessPiece(type, color));
+        }
+    }
+
+    public HexCell getCell(int q, int r) {
+        int index = indexOf(q, r);
+        return index < 0 ? null : cellArray[index];
+    }
+
+    public HexCell getCell(int index) {
+        return cellArray[index];
+    }
+
+    /**
+     * Índice denso (0..90) de una coordenada axial, o -1 si está fuera del tablero
+     */
+    public static int indexOf(int q, int r) {
+        if (q < -BOARD_SIZE || q > BOARD_SIZE || r < -BOARD_SIZE || r > BOARD_SIZE) {
+            return -1;
+        }
+        return AXIAL_TO_INDEX[(q + BOARD_SIZE) * AXIAL_SPAN + (r + BOARD_SIZE)];
+    }
+
+    public static int qOf(int index) { return INDEX_Q[index]; }
+    public static int rOf(int index) { return INDEX_R[index]; }
+
+    private String getKey(int q, int r) {
+        return q + "," + r;
+    }
+
+    public Map<String, HexCell> getAllCells() {
+        if (cells == null) {
+            Map<String, HexCell> view = new LinkedHashMap<>();
+            for (HexCell cell : cellArray) {
+                view.put(getKey(cell.getQ(), cell.getR()), cell);
+            }
+            cells = Collections.unmodifiableMap(view);
+        }
+        return cells;
+    }
+
+    public List<HexCell> getNeighbors(HexCell cell) {
+        List<HexCell> neighbors = new ArrayList<>();
+
+        for (int[] dir : DIRECTIONS) {
+            HexCell neighbor = getCell(cell.getQ() + dir[0], cell.getR() + dir[1]);
+            if (neighbor != null) {
+                neighbors.add(neighbor);
+            }
+        }
+
+        return neighbors;
+    }
+
+    // ==================== HACER / DESHACER MOVIMIENTOS ====================
+
+    /**
+     * Aplica un movimiento codificado con {@link Move} (se asume pseudo-legal) y guarda
+     * lo necesario para deshacerlo: pieza capturada, bandera hasMoved, celda de captura
+     * al paso y turno. No crea objetos salvo que la pila supere su capacidad.
+     */
+    public void makeMove(int move) {
+        int from = Move.from(move);
+        int to = Move.to(move);
+        HexCell fromCell = cellArray[from];
+        ChessPiece piece = fromCell.getPiece();
+        int side = AttackTables.pawnSide(piece.getColor());
+
+        int capturedIndex = Move.isEnPassant(move) ? AttackTables.PAWN_PUSH[1 - side][to] : to;
+        ChessPiece captured = capturedIndex >= 0 ? cellArray[capturedIndex].getPiece() : null;
+
+        if (ply == undoMove.length) growUndoStack();
+        undoMove[ply] = move;
+        undoCaptured[ply] = captured;
+        undoCapturedIndex[ply] = capturedIndex;
+        undoHadMoved[ply] = piece.hasMoved();
+        undoEnPassant[ply] = enPassantIndex;
+        undoSideToMove[ply] = sideToMove;
+        undoHash[ply] = hash;
+        undoHalfmoveClock[ply] = halfmoveClock;
+        ply++;
+
+        boolean irreversible = captured != null || piece.getType() == ChessPiece.PieceType.PAWN;
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+
+        if (capturedIndex != to && captured != null) {
+            cellArray[capturedIndex].setPiece(null);
+        }
+        fromCell.setPiece(null);
+
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            piece.setType(promotion);
+        }
+        cellArray[to].setPiece(piece);
+        piece.setMoved(true);
+
+        setEnPassantIndex(Move.isDoublePush(move) ? AttackTables.PAWN_PUSH[side][from] : -1);
+        setSideToMove(piece.getColor() == ChessPiece.PieceColor.WHITE ?
+                ChessPiece.PieceColor.BLACK : ChessPiece.PieceColor.WHITE);
+    }
+
+    /**
+     * Deshace el último movimiento aplicado con {@link #makeMove(int)}
+     */
+    public void unmakeMove() {
+        ply--;
+        int move = undoMove[ply];
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        HexCell toCell = cellArray[to];
+        ChessPiece piece = toCell.getPiece();
+        toCell.setPiece(null);
+
+        if (Move.promotion(move) != null) {
+            piece.setType(ChessPiece.PieceType.PAWN);
+        }
+        cellArray[from].setPiece(piece);
+        piece.setMoved(undoHadMoved[ply]);
+
+        ChessPiece captured = undoCaptured[ply];
+        if (captured != null) {
+            cellArray[undoCapturedIndex[ply]].setPiece(captured);
+        }
+        undoCaptured[ply] = null;
+
+        enPassantIndex = undoEnPassant[ply];
+        sideToMove = undoSideToMove[ply];
+        hash = undoHash[ply];
+        halfmoveClock = undoHalfmoveClock[ply];
+    }
+
+    /**
+     * Número de movimientos aplicados que se pueden deshacer
+     */
+    public int getPly() {
+        return ply;
+    }
+
+    private void growUndoStack() {
+        int capacity = undoMove.length * 2;
+        undoMove = Arrays.copyOf(undoMove, capacity);
+        undoCaptured = Arrays.copyOf(undoCaptured, capacity);
+        undoCapturedIndex = Arrays.copyOf(undoCapturedIndex, capacity);
+        undoHadMoved = Arrays.copyOf(undoHadMoved, capacity);
+        undoEnPassant = Arrays.copyOf(undoEnPassant, capacity);
+        undoSideToMove = Arrays.copyOf(undoSideToMove, capacity);
+        undoHash = Arrays.copyOf(undoHash, capacity);
+        undoHalfmoveClock = Arrays.copyOf(undoHalfmoveClock, capacity);
+    }
+
+    public ChessPiece.PieceColor getSideToMove() { return sideToMove; }
+
+    public void setSideToMove(ChessPiece.PieceColor color) {
+        if (sideToMove != ChessPiece.PieceColor.WHITE) hash ^= Zobrist.BLACK_TO_MOVE;
+        sideToMove = color;
+        if (sideToMove != ChessPiece.PieceColor.WHITE) hash ^= Zobrist.BLACK_TO_MOVE;
+    }
+
+    public int getEnPassantIndex() { return enPassantIndex; }
+
+    public void setEnPassantIndex(int index) {
+        if (enPassantIndex >= 0) hash ^= Zobrist.enPassant(enPassantIndex);
+        enPassantIndex = index;
+        if (enPassantIndex >= 0) hash ^= Zobrist.enPassant(enPassantIndex);
+    }
+
+    // ==================== HASH Y REPETICIONES ====================
+
+    /**
+     * Clave Zobrist de 64 bits de la posición actual
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * Veces que la posición actual aparece en la historia de movimientos (incluida la actual).
+     * Solo revisa posiciones con el mismo turno y posteriores al último movimiento irreversible.
+     */
+    public int getRepetitionCount() {
+        int count = 1;
+        int oldest = Math.max(0, ply - halfmoveClock);
+        for (int i = ply - 2; i >= oldest; i -= 2) {
+            if (undoHash[i] == hash) count++;
+        }
+        return count;
+    }
+
+    public boolean isThreefoldRepetition() {
+        return getRepetitionCount() >= 3;
+    }
+
+    // ==================== BITBOARDS ====================
+
+    /**
+     * Llamado por HexCell cada vez que cambia su pieza
+     */
+    void onPieceChanged(int index, ChessPiece oldPiece, ChessPiece newPiece) {
+        if (oldPiece != null) {
+            hash ^= Zobrist.piece(oldPiece, index);
+            updateAttacks(index, oldPiece, -1);
+            updateBitboards(index, oldPiece, false);
+            updateEvaluation(index, oldPiece, -1);
+        } else {
+            // La celda deja de estar vacía: los rayos que la cruzaban se acortan
+            updateSlidersThrough(index, -1);
+        }
+
+        if (newPiece != null) {
+            hash ^= Zobrist.piece(newPiece, index);
+            updateBitboards(index, newPiece, true);
+            updateAttacks(index, newPiece, 1);
+            updateEvaluation(index, newPiece, 1);
+        } else {
+            // La celda queda vacía: los rayos que la cruzaban se alargan
+            updateSlidersThrough(index, 1);
+        }
+
+        // Al final, con los mapas de ataque ya al día, se recoloca la zona del rey que cambió
+        if (oldPiece != null && oldPiece.getType() == ChessPiece.PieceType.KING) {
+            refreshKingZone(oldPiece.getColor().ordinal());
+        }
+        if (newPiece != null && newPiece.getType() == ChessPiece.PieceType.KING
+                && (oldPiece == null || oldPiece.getColor() != newPiece.getColor()
+                || oldPiece.getType() != ChessPiece.PieceType.KING)) {
+            refreshKingZone(newPiece.getColor().ordinal());
+        }
+    }
+
+    private void updateBitboards(int index, ChessPiece piece, boolean set) {
+        long bitLo = Bitboard.bitLo(index);
+        long bitHi = Bitboard.bitHi(index);
+        int color = piece.getColor().ordinal();
+        int type = piece.getType().ordinal();
+
+        if (set) {
+            occupiedLo |= bitLo;
+            occupiedHi |= bitHi;
+            colorLo[color] |= bitLo;
+            colorHi[color] |= bitHi;
+            typeLo[type] |= bitLo;
+            typeHi[type] |= bitHi;
+        } else {
+            occupiedLo &= ~bitLo;
+            occupiedHi &= ~bitHi;
+            colorLo[color] &= ~bitLo;
+            colorHi[color] &= ~bitHi;
+            typeLo[type] &= ~bitLo;
+            typeHi[type] &= ~bitHi;
+        }
+    }
+
+    // ==================== MAPAS DE ATAQUE ====================
+
+    /**
+     * Suma (delta = 1) o resta (delta = -1) los ataques de una pieza en la celda indicada
+     */
+    private void updateAttacks(int index, ChessPiece piece, int delta) {
+        int color = piece.getColor().ordinal();
+
+        switch (piece.getType()) {
+            case PAWN: // el peón captura en cualquier celda adyacente
+            case KING:
+                addLeaperAttacks(AttackTables.KING_TARGETS[index], color, delta);
+                break;
+            case KNIGHT:
+                addLeaperAttacks(AttackTables.KNIGHT_TARGETS[index], color, delta);
+                break;
+            case BISHOP:
+                for (int[] ray : AttackTables.DIAG_RAYS[index]) addRayAttacks(ray, color, delta);
+                break;
+            case ROOK:
+                for (int[] ray : AttackTables.ORTHO_RAYS[index]) addRayAttacks(ray, color, delta);
+                break;
+            case QUEEN:
+                for (int[] ray : AttackTables.ORTHO_RAYS[index]) addRayAttacks(ray, color, delta);
+                for (int[] ray : AttackTables.DIAG_RAYS[index]) addRayAttacks(ray, color, delta);
+                addLeaperAttacks(AttackTables.QUEEN_JUMP_TARGETS[index], color, delta);
+                break;
+        }
+    }
+
+    /**
+     * Ajusta los ataques de las piezas deslizantes cuyo rayo pasa por la celda indicada
+     * (la primera pieza en cada dirección, si se desliza en esa línea)
+     */
+    private void updateSlidersThrough(int index, int delta) {
+        for (int d = 0; d < 6; d++) {
+            int slider = firstOccupied(AttackTables.ORTHO_RAYS[index][d]);
+            if (slider >= 0 && slidesOrthogonally(cellArray[slider].getPiece())) {
+                addRayAttacks(AttackTables.ORTHO_RAYS[index][(d + 3) % 6],
+                        cellArray[slider].getPiece().getColor().ordinal(), delta);
+            }
+
+            slider = firstOccupied(AttackTables.DIAG_RAYS[index][d]);
+            if (slider >= 0 && slidesDiagonally(cellArray[slider].getPiece())) {
+                addRayAttacks(AttackTables.DIAG_RAYS[index][(d + 3) % 6],
+                        cellArray[slider].getPiece().getColor().ordinal(), delta);
+            }
+        }
+    }
+
+    private void addLeaperAttacks(int[] targets, int color, int delta) {
+        for (int target : targets) {
+            addAttack(target, color, delta);
+        }
+    }
+
+    private void addRayAttacks(int[] ray, int color, int delta) {
+        for (int cell : ray) {
+            addAttack(cell, color, delta);
+            if (isOccupied(cell)) break;
+        }
+    }
+
+    private void addAttack(int cell, int color, int delta) {
+        attacks[color][cell] += delta;
+        int owners = kingZoneOwners[cell] & ~(1 << color);
+        while (owners != 0) {
+            int king = Integer.numberOfTrailingZeros(owners);
+            kingZoneAttacks[king] += delta;
+            owners &= owners - 1;
+        }
+    }
+
+    /**
+     * Primera celda ocupada de un rayo, o -1 si está libre hasta el borde
+     */
+    public int firstOccupied(int[] ray) {
+        for (int cell : ray) {
+            if (isOccupied(cell)) return cell;
+        }
+        return -1;
+    }
+
+    static boolean slidesOrthogonally(ChessPiece piece) {
+        return piece.getType() == ChessPiece.PieceType.ROOK || piece.getType() == ChessPiece.PieceType.QUEEN;
+    }
+
+    static boolean slidesDiagonally(ChessPiece piece) {
+        return piece.getType() == ChessPiece.PieceType.BISHOP || piece.getType() == ChessPiece.PieceType.QUEEN;
+    }
+
+    /**
+     * Número de piezas del color indicado que atacan o defienden la celda
+     */
+    public int getAttackCount(ChessPiece.PieceColor by, int index) {
+        return attacks[by.ordinal()][index];
+    }
+
+    /**
+     * Número de piezas de cualquier otro color que atacan la celda
+     */
+    public int getEnemyAttackCount(ChessPiece.PieceColor color, int index) {
+        return enemyAttacks(color.ordinal(), index);
+    }
+
+    /**
+     * Celda del rey de un color, o -1 si no tiene rey en el tablero
+     */
+    public int getKingIndex(ChessPiece.PieceColor color) {
+        int king = ChessPiece.PieceType.KING.ordinal();
+        return Bitboard.first(typeLo[king] & colorLo[color.ordinal()], typeHi[king] & colorHi[color.ordinal()]);
+    }
+
+    public boolean isOccupied(int index) {
+        return Bitboard.isSet(occupiedLo, occupiedHi, index);
+    }
+
+    // ==================== EVALUACIÓN INCREMENTAL ====================
+
+    /**
+     * Suma (delta = 1) o resta (delta = -1) los términos de evaluación de una pieza
+     */
+    private void updateEvaluation(int index, ChessPiece piece, int delta) {
+        int color = piece.getColor().ordinal();
+        int type = piece.getType().ordinal();
+        int cell = piece.getColor() == ChessPiece.PieceColor.WHITE ? index : Evaluator.MIRROR[index];
+        material[color] += delta * Evaluator.PIECE_VALUES[type];
+        positional[color] += delta * Evaluator.PIECE_SQUARE[type][cell];
+        if (piece.getType() == ChessPiece.PieceType.PAWN) {
+            updatePawnFile(color, INDEX_Q[index] + BOARD_SIZE, delta);
+        }
+    }
+
+    /**
+     * Cambia los peones de una columna; solo ella y sus vecinas pueden cambiar de estado
+     */
+    private void updatePawnFile(int color, int file, int delta) {
+        int[] files = pawnFiles[color];
+        int first = Math.max(0, file - 1);
+        int last = Math.min(AXIAL_SPAN - 1, file + 1);
+        for (int f = first; f <= last; f++) {
+            doubledPawns[color] -= doubledOn(files, f);
+            isolatedPawns[color] -= isolatedOn(files, f);
+        }
+        files[file] += delta;
+        for (int f = first; f <= last; f++) {
+            doubledPawns[color] += doubledOn(files, f);
+            isolatedPawns[color] += isolatedOn(files, f);
+        }
+    }
+
+    static int doubledOn(int[] files, int file) {
+        return Math.max(0, files[file] - 1);
+    }
+
+    static int isolatedOn(int[] files, int file) {
+        boolean left = file > 0 && files[file - 1] > 0;
+        boolean right = file < files.length - 1 && files[file + 1] > 0;
+        return left || right ? 0 : files[file];
+    }
+
+    /**
+     * Recoloca la zona del rey de un color (el primero, si hubiera varios) y vuelve a
+     * sumar los ataques enemigos sobre ella. Solo se llama cuando un rey cambia de celda.
+     */
+    private void refreshKingZone(int color) {
+        byte bit = (byte) (1 << color);
+        int center = kingZoneCenter[color];
+        if (center >= 0) {
+            kingZoneOwners[center] &= ~bit;
+            for (int cell : AttackTables.KING_TARGETS[center]) kingZoneOwners[cell] &= ~bit;
+        }
+
+        center = getKingIndex(ChessPiece.PieceColor.values()[color]);
+        kingZoneCenter[color] = center;
+        kingZoneAttacks[color] = 0;
+        if (center < 0) return;
+
+        kingZoneOwners[center] |= bit;
+        kingZoneAttacks[color] += enemyAttacks(color, center);
+        for (int cell : AttackTables.KING_TARGETS[center]) {
+            kingZoneOwners[cell] |= bit;
+            kingZoneAttacks[color] += enemyAttacks(color, cell);
+        }
+    }
+
+    private int enemyAttacks(int color, int index) {
+        int total = 0;
+        for (int c = 0; c < attacks.length; c++) {
+            if (c != color) total += attacks[c][index];
+        }
+        return total;
+    }
+
+    /** Suma de los valores de PIECE_VALUES de las piezas de un color */
+    public int getMaterial(ChessPiece.PieceColor color) { return material[color.ordinal()]; }
+
+    /** Suma de la tabla posicional de las piezas de un color */
+    public int getPositional(ChessPiece.PieceColor color) { return positional[color.ordinal()]; }
+
+    /** Peones de un color que sobran en su columna (dos en la misma columna cuentan uno) */
+    public int getDoubledPawns(ChessPiece.PieceColor color) { return doubledPawns[color.ordinal()]; }
+
+    /** Peones de un color sin peones propios en las columnas vecinas */
+    public int getIsolatedPawns(ChessPiece.PieceColor color) { return isolatedPawns[color.ordinal()]; }
+
+    /**
+     * Ataques de los demás colores sobre la celda del rey y sus adyacentes (cada pieza
+     * cuenta una vez por celda atacada); 0 si el color no tiene rey
+     */
+    public int getKingZoneAttacks(ChessPiece.PieceColor color) { return kingZoneAttacks[color.ordinal()]; }
+
+    public long getOccupiedLo() { return occupiedLo; }
+    public long getOccupiedHi() { return occupiedHi; }
+
+    public long getColorLo(ChessPiece.PieceColor color) { return colorLo[color.ordinal()]; }
+    public long getColorHi(ChessPiece.PieceColor color) { return colorHi[color.ordinal()]; }
+
+    public long getTypeLo(ChessPiece.PieceType type) { return typeLo[type.ordinal()]; }
+    public long getTypeHi(ChessPiece.PieceType type) { return typeHi[type.ordinal()]; }
+
+    public void printColorDistribution() {
+        int lightCount = 0, mediumCount = 0, darkCount = 0;
+
+        for (HexCell cell : cellArray) {
+            switch (cell.getColor()) {
+                case "light": lightCount++; break;
+                case "medium": mediumCount++; break;
+                case "dark": darkCount++; break;
+            }
+        }
+
+        System.out.println("Total celdas: " + cellArray.length);
+        System.out.println("Claras: " + lightCount);
+        System.out.println("Medias: " + mediumCount);
+        System.out.println("Oscuras: " + darkCount);
+    }
+}
\ No newline at end of file
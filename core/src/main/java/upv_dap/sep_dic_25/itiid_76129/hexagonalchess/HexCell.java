@@ -5,12 +5,20 @@ public class HexCell {
     private int r; // coordenada axial r
     private ChessPiece piece;
     private String color; // "white", "gray", "black" (colores del tablero)
+    private final HexBoard board; // tablero dueño, para mantener sus bitboards al día
+    private final int index; // índice denso 0..90 dentro del tablero
 
     public HexCell(int q, int r, String color) {
+        this(q, r, color, null, -1);
+    }
+
+    HexCell(int q, int r, String color, HexBoard board, int index) {
         this.q = q;
         this.r = r;
         this.color = color;
         this.piece = null;
+        this.board = board;
+        this.index = index;
     }
 
     // Sistema de coordenadas cúbicas para facilitar cálculos
@@ -20,8 +28,16 @@ public class HexCell {
     public int getQ() { return q; }
     public int getR() { return r; }
     public String getColor() { return color; }
+    public int getIndex() { return index; }
     public ChessPiece getPiece() { return piece; }
-    public void setPiece(ChessPiece piece) { this.piece = piece; }
+
+    public void setPiece(ChessPiece piece) {
+        ChessPiece old = this.piece;
+        this.piece = piece;
+        if (board != null && old != piece) {
+            board.onPieceChanged(index, old, piece);
+        }
+    }
 
     // Distancia entre dos celdas hexagonales
     public int distanceTo(HexCell other) {
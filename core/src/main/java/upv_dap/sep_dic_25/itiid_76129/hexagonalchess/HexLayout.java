@@ -0,0 +1,66 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+/**
+ * Conversión entre coordenadas axiales y píxeles para el tablero dibujado con
+ * orientación point-top. No depende de Android para poder medirla fuera del dispositivo;
+ * HexagonalBoardView la usa en cada toque y en cada cuadro.
+ */
+public class HexLayout {
+    private static final double SQRT3 = Math.sqrt(3);
+
+    private float hexSize = 50f;
+    private float centerX, centerY;
+
+    public void setGeometry(float hexSize, float centerX, float centerY) {
+        this.hexSize = hexSize;
+        this.centerX = centerX;
+        this.centerY = centerY;
+    }
+
+    public float getHexSize() { return hexSize; }
+
+    public float toPixelX(int q, int r) {
+        return centerX + hexSize * (float) (3.0 / 2 * q);
+    }
+
+    public float toPixelY(int q, int r) {
+        return centerY + hexSize * (float) (SQRT3 * (r + q / 2.0));
+    }
+
+    /**
+     * Índice de la celda bajo el punto (x, y), o -1 si cae fuera del tablero
+     */
+    public int pixelToIndex(float x, float y) {
+        // Conversión inversa para point-top
+        float relX = (x - centerX) / hexSize;
+        float relY = (y - centerY) / hexSize;
+
+        float q = (float) (2.0 / 3 * relX);
+        float r = (float) (-1.0 / 3 * relX + SQRT3 / 3 * relY);
+
+        return hexRound(q, r);
+    }
+
+    /**
+     * Redondea coordenadas axiales fraccionarias a la celda más cercana (índice o -1)
+     */
+    public static int hexRound(float q, float r) {
+        float s = -q - r;
+
+        int rq = Math.round(q);
+        int rr = Math.round(r);
+        int rs = Math.round(s);
+
+        float qDiff = Math.abs(rq - q);
+        float rDiff = Math.abs(rr - r);
+        float sDiff = Math.abs(rs - s);
+
+        if (qDiff > rDiff && qDiff > sDiff) {
+            rq = -rr - rs;
+        } else if (rDiff > sDiff) {
+            rr = -rq - rs;
+        }
+
+        return HexBoard.indexOf(rq, rr);
+    }
+}
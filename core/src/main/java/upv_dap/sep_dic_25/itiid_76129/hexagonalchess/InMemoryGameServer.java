@@ -0,0 +1,193 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.UnaryOperator;
+
+/**
+ * Sustituto en memoria de la base de datos de partidas para {@link InMemoryGameTransport}.
+ * Cada partida tiene su propio cerrojo: las transacciones sobre ella son atómicas y se
+ * numeran en orden, y cada suscriptor recibe su propia copia del estado (como si se
+ * hubiera serializado).
+ *
+ * Los callbacks de una partida pasan por una cola y se entregan de uno en uno y en el
+ * orden en que ocurrieron, aunque un callback haga a su vez otra jugada o el ejecutor
+ * tenga varios hilos: cada partida se vacía como una sola tarea del ejecutor. Con el
+ * ejecutor por defecto se entregan en el hilo que provocó el cambio, así que una
+ * partida jugada desde un solo hilo es determinista.
+ */
+public class InMemoryGameServer {
+    // Callbacks seguidos de una partida antes de ceder el hilo a las demás
+    private static final int DRAIN_BATCH = 16;
+
+    private final Executor dispatcher;
+    private final Map<String, Game> games = new ConcurrentHashMap<>();
+    private int nextGameId;
+    private int nextPlayerId;
+
+    private static final class Game {
+        GameState state;
+        final List<GameTransport.OnGameUpdateListener> listeners = new ArrayList<>();
+        final ArrayDeque<Runnable> events = new ArrayDeque<>();
+        boolean draining;
+
+        Game(GameState state) {
+            this.state = state;
+        }
+    }
+
+    public InMemoryGameServer() {
+        this(Runnable::run);
+    }
+
+    /**
+     * @param dispatcher ejecutor de los callbacks (p. ej. un hilo único que haga de hilo principal)
+     */
+    public InMemoryGameServer(Executor dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Cliente nuevo con su propio identificador de jugador
+     */
+    public GameTransport connect() {
+        return new InMemoryGameTransport(this, nextId("P"));
+    }
+
+    public int getGameCount() {
+        return games.size();
+    }
+
+    /**
+     * Copia del estado guardado de la partida, o null si no existe
+     */
+    public GameState read(String gameId) {
+        Game game = games.get(gameId);
+        if (game == null) return null;
+        synchronized (game) {
+            return new GameState(game.state);
+        }
+    }
+
+    // ==================== OPERACIONES DE LOS CLIENTES ====================
+
+    synchronized String nextId(String prefix) {
+        int id = "P".equals(prefix) ? ++nextPlayerId : ++nextGameId;
+        return String.format("%s%05d", prefix, id);
+    }
+
+    boolean create(GameState state) {
+        return games.putIfAbsent(state.getGameId(), new Game(new GameState(state))) == null;
+    }
+
+    /**
+     * Aplica de forma atómica la función a una copia del estado (null si la partida no
+     * existe). Si devuelve un estado se guarda y se avisa a los suscriptores; si devuelve
+     * null no se escribe nada. Devuelve si hubo escritura.
+     */
+    boolean transact(String gameId, UnaryOperator<GameState> update) {
+        Game game = games.get(gameId);
+        if (game == null) {
+            update.apply(null);
+            return false;
+        }
+
+        synchronized (game) {
+            GameState next = update.apply(new GameState(game.state));
+            if (next == null) return false;
+
+            game.state = new GameState(next);
+            for (GameTransport.OnGameUpdateListener listener : game.listeners) {
+                GameState copy = new GameState(next);
+                game.events.addLast(() -> listener.onGameUpdate(copy));
+            }
+        }
+        drain(game);
+        return true;
+    }
+
+    /**
+     * Suscribe al listener; lo primero que recibe es el estado actual
+     */
+    boolean addListener(String gameId, GameTransport.OnGameUpdateListener listener) {
+        Game game = games.get(gameId);
+        if (game == null) return false;
+
+        synchronized (game) {
+            game.listeners.add(listener);
+            GameState copy = new GameState(game.state);
+            game.events.addLast(() -> listener.onGameUpdate(copy));
+        }
+        drain(game);
+        return true;
+    }
+
+    void removeListener(String gameId, GameTransport.OnGameUpdateListener listener) {
+        Game game = games.get(gameId);
+        if (game == null) return;
+        synchronized (game) {
+            game.listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Entrega un callback detrás de los ya encolados para esa partida
+     */
+    void post(String gameId, Runnable callback) {
+        Game game = gameId != null ? games.get(gameId) : null;
+        if (game == null) {
+            dispatcher.execute(callback);
+            return;
+        }
+        synchronized (game) {
+            game.events.addLast(callback);
+        }
+        drain(game);
+    }
+
+    /**
+     * Una sola tarea del ejecutor vacía la cola de cada partida; lo que se encole
+     * mientras tanto (también desde los propios callbacks) lo entrega esa misma tarea,
+     * en orden. Así los callbacks de una partida nunca se solapan, aunque el ejecutor
+     * tenga varios hilos. Tras {@link #DRAIN_BATCH} callbacks la tarea vuelve a la cola
+     * del ejecutor: una partida que se juega sola no acapara un hilo.
+     */
+    private void drain(Game game) {
+        synchronized (game) {
+            if (game.draining || game.events.isEmpty()) return;
+            game.draining = true;
+        }
+        dispatcher.execute(() -> runEvents(game));
+    }
+
+    private void runEvents(Game game) {
+        for (int budget = DRAIN_BATCH; ; budget--) {
+            if (budget == 0) {
+                dispatcher.execute(() -> runEvents(game)); // sigue drenando (draining no cambia)
+                return;
+            }
+            Runnable event;
+            synchronized (game) {
+                event = game.events.pollFirst();
+                if (event == null) {
+                    game.draining = false;
+                    return;
+                }
+            }
+            try {
+                event.run();
+            } catch (RuntimeException | Error e) {
+                // Un callback que falla no debe dejar la partida sin entregar el resto
+                synchronized (game) {
+                    game.draining = false;
+                }
+                drain(game);
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+/**
+ * GameTransport sin red: un cliente de un {@link InMemoryGameServer}. Sigue las mismas
+ * reglas que FirebaseManager (unirse como negras a una partida en espera, jugadas
+ * comprometidas con el mismo {@link MoveTransaction.Commit} en una sola transacción
+ * sobre la partida), así que sirve para probar y medir el flujo de juego completo en
+ * cualquier máquina.
+ */
+public class InMemoryGameTransport implements GameTransport {
+    private final InMemoryGameServer server;
+    private final String playerId;
+    private final MoveTransaction moveTransaction = new MoveTransaction();
+    private volatile String currentGameId;
+    private volatile GameState currentGameState;
+    private OnGameUpdateListener gameListener;
+
+    InMemoryGameTransport(InMemoryGameServer server, String playerId) {
+        this.server = server;
+        this.playerId = playerId;
+    }
+
+    @Override
+    public void createGame(OnGameCreatedListener listener) {
+        String gameId = server.nextId("G");
+        GameState gameState = new GameState(gameId);
+        gameState.setWhitePlayerId(playerId);
+        gameState.copyPiecesFrom(new HexBoard());
+
+        if (!server.create(gameState)) {
+            server.post(null, () -> listener.onError("Error al verificar ID de partida"));
+            return;
+        }
+        currentGameId = gameId;
+        currentGameState = gameState;
+        server.post(gameId, () -> listener.onGameCreated(gameId));
+    }
+
+    @Override
+    public void joinGame(String gameId, OnGameJoinedListener listener) {
+        final String[] error = new String[1];
+        server.transact(gameId, gameState -> {
+            if (gameState == null) {
+                error[0] = "Partida no encontrada";
+                return null;
+            }
+            if (gameState.getBlackPlayerId() == null && !playerId.equals(gameState.getWhitePlayerId())) {
+                gameState.setBlackPlayerId(playerId);
+                gameState.setStatus("playing");
+                return gameState;
+            }
+            if (!playerId.equals(gameState.getWhitePlayerId()) && !playerId.equals(gameState.getBlackPlayerId())) {
+                error[0] = "Partida llena o no disponible.";
+            }
+            return null;
+        });
+
+        if (error[0] != null) {
+            String message = error[0];
+            server.post(gameId, () -> listener.onError(message));
+            return;
+        }
+        currentGameId = gameId;
+        server.post(gameId, () -> listener.onGameJoined(gameId));
+    }
+
+    @Override
+    public void makeMove(String fromKey, String toKey, OnMoveCompleteListener listener) {
+        String gameId = currentGameId;
+        if (gameId == null || currentGameState == null) {
+            server.post(null, () -> listener.onError("No hay partida activa"));
+            return;
+        }
+
+        String[] from = fromKey.split(",");
+        String[] to = toKey.split(",");
+        int fromIndex = HexBoard.indexOf(Integer.parseInt(from[0]), Integer.parseInt(from[1]));
+        int toIndex = HexBoard.indexOf(Integer.parseInt(to[0]), Integer.parseInt(to[1]));
+        MoveTransaction.Commit commit = moveTransaction.commit(playerId, fromIndex, toIndex);
+        boolean committed = server.transact(gameId, commit::apply);
+        server.post(gameId, () -> commit.complete(null, committed, true, listener));
+    }
+
+    @Override
+    public void listenToGame(OnGameUpdateListener listener) {
+        String gameId = currentGameId;
+        if (gameId == null) return;
+
+        // Remover listener anterior si existe
+        if (gameListener != null) {
+            server.removeListener(gameId, gameListener);
+        }
+
+        gameListener = new OnGameUpdateListener() {
+            @Override
+            public void onGameUpdate(GameState gameState) {
+                currentGameState = gameState;
+                listener.onGameUpdate(gameState);
+            }
+
+            @Override
+            public void onError(String error) {
+                listener.onError(error);
+            }
+        };
+        if (!server.addListener(gameId, gameListener)) {
+            gameListener = null;
+            server.post(null, () -> listener.onError("Partida no encontrada"));
+        }
+    }
+
+    @Override
+    public void cleanup() {
+        if (currentGameId != null && gameListener != null) {
+            server.removeListener(currentGameId, gameListener);
+        }
+        gameListener = null;
+        currentGameId = null;
+        currentGameState = null;
+    }
+
+    @Override
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    @Override
+    public GameState getCurrentGameState() {
+        return currentGameState;
+    }
+
+    @Override
+    public String getCurrentGameId() {
+        return currentGameId;
+    }
+}
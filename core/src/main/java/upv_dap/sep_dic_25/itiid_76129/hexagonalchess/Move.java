@@ -0,0 +1,62 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+/**
+ * Codificación de un movimiento en un int, para poder guardarlo en listas
+ * preasignadas sin crear objetos:
+ * bits 0-6 origen, bits 7-13 destino, bits 14-16 pieza de promoción (0 = ninguna),
+ * bits 17+ banderas.
+ */
+public final class Move {
+    public static final int NONE = 0;
+
+    public static final int FLAG_CAPTURE = 1 << 17;
+    public static final int FLAG_EN_PASSANT = 1 << 18;
+    public static final int FLAG_DOUBLE_PUSH = 1 << 19;
+
+    private static final ChessPiece.PieceType[] PIECE_TYPES = ChessPiece.PieceType.values();
+
+    private Move() {}
+
+    public static int encode(int from, int to, int flags) {
+        return from | (to << 7) | flags;
+    }
+
+    public static int encode(int from, int to, int flags, ChessPiece.PieceType promotion) {
+        return encode(from, to, flags) | ((promotion.ordinal() + 1) << 14);
+    }
+
+    public static int from(int move) {
+        return move & 0x7F;
+    }
+
+    public static int to(int move) {
+        return (move >>> 7) & 0x7F;
+    }
+
+    /**
+     * Pieza a la que promociona el peón, o null si el movimiento no es una promoción
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int code = (move >>> 14) & 0x7;
+        return code == 0 ? null : PIECE_TYPES[code - 1];
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & FLAG_CAPTURE) != 0;
+    }
+
+    public static boolean isEnPassant(int move) {
+        return (move & FLAG_EN_PASSANT) != 0;
+    }
+
+    public static boolean isDoublePush(int move) {
+        return (move & FLAG_DOUBLE_PUSH) != 0;
+    }
+
+    public static String toString(int move) {
+        String text = HexBoard.qOf(from(move)) + "," + HexBoard.rOf(from(move)) + "->" +
+                HexBoard.qOf(to(move)) + "," + HexBoard.rOf(to(move));
+        ChessPiece.PieceType promotion = promotion(move);
+        return promotion == null ? text : text + "=" + promotion.name();
+    }
+}
@@ -0,0 +1,52 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+/**
+ * Lista de movimientos codificados (ver {@link Move}) sobre un arreglo preasignado.
+ * Se reutiliza entre llamadas con {@link #clear()} para no generar basura.
+ */
+public final class MoveList {
+    // Ninguna posición de Gliński se acerca a este número de movimientos
+    public static final int DEFAULT_CAPACITY = 512;
+
+    private final int[] moves;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public void add(int move) {
+        moves[size++] = move;
+    }
+
+    public int get(int i) {
+        return moves[i];
+    }
+
+    public void set(int i, int move) {
+        moves[i] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Recorta la lista a sus primeros {@code newSize} movimientos
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+}
@@ -0,0 +1,166 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.ArrayList;
+import java.util.Map;
+
+/**
+ * Función de una transacción de movimiento: recibe el estado de la partida tal como
+ * está en el servidor y devuelve el estado con la jugada añadida, o el motivo del
+ * rechazo. Comprueba turno, propiedad de la pieza y legalidad con MoveValidator sobre
+ * la posición reconstruida del registro, así que dos escrituras simultáneas no pueden
+ * dejar la partida corrupta: la que llegue segunda se repite sobre el estado nuevo y
+ * se rechaza.
+ *
+ * Puede llamarse varias veces con estados distintos (la base de datos la repite si
+ * el estado cambió entretanto); el tablero interno se reconstruye cuando hace falta.
+ *
+ * {@link Commit} envuelve una jugada concreta con la función de la transacción y la
+ * respuesta al jugador cuando termina: FirebaseManager e InMemoryGameTransport usan
+ * esa misma clase, así que los dos siguen exactamente el mismo protocolo.
+ */
+public final class MoveTransaction {
+    private final GameReplay replay = new GameReplay(new HexBoard());
+
+    public static final class Result {
+        public final GameState state; // null si se rechazó
+        public final String error;
+        public final int move;
+
+        private Result(GameState state, String error, int move) {
+            this.state = state;
+            this.error = error;
+            this.move = move;
+        }
+
+        public boolean isCommitted() {
+            return state != null;
+        }
+    }
+
+    /**
+     * Aplica la jugada de playerId entre dos celdas (índices densos) sobre el estado
+     * dado, que se modifica y se devuelve en el resultado si la jugada es válida
+     */
+    public synchronized Result apply(GameState state, String playerId, int from, int to) {
+        if (state == null) return rejected("Partida no encontrada");
+        if ("finished".equals(state.getStatus())) return rejected("La partida ha terminado");
+
+        // Validar turno
+        boolean isWhite = playerId.equals(state.getWhitePlayerId());
+        boolean isBlack = playerId.equals(state.getBlackPlayerId());
+        boolean correctTurn = (isWhite && "white".equals(state.getCurrentTurn())) ||
+                (isBlack && "black".equals(state.getCurrentTurn()));
+        if (!correctTurn) return rejected("No es tu turno");
+        if (from < 0 || from >= HexBoard.CELL_COUNT || to < 0 || to >= HexBoard.CELL_COUNT) {
+            return rejected("Posición fuera del tablero");
+        }
+
+        try {
+            replay.sync(state);
+        } catch (IllegalArgumentException e) {
+            return rejected("Registro de jugadas inválido: " + e.getMessage());
+        }
+
+        HexBoard board = replay.getBoard();
+        ChessPiece piece = board.getCell(from).getPiece();
+        if (piece == null) return rejected("No hay pieza en la posición origen");
+        if (piece.getColor() != board.getSideToMove()) return rejected("No puedes mover esa pieza");
+
+        int move = new MoveValidator(board).findLegalMove(board.getCell(from), board.getCell(to));
+        if (move == Move.NONE) return rejected("Movimiento ilegal");
+
+        writeUpdates(state, replay.recordMove(move));
+        return new Result(state, null, move);
+    }
+
+    /**
+     * Prepara la jugada de playerId entre dos celdas para pasarla por una transacción
+     */
+    public Commit commit(String playerId, int from, int to) {
+        return new Commit(playerId, from, to);
+    }
+
+    /**
+     * Una jugada en curso. {@link #apply} es la función de la transacción sobre el nodo
+     * de la partida (la base de datos puede llamarla varias veces) y {@link #complete}
+     * traduce su resultado al listener. Toda la jugada (registro, turno y fin de partida)
+     * se escribe en un único compromiso: si falla, la partida queda como estaba.
+     */
+    public final class Commit {
+        private final String playerId;
+        private final int from;
+        private final int to;
+        private volatile String rejection; // motivo del último rechazo, null si se aplicó
+
+        private Commit(String playerId, int from, int to) {
+            this.playerId = playerId;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Estado con la jugada añadida, o null si hay que abortar la transacción
+         */
+        public GameState apply(GameState current) {
+            Result result = MoveTransaction.this.apply(current, playerId, from, to);
+            rejection = result.error;
+            return result.state;
+        }
+
+        /**
+         * Avisa al jugador del resultado de la transacción. error es el fallo de la
+         * base de datos (ya con su mensaje), null si no lo hubo; exists indica si el
+         * estado confirmado tiene datos (confirmar un nodo vacío es no encontrar la partida)
+         */
+        public void complete(String error, boolean committed, boolean exists,
+                             GameTransport.OnMoveCompleteListener listener) {
+            if (error != null) {
+                listener.onError(error);
+            } else if (!committed) {
+                listener.onError(rejection != null ? rejection : "Partida no encontrada");
+            } else if (!exists) {
+                listener.onError("Partida no encontrada");
+            } else {
+                listener.onMoveComplete();
+            }
+        }
+    }
+
+    private static Result rejected(String error) {
+        return new Result(null, error, Move.NONE);
+    }
+
+    /**
+     * Lleva al objeto las rutas que devuelve {@link GameReplay#recordMove}
+     */
+    static void writeUpdates(GameState state, Map<String, Object> updates) {
+        for (Map.Entry<String, Object> entry : updates.entrySet()) {
+            String path = entry.getKey();
+            Object value = entry.getValue();
+            if (path.startsWith("moves/")) {
+                if (state.getMoves() == null) state.setMoves(new ArrayList<>());
+                int index = Integer.parseInt(path.substring("moves/".length()));
+                while (state.getMoves().size() <= index) state.getMoves().add(null);
+                state.getMoves().set(index, (Integer) value);
+            } else if (path.equals("board")) {
+                state.setBoard((String) value);
+            } else if (path.equals("snapshotPly")) {
+                state.setSnapshotPly((Integer) value);
+            } else if (path.equals("pieces")) {
+                state.setPieces(null);
+            } else if (path.equals("currentTurn")) {
+                state.setCurrentTurn((String) value);
+            } else if (path.equals("lastMoveTimestamp")) {
+                state.setLastMoveTimestamp((Long) value);
+            } else if (path.equals("status")) {
+                state.setStatus((String) value);
+            } else if (path.equals("winner")) {
+                state.setWinner((String) value);
+            } else if (path.equals("endReason")) {
+                state.setEndReason((String) value);
+            } else {
+                throw new IllegalArgumentException("Ruta desconocida: " + path);
+            }
+        }
+    }
+}
@@ -0,0 +1,574 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class MoveValidator {
+    public enum GameStatus {
+        PLAYING, CHECKMATE, STALEMATE
+    }
+
+    private static final ChessPiece.PieceType[] PROMOTION_TYPES = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK,
+            ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT
+    };
+
+    private HexBoard board;
+    private final MoveList scratchMoves = new MoveList(); // reutilizada por getValidMoves
+
+    // Estado de jaque y clavadas del último color preparado con prepareLegality()
+    private int kingIndex;
+    private int checkers;
+    private long evasionLo, evasionHi; // destinos que capturan o bloquean al único atacante
+    private long kingForbiddenLo, kingForbiddenHi; // celdas detrás del rey en la línea de un jaque
+    private long pinnedLo, pinnedHi;
+    private final long[] pinRayLo = new long[HexBoard.CELL_COUNT];
+    private final long[] pinRayHi = new long[HexBoard.CELL_COUNT];
+
+    public MoveValidator(HexBoard board) {
+        this.board = board;
+    }
+
+    /**
+     * Verifica si un movimiento es válido
+     */
+    public boolean isValidMove(HexCell from, HexCell to) {
+        if (from == null || to == null) return false;
+        if (from.getPiece() == null) return false;
+        if (from == to) return false;
+
+        // No se puede mover a una celda ocupada por una pieza del mismo color
+        if (to.getPiece() != null &&
+                to.getPiece().getColor() == from.getPiece().getColor()) {
+            return false;
+        }
+
+        ChessPiece piece = from.getPiece();
+        int fromIndex = indexOf(from);
+        int toIndex = indexOf(to);
+        if (fromIndex < 0 || toIndex < 0) return false;
+
+        switch (piece.getType()) {
+            case PAWN:
+                return isValidPawnMove(fromIndex, toIndex, to, piece);
+            case KNIGHT:
+                return isValidKnightMove(fromIndex, toIndex);
+            case BISHOP:
+                return isValidBishopMove(fromIndex, toIndex);
+            case ROOK:
+                return isValidRookMove(fromIndex, toIndex);
+            case QUEEN:
+                return isValidQueenMove(fromIndex, toIndex);
+            case KING:
+                return isValidKingMove(fromIndex, toIndex);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Obtiene todos los movimientos válidos para una pieza
+     */
+    public List<HexCell> getValidMoves(HexCell from) {
+        List<HexCell> validMoves = new ArrayList<>();
+
+        if (from == null || from.getPiece() == null) return validMoves;
+
+        scratchMoves.clear();
+        generateMoves(indexOf(from), scratchMoves);
+
+        for (int i = 0; i < scratchMoves.size(); i++) {
+            int move = scratchMoves.get(i);
+            ChessPiece.PieceType promotion = Move.promotion(move);
+            // Las cuatro promociones comparten celda destino: devolverla una sola vez
+            if (promotion == null || promotion == ChessPiece.PieceType.QUEEN) {
+                validMoves.add(board.getCell(Move.to(move)));
+            }
+        }
+
+        return validMoves;
+    }
+
+    // ==================== GENERACIÓN DE MOVIMIENTOS ====================
+
+    /**
+     * Agrega a la lista todos los movimientos pseudo-legales de las piezas de un color
+     */
+    public void generateAll(ChessPiece.PieceColor color, MoveList moves) {
+        long lo = board.getColorLo(color);
+        long hi = board.getColorHi(color);
+
+        while (lo != 0) {
+            generateMoves(Long.numberOfTrailingZeros(lo), moves);
+            lo &= lo - 1;
+        }
+        while (hi != 0) {
+            generateMoves(64 + Long.numberOfTrailingZeros(hi), moves);
+            hi &= hi - 1;
+        }
+    }
+
+    /**
+     * Agrega a la lista los movimientos pseudo-legales de la pieza en la celda indicada.
+     * Solo visita los destinos alcanzables según las tablas de ataque; da los mismos
+     * destinos que {@link #isValidMove}.
+     */
+    public void generateMoves(int from, MoveList moves) {
+        ChessPiece piece = board.getCell(from).getPiece();
+        if (piece == null) return;
+
+        ChessPiece.PieceColor color = piece.getColor();
+
+        switch (piece.getType()) {
+            case PAWN:
+                generatePawnMoves(from, piece, moves);
+                break;
+            case KNIGHT:
+                addLeaperMoves(from, AttackTables.KNIGHT_TARGETS[from], color, moves);
+                break;
+            case BISHOP:
+                addRayMoves(from, AttackTables.DIAG_RAYS[from], color, moves);
+                break;
+            case ROOK:
+                addRayMoves(from, AttackTables.ORTHO_RAYS[from], color, moves);
+                break;
+            case QUEEN:
+                addRayMoves(from, AttackTables.ORTHO_RAYS[from], color, moves);
+                addRayMoves(from, AttackTables.DIAG_RAYS[from], color, moves);
+                // Saltos que no repitan un destino ya alcanzado por los rayos
+                for (int to : AttackTables.QUEEN_JUMP_TARGETS[from]) {
+                    if (!isOwnPiece(to, color) &&
+                            !isValidRookMove(from, to) && !isValidBishopMove(from, to)) {
+                        moves.add(Move.encode(from, to, captureFlag(to)));
+                    }
+                }
+                break;
+            case KING:
+                addLeaperMoves(from, AttackTables.KING_TARGETS[from], color, moves);
+                break;
+        }
+    }
+
+    private void generatePawnMoves(int from, ChessPiece pawn, MoveList moves) {
+        ChessPiece.PieceColor color = pawn.getColor();
+        int side = AttackTables.pawnSide(color);
+
+        int push = AttackTables.PAWN_PUSH[side][from];
+        if (push >= 0 && !board.isOccupied(push)) {
+            addPawnMove(from, push, 0, side, moves);
+
+            int doublePush = AttackTables.PAWN_DOUBLE_PUSH[side][from];
+            if (!pawn.hasMoved() && doublePush >= 0 && !board.isOccupied(doublePush)) {
+                addPawnMove(from, doublePush, Move.FLAG_DOUBLE_PUSH, side, moves);
+            }
+        }
+
+        int enPassant = AttackTables.PAWN_EN_PASSANT[side][from];
+        for (int to : AttackTables.KING_TARGETS[from]) {
+            if (board.isOccupied(to)) {
+                if (!isOwnPiece(to, color)) {
+                    addPawnMove(from, to, Move.FLAG_CAPTURE, side, moves);
+                }
+            } else if (to == enPassant && isEnPassantCapture(from, to, side)) {
+                addPawnMove(from, to, Move.FLAG_EN_PASSANT, side, moves);
+            }
+        }
+    }
+
+    private void addPawnMove(int from, int to, int flags, int side, MoveList moves) {
+        if (AttackTables.isPromotionCell(side, to)) {
+            for (ChessPiece.PieceType type : PROMOTION_TYPES) {
+                moves.add(Move.encode(from, to, flags, type));
+            }
+        } else {
+            moves.add(Move.encode(from, to, flags));
+        }
+    }
+
+    private void addLeaperMoves(int from, int[] targets, ChessPiece.PieceColor color, MoveList moves) {
+        for (int to : targets) {
+            if (!isOwnPiece(to, color)) {
+                moves.add(Move.encode(from, to, captureFlag(to)));
+            }
+        }
+    }
+
+    private void addRayMoves(int from, int[][] rays, ChessPiece.PieceColor color, MoveList moves) {
+        for (int[] ray : rays) {
+            for (int to : ray) {
+                if (board.isOccupied(to)) {
+                    if (!isOwnPiece(to, color)) {
+                        moves.add(Move.encode(from, to, Move.FLAG_CAPTURE));
+                    }
+                    break;
+                }
+                moves.add(Move.encode(from, to, 0));
+            }
+        }
+    }
+
+    private boolean isOwnPiece(int index, ChessPiece.PieceColor color) {
+        return Bitboard.isSet(board.getColorLo(color), board.getColorHi(color), index);
+    }
+
+    private int captureFlag(int index) {
+        return board.isOccupied(index) ? Move.FLAG_CAPTURE : 0;
+    }
+
+    // ==================== MOVIMIENTOS LEGALES ====================
+
+    /**
+     * Verifica si un movimiento es válido y además no deja al propio rey en jaque
+     */
+    public boolean isLegalMove(HexCell from, HexCell to) {
+        if (!isValidMove(from, to)) return false;
+
+        int toIndex = indexOf(to);
+        scratchMoves.clear();
+        generateLegalMoves(indexOf(from), scratchMoves);
+        for (int i = 0; i < scratchMoves.size(); i++) {
+            if (Move.to(scratchMoves.get(i)) == toIndex) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Obtiene los movimientos de una pieza que no dejan a su rey en jaque
+     */
+    public List<HexCell> getLegalMoves(HexCell from) {
+        List<HexCell> legalMoves = new ArrayList<>();
+
+        if (from == null || from.getPiece() == null) return legalMoves;
+
+        scratchMoves.clear();
+        generateLegalMoves(indexOf(from), scratchMoves);
+
+        for (int i = 0; i < scratchMoves.size(); i++) {
+            int move = scratchMoves.get(i);
+            ChessPiece.PieceType promotion = Move.promotion(move);
+            if (promotion == null || promotion == ChessPiece.PieceType.QUEEN) {
+                legalMoves.add(board.getCell(Move.to(move)));
+            }
+        }
+
+        return legalMoves;
+    }
+
+    /**
+     * Movimiento legal codificado entre dos celdas, listo para HexBoard.makeMove,
+     * o Move.NONE si no existe. Las promociones se resuelven a Dama.
+     */
+    public int findLegalMove(HexCell from, HexCell to) {
+        if (from == null || to == null || from.getPiece() == null) return Move.NONE;
+
+        int toIndex = indexOf(to);
+        scratchMoves.clear();
+        generateLegalMoves(indexOf(from), scratchMoves);
+        for (int i = 0; i < scratchMoves.size(); i++) {
+            int move = scratchMoves.get(i);
+            ChessPiece.PieceType promotion = Move.promotion(move);
+            if (Move.to(move) == toIndex &&
+                    (promotion == null || promotion == ChessPiece.PieceType.QUEEN)) {
+                return move;
+            }
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Agrega a la lista todos los movimientos legales de un color
+     */
+    public void generateLegalMoves(ChessPiece.PieceColor color, MoveList moves) {
+        int start = moves.size();
+        generateAll(color, moves);
+        prepareLegality(color);
+        filterLegal(color, start, moves);
+    }
+
+    /**
+     * Agrega a la lista los movimientos legales de la pieza en la celda indicada
+     */
+    public void generateLegalMoves(int from, MoveList moves) {
+        ChessPiece piece = board.getCell(from).getPiece();
+        if (piece == null) return;
+
+        int start = moves.size();
+        generateMoves(from, moves);
+        prepareLegality(piece.getColor());
+        filterLegal(piece.getColor(), start, moves);
+    }
+
+    public boolean isInCheck(ChessPiece.PieceColor color) {
+        int king = board.getKingIndex(color);
+        return king >= 0 && board.getEnemyAttackCount(color, king) > 0;
+    }
+
+    /**
+     * Estado de la partida para el color que debe mover: sin movimientos legales es
+     * jaque mate si está en jaque, o ahogado si no lo está
+     */
+    public GameStatus getGameStatus(ChessPiece.PieceColor toMove) {
+        scratchMoves.clear();
+        generateLegalMoves(toMove, scratchMoves);
+        if (!scratchMoves.isEmpty()) return GameStatus.PLAYING;
+
+        return isInCheck(toMove) ? GameStatus.CHECKMATE : GameStatus.STALEMATE;
+    }
+
+    private void filterLegal(ChessPiece.PieceColor color, int start, MoveList moves) {
+        int kept = start;
+        for (int i = start; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (isLegal(move, color)) {
+                moves.set(kept++, move);
+            }
+        }
+        moves.truncate(kept);
+    }
+
+    private boolean isLegal(int move, ChessPiece.PieceColor color) {
+        if (kingIndex < 0) return true;
+
+        int from = Move.from(move);
+        int to = Move.to(move);
+
+        if (from == kingIndex) {
+            // Los mapas de ataque ya cuentan los defensores; falta la línea que el rey tapa
+            return board.getEnemyAttackCount(color, to) == 0 &&
+                    !Bitboard.isSet(kingForbiddenLo, kingForbiddenHi, to);
+        }
+        if (Move.isEnPassant(move)) {
+            return isLegalEnPassant(move, color);
+        }
+        if (checkers >= 2) return false;
+        if (checkers == 1 && !Bitboard.isSet(evasionLo, evasionHi, to)) return false;
+
+        return !Bitboard.isSet(pinnedLo, pinnedHi, from) ||
+                Bitboard.isSet(pinRayLo[from], pinRayHi[from], to);
+    }
+
+    /**
+     * La captura al paso quita dos piezas de una línea; se prueba en el tablero y se deshace
+     */
+    private boolean isLegalEnPassant(int move, ChessPiece.PieceColor color) {
+        board.makeMove(move);
+        boolean legal = board.getEnemyAttackCount(color, kingIndex) == 0;
+        board.unmakeMove();
+        return legal;
+    }
+
+    /**
+     * Calcula atacantes del rey, celdas de evasión y piezas clavadas para un color.
+     * Solo recorre las líneas y saltos que salen del rey; el jaque en sí se lee de los
+     * mapas de ataque incrementales de HexBoard.
+     */
+    private void prepareLegality(ChessPiece.PieceColor color) {
+        kingIndex = board.getKingIndex(color);
+        checkers = 0;
+        evasionLo = -1L;
+        evasionHi = -1L;
+        kingForbiddenLo = 0;
+        kingForbiddenHi = 0;
+        pinnedLo = 0;
+        pinnedHi = 0;
+
+        if (kingIndex < 0) return;
+
+        boolean inCheck = board.getEnemyAttackCount(color, kingIndex) > 0;
+        long rayCheckersLo = 0, rayCheckersHi = 0;
+
+        for (int d = 0; d < 6; d++) {
+            for (int diagonal = 0; diagonal < 2; diagonal++) {
+                int[][] rays = diagonal == 0 ? AttackTables.ORTHO_RAYS[kingIndex] : AttackTables.DIAG_RAYS[kingIndex];
+                int[] ray = rays[d];
+
+                long maskLo = 0, maskHi = 0;
+                int first = -1;
+                for (int cell : ray) {
+                    maskLo |= Bitboard.bitLo(cell);
+                    maskHi |= Bitboard.bitHi(cell);
+                    if (!board.isOccupied(cell)) continue;
+
+                    ChessPiece piece = board.getCell(cell).getPiece();
+                    boolean slider = diagonal == 0 ? HexBoard.slidesOrthogonally(piece) : HexBoard.slidesDiagonally(piece);
+
+                    if (first < 0) {
+                        first = cell;
+                        if (piece.getColor() != color) {
+                            if (slider) {
+                                checkers++;
+                                evasionLo &= maskLo;
+                                evasionHi &= maskHi;
+                                rayCheckersLo |= Bitboard.bitLo(cell);
+                                rayCheckersHi |= Bitboard.bitHi(cell);
+                                int[] behind = rays[(d + 3) % 6];
+                                if (behind.length > 0) {
+                                    kingForbiddenLo |= Bitboard.bitLo(behind[0]);
+                                    kingForbiddenHi |= Bitboard.bitHi(behind[0]);
+                                }
+                            }
+                            break;
+                        }
+                    } else {
+                        // Segunda pieza: si es un deslizante enemigo, la primera está clavada
+                        if (piece.getColor() != color && slider) {
+                            pinnedLo |= Bitboard.bitLo(first);
+                            pinnedHi |= Bitboard.bitHi(first);
+                            pinRayLo[first] = maskLo;
+                            pinRayHi[first] = maskHi;
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        if (!inCheck) return;
+
+        // Atacantes que no se pueden bloquear: caballos, peones, rey y saltos de la Dama
+        for (int cell : AttackTables.KNIGHT_TARGETS[kingIndex]) {
+            if (isEnemyPiece(cell, color, ChessPiece.PieceType.KNIGHT)) addLeaperChecker(cell);
+        }
+        for (int cell : AttackTables.KING_TARGETS[kingIndex]) {
+            if (isEnemyPiece(cell, color, ChessPiece.PieceType.PAWN) ||
+                    isEnemyPiece(cell, color, ChessPiece.PieceType.KING)) {
+                addLeaperChecker(cell);
+            }
+        }
+        for (int cell : AttackTables.QUEEN_JUMP_TARGETS[kingIndex]) {
+            if (isEnemyPiece(cell, color, ChessPiece.PieceType.QUEEN)) {
+                if (Bitboard.isSet(rayCheckersLo, rayCheckersHi, cell)) {
+                    // Ya contada por su rayo, pero el salto no se puede bloquear
+                    evasionLo &= Bitboard.bitLo(cell);
+                    evasionHi &= Bitboard.bitHi(cell);
+                } else {
+                    addLeaperChecker(cell);
+                }
+            }
+        }
+    }
+
+    private void addLeaperChecker(int cell) {
+        checkers++;
+        evasionLo &= Bitboard.bitLo(cell);
+        evasionHi &= Bitboard.bitHi(cell);
+    }
+
+    private boolean isEnemyPiece(int index, ChessPiece.PieceColor color, ChessPiece.PieceType type) {
+        ChessPiece piece = board.getCell(index).getPiece();
+        return piece != null && piece.getColor() != color && piece.getType() == type;
+    }
+
+    // ==================== PEÓN HEXAGONAL GLIŃSKI CORREGIDO ====================
+    private boolean isValidPawnMove(int from, int to, HexCell toCell, ChessPiece pawn) {
+        int side = AttackTables.pawnSide(pawn.getColor());
+
+        // CAPTURAS (Ortogonales según Wikipedia): cualquier celda adyacente
+        if (toCell.getPiece() != null || isEnPassantCapture(from, to, side)) {
+            return Bitboard.isSet(AttackTables.KING_LO[from], AttackTables.KING_HI[from], to);
+        }
+
+        // Movimiento normal (sin captura): blancas hacia el norte, negras hacia el sur
+        if (to == AttackTables.PAWN_PUSH[side][from]) return true;
+
+        // Movimiento doble desde posición inicial
+        if (!pawn.hasMoved() && to == AttackTables.PAWN_DOUBLE_PUSH[side][from]) {
+            return !board.isOccupied(AttackTables.PAWN_PUSH[side][from]);
+        }
+
+        return false;
+    }
+
+    // ==================== CAPTURA AL PASO ====================
+    private boolean isEnPassantCapture(int from, int to, int side) {
+        int enPassant = board.getEnPassantIndex();
+        return enPassant >= 0 && to == enPassant && to == AttackTables.PAWN_EN_PASSANT[side][from];
+    }
+
+    // La celda de captura al paso vive en el tablero para que makeMove/unmakeMove la mantengan
+    public void setEnPassantTarget(HexCell target) {
+        board.setEnPassantIndex(target == null ? -1 : indexOf(target));
+    }
+
+    public HexCell getEnPassantTarget() {
+        int enPassant = board.getEnPassantIndex();
+        return enPassant >= 0 ? board.getCell(enPassant) : null;
+    }
+
+    // ==================== VERIFICACIÓN DE PROMOCIÓN ====================
+    public boolean shouldPromotePawn(HexCell pawnCell) {
+        if (pawnCell.getPiece() == null || pawnCell.getPiece().getType() != ChessPiece.PieceType.PAWN) {
+            return false;
+        }
+
+        boolean isWhite = (pawnCell.getPiece().getColor() == ChessPiece.PieceColor.WHITE);
+        int r = pawnCell.getR();
+
+        // Peón blanco llega a la fila r = -5 (fila 11 en notación de Gliński)
+        // Peón negro llega a la fila r = 5 (fila 1 en notación de Gliński)
+        return (isWhite && r == -5) || (!isWhite && r == 5);
+    }
+
+    // ==================== CABALLO HEXAGONAL GLIŃSKI CORRECTO ====================
+    // 2 pasos en una dirección + 1 paso en dirección adyacente (12 destinos)
+    private boolean isValidKnightMove(int from, int to) {
+        return Bitboard.isSet(AttackTables.KNIGHT_LO[from], AttackTables.KNIGHT_HI[from], to);
+    }
+
+    // ==================== ALFIL HEXAGONAL ====================
+    private boolean isValidBishopMove(int from, int to) {
+        int direction = AttackTables.DIAG_DIRECTION_BETWEEN[from * HexBoard.CELL_COUNT + to];
+        if (direction < 0) return false;
+
+        return isRayClear(AttackTables.DIAG_RAYS[from][direction], to);
+    }
+
+    // ==================== TORRE HEXAGONAL ====================
+    private boolean isValidRookMove(int from, int to) {
+        int direction = AttackTables.ORTHO_DIRECTION_BETWEEN[from * HexBoard.CELL_COUNT + to];
+        if (direction < 0) return false;
+
+        return isRayClear(AttackTables.ORTHO_RAYS[from][direction], to);
+    }
+
+    // ==================== DAMA/REINA HEXAGONAL GLIŃSKI COMPLETA ====================
+    private boolean isValidQueenMove(int from, int to) {
+        // Movimientos básicos: Torre + Alfil
+        if (isValidRookMove(from, to) || isValidBishopMove(from, to)) {
+            return true;
+        }
+
+        // Movimientos de salto especial de la Dama
+        return isValidQueenJump(from, to);
+    }
+
+    // ==================== SALTO ESPECIAL DE LA DAMA ====================
+    // Desde (0,0) salta a: (-2,-2), (2,-4), (-4,2), (-2,4), (2,2), (4,-2), (2,-2), (-2,2)
+    private boolean isValidQueenJump(int from, int to) {
+        return Bitboard.isSet(AttackTables.QUEEN_JUMP_LO[from], AttackTables.QUEEN_JUMP_HI[from], to);
+    }
+
+    // ==================== REY HEXAGONAL ====================
+    // El rey se mueve una casilla en cualquier dirección ortogonal
+    private boolean isValidKingMove(int from, int to) {
+        return Bitboard.isSet(AttackTables.KING_LO[from], AttackTables.KING_HI[from], to);
+    }
+
+    // ==================== UTILIDADES ====================
+
+    /**
+     * Verifica que las celdas del rayo anteriores al destino estén vacías
+     */
+    private boolean isRayClear(int[] ray, int to) {
+        for (int cell : ray) {
+            if (cell == to) return true;
+            if (board.isOccupied(cell)) return false;
+        }
+        return false;
+    }
+
+    private int indexOf(HexCell cell) {
+        int index = cell.getIndex();
+        return index >= 0 ? index : HexBoard.indexOf(cell.getQ(), cell.getR());
+    }
+}
@@ -0,0 +1,116 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Acceso a la biblioteca nativa "hexagonalchess" (app/src/main/cpp): generación de
+ * movimientos legales, perft, evaluación y búsqueda alfa-beta en C++.
+ *
+ * Cada llamada cruza JNI una sola vez con la posición completa; el árbol se recorre
+ * del lado nativo. Si la biblioteca no se puede cargar (por ejemplo en la JVM de
+ * escritorio sin compilarla), todos los métodos usan MoveValidator/Perft/SearchEngine.
+ *
+ * Posición nativa: un byte por celda (índice denso de HexBoard) con
+ * tipo (ordinal + 1) | color << 3 | movida << 4, o 0 si está vacía.
+ */
+public final class NativeMoveGenerator {
+    private static final int COLOR_SHIFT = 3;
+    private static final int MOVED = 1 << 4;
+
+    private static final boolean AVAILABLE = loadLibrary();
+
+    private NativeMoveGenerator() {}
+
+    private static boolean loadLibrary() {
+        try {
+            System.loadLibrary("hexagonalchess");
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            return false;
+        }
+    }
+
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * Agrega a la lista los movimientos legales del color que mueve; devuelve cuántos agregó
+     */
+    public static int generateLegalMoves(HexBoard board, MoveList moves) {
+        int start = moves.size();
+        if (!AVAILABLE) {
+            new MoveValidator(board).generateLegalMoves(board.getSideToMove(), moves);
+            return moves.size() - start;
+        }
+
+        int[] buffer = new int[MoveList.DEFAULT_CAPACITY];
+        int count = nativeGenerateLegalMoves(encode(board), sideOf(board), board.getEnPassantIndex(), buffer);
+        for (int i = 0; i < count; i++) {
+            moves.add(buffer[i]);
+        }
+        return count;
+    }
+
+    public static long perft(HexBoard board, int depth) {
+        if (!AVAILABLE) {
+            HexBoard copy = new HexBoard();
+            copy.copyFrom(board);
+            return new Perft(copy).perft(depth);
+        }
+        return nativePerft(encode(board), sideOf(board), board.getEnPassantIndex(), depth);
+    }
+
+    /**
+     * Igual que {@link Evaluator#evaluate(HexBoard)}
+     */
+    public static int evaluate(HexBoard board) {
+        if (!AVAILABLE) return Evaluator.evaluate(board);
+        return nativeEvaluate(encode(board), sideOf(board), board.getEnPassantIndex());
+    }
+
+    /**
+     * Búsqueda a profundidad fija, sin límite de tiempo ni tabla de transposición.
+     * La versión nativa tampoco detecta repeticiones: no conoce la historia de la partida.
+     */
+    public static SearchEngine.SearchResult search(HexBoard board, int depth) {
+        if (!AVAILABLE) {
+            HexBoard copy = new HexBoard();
+            copy.copyFrom(board);
+            return new SearchEngine(copy).search(TimeUnit.DAYS.toMillis(1), depth);
+        }
+
+        long start = System.nanoTime();
+        long[] result = new long[3];
+        nativeSearch(encode(board), sideOf(board), board.getEnPassantIndex(), depth, result);
+        long elapsed = (System.nanoTime() - start) / 1_000_000L;
+        return new SearchEngine.SearchResult((int) result[0], (int) result[1], depth, result[2], elapsed);
+    }
+
+    static byte[] encode(HexBoard board) {
+        byte[] cells = new byte[HexBoard.CELL_COUNT];
+        for (int i = 0; i < HexBoard.CELL_COUNT; i++) {
+            ChessPiece piece = board.getCell(i).getPiece();
+            if (piece == null) continue;
+
+            int code = piece.getType().ordinal() + 1;
+            // Las grises juegan del lado de las negras, como en las tablas de peón
+            if (piece.getColor() != ChessPiece.PieceColor.WHITE) code |= 1 << COLOR_SHIFT;
+            if (piece.hasMoved()) code |= MOVED;
+            cells[i] = (byte) code;
+        }
+        return cells;
+    }
+
+    private static int sideOf(HexBoard board) {
+        return AttackTables.pawnSide(board.getSideToMove());
+    }
+
+    private static native int nativeGenerateLegalMoves(byte[] cells, int side, int enPassant, int[] moves);
+
+    private static native long nativePerft(byte[] cells, int side, int enPassant, int depth);
+
+    private static native int nativeEvaluate(byte[] cells, int side, int enPassant);
+
+    private static native boolean nativeSearch(byte[] cells, int side, int enPassant, int depth, long[] result);
+}
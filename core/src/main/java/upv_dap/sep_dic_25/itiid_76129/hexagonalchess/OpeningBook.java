@@ -0,0 +1,154 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Random;
+
+/**
+ * Libro de aperturas binario leído directamente de un buffer mapeado en memoria:
+ * no se analiza ni se copia nada al heap, solo se hace búsqueda binaria sobre el archivo.
+ *
+ * Formato (big-endian): cabecera de 16 bytes (magia "GBK1", versión, número de registros,
+ * reservado) y registros de 16 bytes ordenados por clave Zobrist:
+ * clave (long), movimiento {@link Move} (int), peso (unsigned short), partidas (unsigned short).
+ * Los registros de una misma clave van de mayor a menor peso. Se genera con {@link OpeningBookBuilder}.
+ */
+public final class OpeningBook {
+    public static final int MAGIC = 0x47424B31; // "GBK1"
+    public static final int VERSION = 1;
+    static final int HEADER_BYTES = 16;
+    static final int RECORD_BYTES = 16;
+
+    private final ByteBuffer buffer;
+    private final int size;
+
+    OpeningBook(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+            throw new IOException("No es un libro de aperturas");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Versión de libro no soportada: " + buffer.getInt(4));
+        }
+        size = buffer.getInt(8);
+        if (size < 0 || (long) HEADER_BYTES + (long) size * RECORD_BYTES > buffer.capacity()) {
+            throw new IOException("Libro de aperturas truncado");
+        }
+        this.buffer = buffer;
+    }
+
+    public static OpeningBook open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return open(raf.getChannel(), 0, raf.length());
+        }
+    }
+
+    /**
+     * Mapea una región de un archivo (p. ej. un asset sin comprimir dentro del APK).
+     * El mapeo sigue siendo válido después de cerrar el canal.
+     */
+    public static OpeningBook open(FileChannel channel, long offset, long length) throws IOException {
+        return new OpeningBook(channel.map(FileChannel.MapMode.READ_ONLY, offset, length));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // ==================== CONSULTAS ====================
+
+    /**
+     * Agrega a la lista los movimientos del libro para la clave (de mayor a menor peso)
+     * y devuelve cuántos agregó. Si weights no es null, recibe el peso de cada uno.
+     */
+    public int probe(long key, MoveList moves, int[] weights) {
+        int count = 0;
+        for (int i = lowerBound(key); i < size && keyAt(i) == key; i++) {
+            if (weights != null && count < weights.length) weights[count] = weightAt(i);
+            moves.add(moveAt(i));
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Movimiento del libro con más peso para la posición, o Move.NONE.
+     * Solo devuelve movimientos legales, por si dos posiciones comparten clave.
+     */
+    public int bestMove(HexBoard board) {
+        MoveList legal = legalMoves(board);
+        for (int i = lowerBound(board.getHash()); i < size && keyAt(i) == board.getHash(); i++) {
+            if (contains(legal, moveAt(i))) return moveAt(i);
+        }
+        return Move.NONE;
+    }
+
+    /**
+     * Movimiento del libro elegido al azar en proporción a su peso, o Move.NONE
+     */
+    public int pickMove(HexBoard board, Random random) {
+        long key = board.getHash();
+        int first = lowerBound(key);
+        MoveList legal = legalMoves(board);
+
+        long total = 0;
+        for (int i = first; i < size && keyAt(i) == key; i++) {
+            if (contains(legal, moveAt(i))) total += weightAt(i);
+        }
+        if (total == 0) return bestMove(board);
+
+        long target = (long) (random.nextDouble() * total);
+        for (int i = first; i < size && keyAt(i) == key; i++) {
+            if (!contains(legal, moveAt(i))) continue;
+            target -= weightAt(i);
+            if (target < 0) return moveAt(i);
+        }
+        return Move.NONE;
+    }
+
+    // ==================== REGISTROS ====================
+
+    /**
+     * Primer registro con clave >= key (orden con signo, igual que el constructor del libro)
+     */
+    private int lowerBound(long key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keyAt(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private long keyAt(int i) {
+        return buffer.getLong(HEADER_BYTES + i * RECORD_BYTES);
+    }
+
+    private int moveAt(int i) {
+        return buffer.getInt(HEADER_BYTES + i * RECORD_BYTES + 8);
+    }
+
+    private int weightAt(int i) {
+        return buffer.getShort(HEADER_BYTES + i * RECORD_BYTES + 12) & 0xFFFF;
+    }
+
+    private static MoveList legalMoves(HexBoard board) {
+        MoveList legal = new MoveList();
+        new MoveValidator(board).generateLegalMoves(board.getSideToMove(), legal);
+        return legal;
+    }
+
+    private static boolean contains(MoveList moves, int move) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move) return true;
+        }
+        return false;
+    }
+}
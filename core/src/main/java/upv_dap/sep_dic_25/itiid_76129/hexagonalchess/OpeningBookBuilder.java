@@ -0,0 +1,184 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compila un {@link OpeningBook} a partir de partidas registradas.
+ *
+ * Cada partida se reproduce desde la posición inicial hasta maxPly jugadas; por cada
+ * (posición, movimiento) se cuentan las partidas y se suma un peso según el resultado
+ * para el color que movió: 2 si ganó, 1 si fue tablas o no se sabe, 0 si perdió.
+ *
+ * Formato de texto (una partida por línea): movimientos como los imprime Move.toString,
+ * separados por espacios, con un resultado final opcional "1-0", "0-1" o "1/2-1/2".
+ * Ejemplo: "0,4->0,2 0,-4->0,-2 ... 1-0"
+ */
+public class OpeningBookBuilder {
+    public static final int DEFAULT_MAX_PLY = 20;
+
+    private final int maxPly;
+    // clave Zobrist -> movimiento -> {peso, partidas}
+    private final Map<Long, Map<Integer, long[]>> entries = new HashMap<>();
+    private int games;
+
+    public OpeningBookBuilder() {
+        this(DEFAULT_MAX_PLY);
+    }
+
+    public OpeningBookBuilder(int maxPly) {
+        this.maxPly = maxPly;
+    }
+
+    /**
+     * Agrega una partida; winner es null si fue tablas o el resultado no se conoce
+     */
+    public void addGame(int[] moves, ChessPiece.PieceColor winner) {
+        HexBoard board = new HexBoard();
+        MoveValidator validator = new MoveValidator(board);
+        MoveList legal = new MoveList();
+
+        for (int ply = 0; ply < Math.min(maxPly, moves.length); ply++) {
+            int move = moves[ply];
+            legal.clear();
+            validator.generateLegalMoves(board.getSideToMove(), legal);
+            if (!contains(legal, move)) {
+                throw new IllegalArgumentException("Movimiento ilegal en la jugada " + (ply + 1) + ": " +
+                        Move.toString(move));
+            }
+
+            int weight = winner == null ? 1 : winner == board.getSideToMove() ? 2 : 0;
+            long[] stats = entries.computeIfAbsent(board.getHash(), k -> new HashMap<>())
+                    .computeIfAbsent(move, k -> new long[2]);
+            stats[0] += weight;
+            stats[1]++;
+
+            board.makeMove(move);
+        }
+        games++;
+    }
+
+    /**
+     * Agrega una partida en el formato de texto descrito en la documentación de la clase
+     */
+    public void addGame(String line) {
+        String[] tokens = line.trim().split("\\s+");
+        ChessPiece.PieceColor winner = null;
+        int count = tokens.length;
+        String last = tokens[count - 1];
+        if (last.equals("1-0") || last.equals("0-1") || last.equals("1/2-1/2") || last.equals("*")) {
+            if (last.equals("1-0")) winner = ChessPiece.PieceColor.WHITE;
+            if (last.equals("0-1")) winner = ChessPiece.PieceColor.BLACK;
+            count--;
+        }
+
+        // Los movimientos de texto se resuelven contra los legales de cada posición
+        HexBoard board = new HexBoard();
+        MoveValidator validator = new MoveValidator(board);
+        MoveList legal = new MoveList();
+        int[] moves = new int[Math.min(count, maxPly)];
+        for (int ply = 0; ply < moves.length; ply++) {
+            legal.clear();
+            validator.generateLegalMoves(board.getSideToMove(), legal);
+            moves[ply] = Move.NONE;
+            for (int i = 0; i < legal.size(); i++) {
+                if (Move.toString(legal.get(i)).equals(tokens[ply])) {
+                    moves[ply] = legal.get(i);
+                    break;
+                }
+            }
+            if (moves[ply] == Move.NONE) {
+                throw new IllegalArgumentException("Movimiento ilegal en la jugada " + (ply + 1) + ": " + tokens[ply]);
+            }
+            board.makeMove(moves[ply]);
+        }
+
+        addGame(moves, winner);
+    }
+
+    public int getGameCount() {
+        return games;
+    }
+
+    /**
+     * Escribe el libro: registros ordenados por clave y, dentro de cada clave, por peso
+     */
+    public void write(OutputStream output) throws IOException {
+        List<long[]> records = new ArrayList<>(); // {clave, movimiento, peso, partidas}
+        for (Map.Entry<Long, Map<Integer, long[]>> position : entries.entrySet()) {
+            for (Map.Entry<Integer, long[]> move : position.getValue().entrySet()) {
+                records.add(new long[]{position.getKey(), move.getKey(), move.getValue()[0], move.getValue()[1]});
+            }
+        }
+        records.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) :
+                a[2] != b[2] ? Long.compare(b[2], a[2]) : Long.compare(b[3], a[3]));
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(output));
+        out.writeInt(OpeningBook.MAGIC);
+        out.writeInt(OpeningBook.VERSION);
+        out.writeInt(records.size());
+        out.writeInt(0);
+        for (long[] record : records) {
+            out.writeLong(record[0]);
+            out.writeInt((int) record[1]);
+            out.writeShort((int) Math.min(record[2], 0xFFFF));
+            out.writeShort((int) Math.min(record[3], 0xFFFF));
+        }
+        out.flush();
+    }
+
+    public void write(File file) throws IOException {
+        try (OutputStream output = new FileOutputStream(file)) {
+            write(output);
+        }
+    }
+
+    private static boolean contains(MoveList moves, int move) {
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == move) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Uso: java OpeningBookBuilder partidas.txt libro.book [maxPly]
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: OpeningBookBuilder <partidas.txt> <libro.book> [maxPly]");
+            System.exit(1);
+        }
+        OpeningBookBuilder builder = new OpeningBookBuilder(
+                args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_MAX_PLY);
+
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(args[0]), StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty() || line.startsWith("#")) continue;
+                try {
+                    builder.addGame(line);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Línea " + lineNumber + " ignorada: " + e.getMessage());
+                }
+            }
+        }
+
+        builder.write(new File(args[1]));
+        System.out.println(builder.getGameCount() + " partidas -> " + args[1]);
+    }
+}
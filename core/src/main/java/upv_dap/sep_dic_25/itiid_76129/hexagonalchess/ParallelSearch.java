@@ -0,0 +1,103 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+/**
+ * Búsqueda en paralelo al estilo Lazy SMP: N hilos buscan la misma posición, cada uno
+ * sobre su propia copia del tablero, y solo se comunican a través de una
+ * {@link TranspositionTable} compartida. El hilo principal decide el movimiento;
+ * los auxiliares llenan la tabla con resultados que el principal aprovecha.
+ */
+public class ParallelSearch {
+    private final TranspositionTable table;
+    private final HexBoard[] boards;
+    private final SearchEngine[] engines;
+    private final Thread[] helpers;
+
+    public ParallelSearch(int threads, int tableMegabytes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un hilo: " + threads);
+        }
+        table = new TranspositionTable(tableMegabytes);
+        boards = new HexBoard[threads];
+        engines = new SearchEngine[threads];
+        helpers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            boards[i] = new HexBoard();
+            engines[i] = new SearchEngine(boards[i], table, i);
+        }
+    }
+
+    /**
+     * Busca el mejor movimiento para la posición dada (que no se modifica).
+     * Bloquea el hilo que llama, que hace de hilo principal. Los nodos del resultado
+     * suman los de todos los hilos.
+     */
+    public SearchEngine.SearchResult search(HexBoard position, long timeMillis, int maxDepth) {
+        for (HexBoard board : boards) {
+            board.copyFrom(position);
+        }
+
+        for (int i = 1; i < engines.length; i++) {
+            SearchEngine engine = engines[i];
+            helpers[i] = new Thread(() -> engine.search(timeMillis, SearchEngine.MAX_PLY), "LazySMP-" + i);
+            helpers[i].setDaemon(true);
+            helpers[i].start();
+        }
+
+        SearchEngine.SearchResult main = engines[0].search(timeMillis, maxDepth);
+
+        // Al terminar el principal, los auxiliares ya no aportan nada
+        long nodes = main.nodes;
+        for (int i = 1; i < engines.length; i++) {
+            helpers[i].interrupt();
+            engines[i].stop();
+            joinUninterruptibly(helpers[i]);
+            helpers[i] = null;
+            nodes += engines[i].getNodes();
+        }
+
+        return new SearchEngine.SearchResult(main.bestMove, main.score, main.depth, nodes, main.elapsedMillis);
+    }
+
+    /**
+     * Pide a todos los hilos que terminen; search() devuelve en cuanto lo hace el principal
+     */
+    public void stop() {
+        for (SearchEngine engine : engines) {
+            engine.stop();
+        }
+    }
+
+    public void setListener(SearchEngine.Listener listener) {
+        engines[0].setListener(listener);
+    }
+
+    public void setTablebase(EndgameTablebase tablebase) {
+        for (SearchEngine engine : engines) {
+            engine.setTablebase(tablebase);
+        }
+    }
+
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    public int getThreadCount() {
+        return engines.length;
+    }
+
+    // Si se cancela al hilo principal, igual hay que esperar a los auxiliares antes de reutilizar sus tableros
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                thread.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
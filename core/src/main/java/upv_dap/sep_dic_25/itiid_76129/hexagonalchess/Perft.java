@@ -0,0 +1,141 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.Locale;
+
+/**
+ * Perft: cuenta las hojas del árbol de movimientos legales hasta una profundidad.
+ * Sirve como oráculo de corrección del generador de MoveValidator y como medida
+ * de velocidad (nodos/segundo).
+ *
+ * Uso: java Perft [profundidad] [divide] ["posición"]
+ * La posición es una lista de piezas "Tc@q,r" (T = K Q R B N P, c = w/b) separadas por
+ * espacios, con un "w" o "b" final opcional para el turno. Ejemplo: "Kw@-1,5 Kb@1,-5 Qw@1,4 b"
+ */
+public class Perft {
+    private static final int MAX_DEPTH = 32;
+
+    private final HexBoard board;
+    private final MoveValidator validator;
+    private final MoveList[] moveLists = new MoveList[MAX_DEPTH];
+
+    public Perft(HexBoard board) {
+        this.board = board;
+        this.validator = new MoveValidator(board);
+        for (int i = 0; i < MAX_DEPTH; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    /**
+     * Número de posiciones hoja a la profundidad indicada desde la posición actual
+     */
+    public long perft(int depth) {
+        if (depth == 0) return 1;
+
+        MoveList moves = moveLists[depth];
+        moves.clear();
+        validator.generateLegalMoves(board.getSideToMove(), moves);
+
+        // En el último nivel basta con contar los movimientos legales
+        if (depth == 1) return moves.size();
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            board.makeMove(moves.get(i));
+            nodes += perft(depth - 1);
+            board.unmakeMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Perft separado por movimiento raíz; imprime cada movimiento con su cuenta
+     */
+    public long divide(int depth) {
+        MoveList moves = new MoveList();
+        validator.generateLegalMoves(board.getSideToMove(), moves);
+
+        long total = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            long nodes = perft(depth - 1);
+            board.unmakeMove();
+
+            System.out.println(Move.toString(move) + ": " + nodes);
+            total += nodes;
+        }
+        System.out.println("Movimientos: " + moves.size() + "  Nodos: " + total);
+        return total;
+    }
+
+    /**
+     * Coloca en el tablero la posición descrita (ver formato en la documentación de la clase)
+     */
+    public static void setupPosition(HexBoard board, String position) {
+        board.clear();
+        HexBoard initial = new HexBoard();
+
+        for (String token : position.trim().split("\\s+")) {
+            if (token.equals("w") || token.equals("b")) {
+                board.setSideToMove(token.equals("w") ? ChessPiece.PieceColor.WHITE : ChessPiece.PieceColor.BLACK);
+                continue;
+            }
+
+            int at = token.indexOf('@');
+            String[] coords = token.substring(at + 1).split(",");
+            HexCell cell = board.getCell(Integer.parseInt(coords[0]), Integer.parseInt(coords[1]));
+            if (at != 2 || cell == null) {
+                throw new IllegalArgumentException("Pieza inválida: " + token);
+            }
+
+            ChessPiece piece = new ChessPiece(parseType(token.charAt(0)),
+                    token.charAt(1) == 'w' ? ChessPiece.PieceColor.WHITE : ChessPiece.PieceColor.BLACK);
+            // Un peón fuera de su casilla inicial ya no puede avanzar dos
+            piece.setMoved(piece.getType() == ChessPiece.PieceType.PAWN && !isPawnStart(initial, cell, piece.getColor()));
+            cell.setPiece(piece);
+        }
+    }
+
+    private static boolean isPawnStart(HexBoard initial, HexCell cell, ChessPiece.PieceColor color) {
+        ChessPiece piece = initial.getCell(cell.getQ(), cell.getR()).getPiece();
+        return piece != null && piece.getType() == ChessPiece.PieceType.PAWN && piece.getColor() == color;
+    }
+
+    private static ChessPiece.PieceType parseType(char letter) {
+        switch (letter) {
+            case 'K': return ChessPiece.PieceType.KING;
+            case 'Q': return ChessPiece.PieceType.QUEEN;
+            case 'R': return ChessPiece.PieceType.ROOK;
+            case 'B': return ChessPiece.PieceType.BISHOP;
+            case 'N': return ChessPiece.PieceType.KNIGHT;
+            case 'P': return ChessPiece.PieceType.PAWN;
+            default: throw new IllegalArgumentException("Tipo de pieza inválido: " + letter);
+        }
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        boolean divide = args.length > 1 && args[1].equals("divide");
+        String position = args.length > 2 ? args[2] : (args.length > 1 && !divide ? args[1] : null);
+
+        HexBoard board = new HexBoard();
+        if (position != null) {
+            setupPosition(board, position);
+        }
+        Perft perft = new Perft(board);
+
+        if (divide) {
+            perft.divide(depth);
+            return;
+        }
+
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            long nodes = perft.perft(d);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(String.format(Locale.US, "perft(%d) = %d  %.3f s  %.0f nodos/s",
+                    d, nodes, seconds, nodes / Math.max(seconds, 1e-9)));
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Análisis en segundo plano mientras se espera la jugada del rival: busca la mejor
+ * jugada de la posición actual y, después, la mejor respuesta a cada una de las
+ * réplicas más probables del rival, con tiempos que se duplican en cada ronda.
+ *
+ * Los resultados quedan en una caché de pistas indexada por la clave Zobrist, de modo
+ * que cuando llega la jugada del rival la respuesta (o la pista para el jugador) ya
+ * está calculada. La tabla de transposición y la caché se conservan entre turnos.
+ */
+public class PonderService {
+    /** Réplicas del rival que se analizan, ordenadas de más a menos probable */
+    public static final int DEFAULT_REPLIES = 6;
+    private static final int CACHE_SIZE = 4096;
+    private static final long FIRST_SLICE_MS = 200;
+    private static final int ROUNDS = 6; // 200 ms .. 6.4 s por réplica
+
+    private final HexBoard board = new HexBoard();
+    private final SearchEngine engine;
+    private final int replies;
+    private final Map<Long, SearchEngine.SearchResult> hints =
+            new LinkedHashMap<Long, SearchEngine.SearchResult>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, SearchEngine.SearchResult> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            };
+    private volatile Thread worker;
+    private volatile OnHintListener listener;
+
+    public interface OnHintListener {
+        /**
+         * Se llama en el hilo de análisis cada vez que mejora la pista de una posición
+         */
+        void onHint(long key, SearchEngine.SearchResult result);
+    }
+
+    public PonderService() {
+        this(SearchEngine.DEFAULT_TABLE_MB, DEFAULT_REPLIES);
+    }
+
+    public PonderService(int tableMegabytes, int replies) {
+        engine = new SearchEngine(board, new TranspositionTable(tableMegabytes), 0);
+        this.replies = replies;
+    }
+
+    public void setListener(OnHintListener listener) {
+        this.listener = listener;
+    }
+
+    public void setTablebase(EndgameTablebase tablebase) {
+        engine.setTablebase(tablebase);
+    }
+
+    /**
+     * Empieza a analizar la posición dada (que no se modifica). Detiene el análisis
+     * anterior; lo ya calculado sigue en la caché.
+     */
+    public void start(HexBoard position) {
+        stop();
+        // Sin hilo de análisis el tablero interno está libre; la copia se hace en el hilo que llama
+        board.copyFrom(position);
+
+        Thread thread = new Thread(this::ponder, "PonderService");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        worker = thread;
+        thread.start();
+    }
+
+    /**
+     * Detiene el análisis en curso y espera a que el hilo termine
+     */
+    public void stop() {
+        Thread thread = worker;
+        if (thread == null) return;
+
+        worker = null;
+        thread.interrupt();
+        engine.stop();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public boolean isRunning() {
+        return worker != null;
+    }
+
+    // ==================== PISTAS ====================
+
+    /**
+     * Resultado calculado para la posición, o null si aún no se ha analizado.
+     * Se comprueba que el movimiento sea legal por si dos posiciones comparten clave.
+     */
+    public SearchEngine.SearchResult getHint(HexBoard position) {
+        return verify(position, peekHint(position.getHash()));
+    }
+
+    /**
+     * Resultado guardado para la clave, sin comprobar su legalidad: una consulta a la
+     * caché, barata para llamarla en cada fotograma y ver si la pista cambió
+     */
+    public SearchEngine.SearchResult peekHint(long key) {
+        synchronized (hints) {
+            return hints.get(key);
+        }
+    }
+
+    /**
+     * El resultado si su movimiento es legal en la posición, o null. Genera todas las
+     * jugadas legales: quien muestre la pista debe guardar lo comprobado
+     */
+    public static SearchEngine.SearchResult verify(HexBoard position, SearchEngine.SearchResult result) {
+        if (result == null) return null;
+
+        MoveList moves = new MoveList();
+        new MoveValidator(position).generateLegalMoves(position.getSideToMove(), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == result.bestMove) return result;
+        }
+        return null;
+    }
+
+    public int getHintMove(HexBoard position) {
+        SearchEngine.SearchResult result = getHint(position);
+        return result != null ? result.bestMove : Move.NONE;
+    }
+
+    public void clearHints() {
+        synchronized (hints) {
+            hints.clear();
+        }
+    }
+
+    // ==================== ANÁLISIS ====================
+
+    private void ponder() {
+        Thread self = Thread.currentThread();
+        try {
+            // La búsqueda de la posición actual da la pista del que mueve y la réplica esperada
+            if (!analyze(FIRST_SLICE_MS) || worker != self) return;
+            MoveList candidates = likelyReplies(hintMove(board.getHash()));
+
+            long slice = FIRST_SLICE_MS;
+            for (int round = 0; round < ROUNDS && worker == self; round++, slice *= 2) {
+                for (int i = 0; i < candidates.size() && worker == self; i++) {
+                    board.makeMove(candidates.get(i));
+                    analyze(slice);
+                    board.unmakeMove();
+                }
+            }
+        } finally {
+            if (worker == self) worker = null;
+        }
+    }
+
+    /**
+     * Busca la posición del tablero interno y guarda el resultado si es más profundo
+     * que el que ya había; false si no hay movimientos o la búsqueda se canceló
+     */
+    private boolean analyze(long timeMillis) {
+        long key = board.getHash();
+        SearchEngine.SearchResult previous;
+        synchronized (hints) {
+            previous = hints.get(key);
+        }
+        // Un mate ya encontrado no mejora buscando más
+        if (previous != null && Math.abs(previous.score) >= SearchEngine.MATE - SearchEngine.MAX_PLY) return true;
+
+        SearchEngine.SearchResult result = engine.search(timeMillis, SearchEngine.MAX_PLY);
+        if (result.bestMove == Move.NONE || Thread.currentThread() != worker) return false;
+        if (previous != null && previous.depth > result.depth) return true;
+
+        synchronized (hints) {
+            hints.put(key, result);
+        }
+        OnHintListener current = listener;
+        if (current != null) current.onHint(key, result);
+        return true;
+    }
+
+    private int hintMove(long key) {
+        SearchEngine.SearchResult result = peekHint(key);
+        return result != null ? result.bestMove : Move.NONE;
+    }
+
+    /**
+     * Réplicas más probables: primero la que eligió la búsqueda, después las demás por
+     * evaluación estática tras jugarlas (O(1) gracias a la evaluación incremental)
+     */
+    private MoveList likelyReplies(int expected) {
+        MoveList moves = new MoveList();
+        new MoveValidator(board).generateLegalMoves(board.getSideToMove(), moves);
+
+        int[] scores = new int[moves.size()];
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            board.makeMove(move);
+            scores[i] = move == expected ? Integer.MAX_VALUE : -Evaluator.evaluate(board);
+            board.unmakeMove();
+        }
+
+        MoveList best = new MoveList();
+        boolean[] taken = new boolean[moves.size()];
+        while (best.size() < Math.min(replies, moves.size())) {
+            int pick = -1;
+            for (int i = 0; i < moves.size(); i++) {
+                if (!taken[i] && (pick < 0 || scores[i] > scores[pick])) pick = i;
+            }
+            taken[pick] = true;
+            best.add(moves.get(pick));
+        }
+        return best;
+    }
+}
@@ -0,0 +1,175 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.Arrays;
+
+/**
+ * Codificación compacta de una posición para guardarla en un solo campo de texto
+ * (GameState.board) en lugar del mapa "q,r" -> PieceData.
+ *
+ * Formato binario, versión 2: un byte de versión, el ordinal del color que mueve, la
+ * celda de captura al paso (0xFF si no hay), el número de piezas y dos bytes por pieza:
+ * la celda (índice denso 0..90) y tipo | color << 3 | movida << 5 (ordinales de
+ * PieceType y PieceColor). La posición inicial ocupa 76 bytes, 104 caracteres en base64.
+ * La versión 1 (sin turno ni captura al paso, cabecera de 2 bytes) se sigue leyendo.
+ *
+ * El base64 (alfabeto estándar con relleno) está escrito a mano: java.util.Base64 no
+ * existe en Android antes de la API 26 y el núcleo no puede usar android.util.Base64.
+ */
+public final class PositionCodec {
+    public static final int VERSION = 2;
+
+    private static final int HEADER_BYTES = 4;
+    private static final int V1_HEADER_BYTES = 2;
+    private static final int NO_EN_PASSANT = 0xFF;
+    private static final int PIECE_BYTES = 2;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final ChessPiece.PieceColor[] COLORS = ChessPiece.PieceColor.values();
+
+    private static final char[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+    private static final int[] ALPHABET_INDEX = new int[128];
+
+    static {
+        Arrays.fill(ALPHABET_INDEX, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            ALPHABET_INDEX[ALPHABET[i]] = i;
+        }
+    }
+
+    private PositionCodec() {}
+
+    /**
+     * Piezas, turno y captura al paso del tablero en base64
+     */
+    public static String encode(HexBoard board) {
+        return toBase64(toBytes(board));
+    }
+
+    /**
+     * Coloca en el tablero las piezas codificadas (las demás celdas quedan vacías), y el
+     * turno y la captura al paso si el formato los trae (versión 2).
+     * Lanza IllegalArgumentException si el texto no es una posición válida.
+     */
+    public static void decode(String data, HexBoard board) {
+        fromBytes(fromBase64(data), board);
+    }
+
+    /**
+     * Versión del formato de un texto codificado
+     */
+    public static int version(String data) {
+        byte[] bytes = fromBase64(data);
+        if (bytes.length == 0) throw new IllegalArgumentException("Posición vacía");
+        return bytes[0];
+    }
+
+    // ==================== BINARIO ====================
+
+    static byte[] toBytes(HexBoard board) {
+        int count = Bitboard.count(board.getOccupiedLo(), board.getOccupiedHi());
+        byte[] bytes = new byte[HEADER_BYTES + count * PIECE_BYTES];
+        bytes[0] = VERSION;
+        bytes[1] = (byte) board.getSideToMove().ordinal();
+        bytes[2] = (byte) (board.getEnPassantIndex() >= 0 ? board.getEnPassantIndex() : NO_EN_PASSANT);
+        bytes[3] = (byte) count;
+
+        int offset = HEADER_BYTES;
+        for (int i = 0; i < HexBoard.CELL_COUNT; i++) {
+            ChessPiece piece = board.getCell(i).getPiece();
+            if (piece == null) continue;
+
+            bytes[offset++] = (byte) i;
+            bytes[offset++] = (byte) (piece.getType().ordinal()
+                    | piece.getColor().ordinal() << 3
+                    | (piece.hasMoved() ? 1 << 5 : 0));
+        }
+        return bytes;
+    }
+
+    static void fromBytes(byte[] bytes, HexBoard board) {
+        int version = bytes.length > 0 ? bytes[0] : 0;
+        int header = version == VERSION ? HEADER_BYTES : V1_HEADER_BYTES;
+        if ((version != 1 && version != VERSION) || bytes.length < header) {
+            throw new IllegalArgumentException("Versión de posición no soportada");
+        }
+        int count = bytes[header - 1] & 0xFF;
+        if (bytes.length != header + count * PIECE_BYTES) {
+            throw new IllegalArgumentException("Posición truncada: " + count + " piezas");
+        }
+        int side = version == VERSION ? bytes[1] & 0xFF : 0;
+        int enPassant = version == VERSION ? bytes[2] & 0xFF : NO_EN_PASSANT;
+        if (side >= COLORS.length || (enPassant != NO_EN_PASSANT && enPassant >= HexBoard.CELL_COUNT)) {
+            throw new IllegalArgumentException("Turno o captura al paso inválidos");
+        }
+
+        // Se valida todo antes de tocar el tablero
+        for (int offset = header; offset < bytes.length; offset += PIECE_BYTES) {
+            int cell = bytes[offset] & 0xFF;
+            int code = bytes[offset + 1] & 0xFF;
+            if (cell >= HexBoard.CELL_COUNT || (code & 7) >= TYPES.length
+                    || (code >> 3 & 3) >= COLORS.length || code >> 6 != 0) {
+                throw new IllegalArgumentException("Pieza inválida en la posición");
+            }
+        }
+
+        for (int i = 0; i < HexBoard.CELL_COUNT; i++) {
+            board.getCell(i).setPiece(null);
+        }
+        for (int offset = header; offset < bytes.length; offset += PIECE_BYTES) {
+            int code = bytes[offset + 1];
+            ChessPiece piece = new ChessPiece(TYPES[code & 7], COLORS[code >> 3 & 3]);
+            piece.setMoved((code & 1 << 5) != 0);
+            board.getCell(bytes[offset] & 0xFF).setPiece(piece);
+        }
+        if (version == VERSION) {
+            board.setSideToMove(COLORS[side]);
+            board.setEnPassantIndex(enPassant == NO_EN_PASSANT ? -1 : enPassant);
+        }
+    }
+
+    // ==================== BASE64 ====================
+
+    static String toBase64(byte[] bytes) {
+        char[] out = new char[(bytes.length + 2) / 3 * 4];
+        int o = 0;
+        for (int i = 0; i < bytes.length; i += 3) {
+            int remaining = bytes.length - i;
+            int chunk = (bytes[i] & 0xFF) << 16
+                    | (remaining > 1 ? (bytes[i + 1] & 0xFF) << 8 : 0)
+                    | (remaining > 2 ? bytes[i + 2] & 0xFF : 0);
+            out[o++] = ALPHABET[chunk >> 18 & 63];
+            out[o++] = ALPHABET[chunk >> 12 & 63];
+            out[o++] = remaining > 1 ? ALPHABET[chunk >> 6 & 63] : '=';
+            out[o++] = remaining > 2 ? ALPHABET[chunk & 63] : '=';
+        }
+        return new String(out);
+    }
+
+    static byte[] fromBase64(String text) {
+        if (text == null || text.length() % 4 != 0) {
+            throw new IllegalArgumentException("Base64 inválido");
+        }
+        int padding = text.endsWith("==") ? 2 : text.endsWith("=") ? 1 : 0;
+        byte[] out = new byte[text.length() / 4 * 3 - padding];
+
+        int o = 0;
+        for (int i = 0; i < text.length(); i += 4) {
+            int chunk = 0;
+            for (int j = 0; j < 4; j++) {
+                char c = text.charAt(i + j);
+                int value;
+                if (c == '=' && i + 4 == text.length() && j >= 4 - padding) {
+                    value = 0;
+                } else {
+                    value = c < 128 ? ALPHABET_INDEX[c] : -1;
+                    if (value < 0) throw new IllegalArgumentException("Base64 inválido");
+                }
+                chunk = chunk << 6 | value;
+            }
+            out[o++] = (byte) (chunk >> 16);
+            if (o < out.length) out[o++] = (byte) (chunk >> 8);
+            if (o < out.length) out[o++] = (byte) chunk;
+        }
+        return out;
+    }
+}
@@ -0,0 +1,285 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * GameTransport sobre un socket TCP contra el RelayServer de :server, con el protocolo
+ * binario de {@link RelayProtocol}: sustituye a Firebase en local para medir viajes de
+ * ida y vuelta reales por la red.
+ *
+ * Las peticiones se envían en orden y sus respuestas llegan en el mismo orden, así que
+ * basta una cola de manejadores. Un hilo lector recibe respuestas y avisos; los
+ * callbacks se entregan con el Executor indicado (en Android, el del hilo principal).
+ */
+public class RelayGameTransport implements GameTransport, Closeable {
+    public static final int DEFAULT_PORT = 7410;
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+
+    private interface Handler {
+        void onResponse(byte[] frame);
+    }
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final OutputStream out;
+    private final Executor callbacks;
+    private final String playerId;
+    private final ArrayDeque<Handler> pending = new ArrayDeque<>(); // también ordena las escrituras
+    private boolean closed; // protegido por pending
+    private volatile String currentGameId;
+    private volatile GameState currentGameState;
+    private volatile OnGameUpdateListener gameListener;
+
+    private RelayGameTransport(Socket socket, Executor callbacks) throws IOException {
+        this.socket = socket;
+        this.callbacks = callbacks;
+        socket.setTcpNoDelay(true);
+        in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        out = new BufferedOutputStream(socket.getOutputStream());
+
+        byte[] welcome = RelayProtocol.readFrame(in);
+        if (welcome == null || RelayProtocol.type(welcome) != RelayProtocol.WELCOME) {
+            throw new IOException("Respuesta inesperada del servidor");
+        }
+        playerId = RelayProtocol.readText(welcome);
+    }
+
+    /**
+     * Conecta con el relé y espera el identificador de jugador que asigna
+     */
+    public static RelayGameTransport connect(String host, int port, Executor callbacks) throws IOException {
+        return connect(host, port, callbacks, task -> {
+            Thread thread = new Thread(task, "RelayGameTransport");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Igual que {@link #connect(String, int, Executor)}, creando el hilo lector con
+     * readers (p. ej. hilos virtuales para simular miles de clientes)
+     */
+    public static RelayGameTransport connect(String host, int port, Executor callbacks,
+                                             ThreadFactory readers) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), CONNECT_TIMEOUT_MS);
+            RelayGameTransport transport = new RelayGameTransport(socket, callbacks);
+            readers.newThread(transport::readLoop).start();
+            return transport;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    // ==================== PETICIONES ====================
+
+    @Override
+    public void createGame(OnGameCreatedListener listener) {
+        send(RelayProtocol.frame(RelayProtocol.CREATE), frame -> {
+            if (RelayProtocol.type(frame) != RelayProtocol.CREATED) {
+                String error = errorOf(frame);
+                callbacks.execute(() -> listener.onError(error));
+                return;
+            }
+            String gameId = RelayProtocol.readText(frame);
+            currentGameId = gameId;
+            currentGameState = null;
+            callbacks.execute(() -> listener.onGameCreated(gameId));
+        });
+    }
+
+    @Override
+    public void joinGame(String gameId, OnGameJoinedListener listener) {
+        send(RelayProtocol.frame(RelayProtocol.JOIN, gameId), frame -> {
+            if (RelayProtocol.type(frame) != RelayProtocol.JOINED) {
+                String error = errorOf(frame);
+                callbacks.execute(() -> listener.onError(error));
+                return;
+            }
+            currentGameId = gameId;
+            currentGameState = null;
+            callbacks.execute(() -> listener.onGameJoined(gameId));
+        });
+    }
+
+    @Override
+    public void makeMove(String fromKey, String toKey, OnMoveCompleteListener listener) {
+        if (currentGameId == null) {
+            callbacks.execute(() -> listener.onError("No hay partida activa"));
+            return;
+        }
+
+        String[] from = fromKey.split(",");
+        String[] to = toKey.split(",");
+        int fromIndex = HexBoard.indexOf(Integer.parseInt(from[0]), Integer.parseInt(from[1]));
+        int toIndex = HexBoard.indexOf(Integer.parseInt(to[0]), Integer.parseInt(to[1]));
+        // Fuera del tablero viaja como 0xFF y el servidor la rechaza
+        send(RelayProtocol.move(fromIndex & 0xFF, toIndex & 0xFF), frame -> {
+            if (RelayProtocol.type(frame) == RelayProtocol.MOVE_OK) {
+                callbacks.execute(listener::onMoveComplete);
+            } else {
+                String error = errorOf(frame);
+                callbacks.execute(() -> listener.onError(error));
+            }
+        });
+    }
+
+    @Override
+    public void listenToGame(OnGameUpdateListener listener) {
+        if (currentGameId == null) return;
+
+        // Los avisos que lleguen hasta el nuevo estado completo se descartan
+        gameListener = listener;
+        currentGameState = null;
+        send(RelayProtocol.frame(RelayProtocol.LISTEN), frame -> {
+            if (RelayProtocol.type(frame) != RelayProtocol.STATE) {
+                String error = errorOf(frame);
+                callbacks.execute(() -> listener.onError(error));
+                return;
+            }
+            GameState state = RelayProtocol.readState(frame);
+            currentGameState = state;
+            callbacks.execute(() -> listener.onGameUpdate(state));
+        });
+    }
+
+    @Override
+    public void cleanup() {
+        if (gameListener != null) {
+            send(RelayProtocol.frame(RelayProtocol.LEAVE), null);
+        }
+        gameListener = null;
+        currentGameId = null;
+        currentGameState = null;
+    }
+
+    /**
+     * Cierra la conexión; las peticiones sin respuesta reciben un error
+     */
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private void send(byte[] frame, Handler handler) {
+        synchronized (pending) {
+            if (!closed) {
+                try {
+                    out.write(frame);
+                    out.flush();
+                    if (handler != null) pending.add(handler);
+                    return;
+                } catch (IOException e) {
+                    closeQuietly(); // el hilo lector avisa a los pendientes
+                }
+            }
+        }
+        if (handler != null) handler.onResponse(localError("Sin conexión con el servidor"));
+    }
+
+    // ==================== RECEPCIÓN ====================
+
+    private void readLoop() {
+        try {
+            byte[] frame;
+            while ((frame = RelayProtocol.readFrame(in)) != null) {
+                if (RelayProtocol.type(frame) == RelayProtocol.UPDATE) {
+                    onUpdate(frame);
+                    continue;
+                }
+                Handler handler;
+                synchronized (pending) {
+                    handler = pending.poll();
+                }
+                if (handler == null) throw new IOException("Respuesta sin petición");
+                handler.onResponse(frame);
+            }
+        } catch (IOException | RuntimeException e) {
+            // Conexión perdida o trama inválida: se cierra igual
+        } finally {
+            connectionLost();
+        }
+    }
+
+    private void onUpdate(byte[] frame) throws IOException {
+        OnGameUpdateListener listener = gameListener;
+        GameState current = currentGameState;
+        if (listener == null || current == null) return;
+
+        // Cada aviso publica un estado nuevo: el que ya tiene la interfaz no cambia
+        GameState next = new GameState(current);
+        if (!RelayProtocol.applyUpdate(frame, next)) throw new IOException("Aviso fuera de orden");
+        currentGameState = next;
+        callbacks.execute(() -> listener.onGameUpdate(next));
+    }
+
+    private void connectionLost() {
+        ArrayDeque<Handler> lost;
+        synchronized (pending) {
+            closed = true;
+            lost = new ArrayDeque<>(pending);
+            pending.clear();
+        }
+        closeQuietly();
+
+        byte[] error = localError("Conexión perdida con el servidor");
+        for (Handler handler : lost) {
+            handler.onResponse(error);
+        }
+        OnGameUpdateListener listener = gameListener;
+        if (listener != null) {
+            callbacks.execute(() -> listener.onError("Conexión perdida con el servidor"));
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Respuesta ERROR generada en el cliente, como si la hubiera leído del socket
+     */
+    private static byte[] localError(String message) {
+        byte[] frame = RelayProtocol.frame(RelayProtocol.ERROR, message);
+        return Arrays.copyOfRange(frame, 2, frame.length); // sin la longitud
+    }
+
+    private static String errorOf(byte[] frame) {
+        return RelayProtocol.type(frame) == RelayProtocol.ERROR
+                ? RelayProtocol.readText(frame)
+                : "Respuesta inesperada del servidor";
+    }
+
+    // ==================== CONSULTAS ====================
+
+    @Override
+    public String getPlayerId() {
+        return playerId;
+    }
+
+    @Override
+    public GameState getCurrentGameState() {
+        return currentGameState;
+    }
+
+    @Override
+    public String getCurrentGameId() {
+        return currentGameId;
+    }
+}
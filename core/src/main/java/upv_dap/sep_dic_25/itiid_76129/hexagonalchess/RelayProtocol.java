@@ -0,0 +1,243 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protocolo binario del relé de partidas (RelayGameTransport y el RelayServer de
+ * :server). Cada trama es [longitud u16][tipo u8][datos], en big-endian.
+ *
+ * Las peticiones del cliente se responden en orden (una respuesta por petición, salvo
+ * LEAVE); STATE y UPDATE llegan además sin pedirlas mientras se escucha una partida.
+ * Turno, estado y motivo de fin viajan como un byte cada uno.
+ *
+ * Los métodos que construyen tramas las devuelven listas para escribir (con la
+ * longitud); {@link #readFrame} y los de lectura trabajan sin ella.
+ */
+public final class RelayProtocol {
+    public static final int MAX_FRAME = 0xFFFF;
+
+    // Cliente -> servidor
+    public static final byte CREATE = 1;
+    public static final byte JOIN = 2;   // gameId
+    public static final byte MOVE = 3;   // origen u8, destino u8 (índices densos)
+    public static final byte LISTEN = 4;
+    public static final byte LEAVE = 5;  // sin respuesta
+
+    // Servidor -> cliente
+    public static final byte WELCOME = 16;  // playerId, al conectar
+    public static final byte CREATED = 17;  // gameId
+    public static final byte JOINED = 18;   // gameId
+    public static final byte MOVE_OK = 19;
+    public static final byte ERROR = 20;    // mensaje
+    public static final byte STATE = 21;    // estado completo al empezar a escuchar
+    public static final byte UPDATE = 22;   // ply i32, jugada i32, turno, estado, ganador, motivo
+
+    private static final String[] TURNS = {"white", "black"};
+    private static final String[] STATUSES = {"waiting", "playing", "finished"};
+    private static final String[] ENDS = {"checkmate", "stalemate"};
+
+    private RelayProtocol() {}
+
+    // ==================== TRAMAS ====================
+
+    public static byte[] frame(byte type) {
+        return new byte[]{0, 1, type};
+    }
+
+    public static byte[] frame(byte type, String text) {
+        Writer w = new Writer(type);
+        w.text(text);
+        return w.toFrame();
+    }
+
+    public static byte[] move(int from, int to) {
+        return new byte[]{0, 3, MOVE, (byte) from, (byte) to};
+    }
+
+    public static byte[] update(int ply, int move, String turn, String status, String winner, String endReason) {
+        Writer w = new Writer(UPDATE);
+        try {
+            w.data.writeInt(ply);
+            w.data.writeInt(move);
+            w.data.writeByte(code(TURNS, turn));
+            w.data.writeByte(code(STATUSES, status));
+            w.data.writeByte(code(TURNS, winner));
+            w.data.writeByte(code(ENDS, endReason));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return w.toFrame();
+    }
+
+    public static byte[] state(GameState state) {
+        Writer w = new Writer(STATE);
+        try {
+            w.text(state.getGameId());
+            w.text(state.getWhitePlayerId());
+            w.text(state.getBlackPlayerId());
+            w.data.writeByte(code(TURNS, state.getCurrentTurn()));
+            w.data.writeByte(code(STATUSES, state.getStatus()));
+            w.data.writeByte(code(TURNS, state.getWinner()));
+            w.data.writeByte(code(ENDS, state.getEndReason()));
+            w.text(state.getBoard());
+            w.data.writeInt(state.getSnapshotPly());
+            List<Integer> moves = state.getMoves();
+            int count = moves != null ? moves.size() : 0;
+            w.data.writeInt(count);
+            for (int i = 0; i < count; i++) {
+                w.data.writeInt(moves.get(i));
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return w.toFrame();
+    }
+
+    /**
+     * Lee una trama completa (tipo y datos, sin la longitud); null al final del flujo
+     */
+    public static byte[] readFrame(DataInputStream in) throws IOException {
+        int high = in.read();
+        if (high < 0) return null;
+        int low = in.read();
+        if (low < 0) throw new EOFException("Trama truncada");
+
+        byte[] frame = new byte[high << 8 | low];
+        if (frame.length == 0) throw new IOException("Trama vacía");
+        in.readFully(frame);
+        return frame;
+    }
+
+    // ==================== LECTURA ====================
+
+    public static byte type(byte[] frame) {
+        return frame[0];
+    }
+
+    public static String readText(byte[] frame) {
+        try {
+            return readText(payload(frame));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Trama inválida", e);
+        }
+    }
+
+    public static GameState readState(byte[] frame) {
+        try {
+            DataInputStream in = payload(frame);
+            GameState state = new GameState();
+            state.setGameId(readText(in));
+            state.setWhitePlayerId(readText(in));
+            state.setBlackPlayerId(readText(in));
+            state.setCurrentTurn(name(TURNS, in.readByte()));
+            state.setStatus(name(STATUSES, in.readByte()));
+            state.setWinner(name(TURNS, in.readByte()));
+            state.setEndReason(name(ENDS, in.readByte()));
+            state.setBoard(readText(in));
+            state.setSnapshotPly(in.readInt());
+            int count = in.readInt();
+            List<Integer> moves = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                moves.add(in.readInt());
+            }
+            state.setMoves(moves);
+            return state;
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Trama inválida", e);
+        }
+    }
+
+    /**
+     * Aplica una trama UPDATE al estado (jugada al final del registro, turno y estado);
+     * devuelve false si no es la siguiente del registro
+     */
+    public static boolean applyUpdate(byte[] frame, GameState state) {
+        try {
+            DataInputStream in = payload(frame);
+            int ply = in.readInt();
+            int move = in.readInt();
+            if (state.getMoves() == null) state.setMoves(new ArrayList<>());
+            int expected = state.getMoves().size() + (move != Move.NONE ? 1 : 0);
+            if (ply != expected) return false;
+
+            if (move != Move.NONE) state.getMoves().add(move);
+            state.setCurrentTurn(name(TURNS, in.readByte()));
+            state.setStatus(name(STATUSES, in.readByte()));
+            state.setWinner(name(TURNS, in.readByte()));
+            state.setEndReason(name(ENDS, in.readByte()));
+            state.setLastMoveTimestamp(System.currentTimeMillis());
+            return true;
+        } catch (IOException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Trama inválida", e);
+        }
+    }
+
+    public static int moveFrom(byte[] frame) {
+        return frame[1] & 0xFF;
+    }
+
+    public static int moveTo(byte[] frame) {
+        return frame[2] & 0xFF;
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private static DataInputStream payload(byte[] frame) {
+        return new DataInputStream(new ByteArrayInputStream(frame, 1, frame.length - 1));
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static int code(String[] names, String name) {
+        for (int i = 0; i < names.length; i++) {
+            if (names[i].equals(name)) return i;
+        }
+        return 0xFF; // null o desconocido
+    }
+
+    private static String name(String[] names, byte code) {
+        int index = code & 0xFF;
+        return index < names.length ? names[index] : null;
+    }
+
+    /**
+     * Construye una trama dejando sitio para la longitud
+     */
+    private static final class Writer {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        final DataOutputStream data = new DataOutputStream(bytes);
+
+        Writer(byte type) {
+            bytes.write(0);
+            bytes.write(0);
+            bytes.write(type);
+        }
+
+        void text(String value) {
+            try {
+                data.writeBoolean(value != null);
+                if (value != null) data.writeUTF(value);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        byte[] toFrame() {
+            byte[] frame = bytes.toByteArray();
+            int length = frame.length - 2;
+            if (length > MAX_FRAME) throw new IllegalArgumentException("Trama demasiado grande");
+            frame[0] = (byte) (length >> 8);
+            frame[1] = (byte) length;
+            return frame;
+        }
+    }
+}
@@ -0,0 +1,462 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Motor de búsqueda para jugar contra la computadora: negamax con poda alfa-beta,
+ * búsqueda de quietud sobre capturas y profundización iterativa con límite de tiempo.
+ * Los movimientos se ordenan por el de la tabla de transposición, captura (MVV-LVA),
+ * jugadas killer e historia. Varias instancias pueden compartir una misma
+ * {@link TranspositionTable} para buscar en paralelo (ver {@link ParallelSearch}).
+ *
+ * Busca directamente sobre el tablero recibido con makeMove/unmakeMove; al terminar
+ * el tablero queda como estaba. Para buscar sin bloquear la interfaz ver {@link ComputerPlayer}.
+ */
+public class SearchEngine {
+    public static final int MATE = 100000;
+    public static final int MAX_PLY = 64;
+    private static final int INFINITY = MATE + 1;
+    public static final int DEFAULT_TABLE_MB = 16;
+
+    // Cada cuántos nodos se mira el reloj
+    private static final int TIME_CHECK_MASK = 2047;
+
+    // Bandas de ordenación: capturas/promociones > killers > historia
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int HISTORY_MAX = 1 << 26;
+
+    private final HexBoard board;
+    private final MoveValidator validator;
+    private final TranspositionTable table;
+    private final int helperId; // 0 = hilo principal; los auxiliares de Lazy SMP varían la profundidad
+
+    private final MoveList[] moveLists = new MoveList[MAX_PLY + 1];
+    private final int[][] orderScores = new int[MAX_PLY + 1][MoveList.DEFAULT_CAPACITY];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[2][HexBoard.CELL_COUNT * HexBoard.CELL_COUNT];
+
+    private long nodes;
+    private long deadline;
+    private volatile boolean stopped;
+    private int rootBestMove;
+    private int rootBestScore;
+    private Listener listener;
+    private EndgameTablebase tablebase;
+
+    /**
+     * Recibe el resultado de cada iteración completada (se llama en el hilo de búsqueda)
+     */
+    public interface Listener {
+        void onIteration(SearchResult result);
+    }
+
+    public static final class SearchResult {
+        public final int bestMove;
+        public final int score;
+        public final int depth;
+        public final long nodes;
+        public final long elapsedMillis;
+
+        SearchResult(int bestMove, int score, int depth, long nodes, long elapsedMillis) {
+            this.bestMove = bestMove;
+            this.score = score;
+            this.depth = depth;
+            this.nodes = nodes;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long nodesPerSecond() {
+            return nodes * 1000 / Math.max(1, elapsedMillis);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "prof %d  %s  eval %d  %d nodos  %d ms  %d nodos/s",
+                    depth, bestMove == Move.NONE ? "-" : Move.toString(bestMove), score,
+                    nodes, elapsedMillis, nodesPerSecond());
+        }
+    }
+
+    public SearchEngine(HexBoard board) {
+        this(board, new TranspositionTable(DEFAULT_TABLE_MB), 0);
+    }
+
+    SearchEngine(HexBoard board, TranspositionTable table, int helperId) {
+        this.board = board;
+        this.validator = new MoveValidator(board);
+        this.table = table;
+        this.helperId = helperId;
+        for (int i = 0; i <= MAX_PLY; i++) {
+            moveLists[i] = new MoveList();
+        }
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Tablas de finales para puntuar exactamente las posiciones con pocas piezas; null para no usarlas
+     */
+    public void setTablebase(EndgameTablebase tablebase) {
+        this.tablebase = tablebase;
+    }
+
+    /**
+     * Pide a la búsqueda en curso que termine cuanto antes (seguro desde otro hilo)
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    // ==================== PROFUNDIZACIÓN ITERATIVA ====================
+
+    /**
+     * Busca el mejor movimiento para el color que mueve, profundizando de uno en uno
+     * hasta agotar el tiempo, llegar a maxDepth o encontrar un mate.
+     * Devuelve bestMove = Move.NONE si no hay movimientos legales.
+     */
+    public SearchResult search(long timeMillis, int maxDepth) {
+        long start = System.nanoTime();
+        deadline = start + timeMillis * 1_000_000L;
+        stopped = false;
+        nodes = 0;
+        if (helperId == 0) table.newSearch();
+        for (int[] killer : killers) {
+            Arrays.fill(killer, Move.NONE);
+        }
+        // La historia de búsquedas anteriores sigue sirviendo, pero pesa menos
+        for (int[] table : history) {
+            for (int i = 0; i < table.length; i++) {
+                table[i] >>= 2;
+            }
+        }
+
+        MoveList rootMoves = moveLists[0];
+        rootMoves.clear();
+        validator.generateLegalMoves(board.getSideToMove(), rootMoves);
+        if (rootMoves.isEmpty()) {
+            return new SearchResult(Move.NONE, -MATE, 0, 0, 0);
+        }
+
+        int bestMove = rootMoves.get(0);
+        int bestScore = 0;
+        int completedDepth = 0;
+        scoreMoves(rootMoves, 0, Move.NONE);
+
+        for (int depth = 1; depth <= Math.min(maxDepth, MAX_PLY); depth++) {
+            rootBestMove = Move.NONE;
+            // Los auxiliares impares van un nivel por delante para no repetir el trabajo del principal
+            searchRoot(depth + (helperId & 1), bestMove);
+
+            // Una iteración interrumpida solo cuenta si ya mejoró al mejor movimiento anterior,
+            // que siempre se busca primero
+            if (rootBestMove != Move.NONE) {
+                bestMove = rootBestMove;
+                bestScore = rootBestScore;
+            }
+            if (stopped) break;
+
+            completedDepth = depth;
+            long elapsed = (System.nanoTime() - start) / 1_000_000L;
+            if (listener != null) {
+                listener.onIteration(new SearchResult(bestMove, bestScore, depth, nodes, elapsed));
+            }
+
+            if (Math.abs(bestScore) >= MATE - MAX_PLY) break;
+            // La siguiente iteración cuesta varias veces más: no empezarla sin tiempo
+            if (System.nanoTime() - start > (deadline - start) / 2) break;
+        }
+
+        long elapsed = (System.nanoTime() - start) / 1_000_000L;
+        return new SearchResult(bestMove, bestScore, Math.max(completedDepth, 1), nodes, elapsed);
+    }
+
+    private void searchRoot(int depth, int previousBest) {
+        MoveList moves = moveLists[0];
+        int[] scores = orderScores[0];
+        // El mejor de la iteración anterior va primero
+        for (int i = 0; i < moves.size(); i++) {
+            if (moves.get(i) == previousBest) {
+                moves.set(i, moves.get(0));
+                moves.set(0, previousBest);
+                int score = scores[i];
+                scores[i] = scores[0];
+                scores[0] = score;
+                break;
+            }
+        }
+
+        int alpha = -INFINITY;
+        for (int i = 0; i < moves.size(); i++) {
+            if (i > 0) pickNext(moves, scores, i);
+            int move = moves.get(i);
+
+            board.makeMove(move);
+            int score = -negamax(depth - 1, 1, -INFINITY, -alpha);
+            board.unmakeMove();
+            if (stopped) return;
+
+            if (score > alpha) {
+                alpha = score;
+                rootBestMove = move;
+                rootBestScore = score;
+            }
+        }
+    }
+
+    // ==================== ALFA-BETA ====================
+
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        if (checkTime()) return 0;
+
+        // Repetir una posición de la búsqueda no gana nada: se puntúa como tablas
+        if (board.getRepetitionCount() >= 2) return 0;
+
+        // Con pocas piezas la tabla de finales da el resultado exacto, relativo a este nodo
+        if (tablebase != null) {
+            int score = tablebase.probe(board);
+            if (score != EndgameTablebase.NOT_FOUND) {
+                return score > 0 ? score - ply : score < 0 ? score + ply : 0;
+            }
+        }
+
+        ChessPiece.PieceColor side = board.getSideToMove();
+        boolean inCheck = validator.isInCheck(side);
+        if (inCheck) depth++; // extensión de jaque
+
+        if (depth <= 0) return quiesce(ply, alpha, beta);
+        if (ply >= MAX_PLY) return Evaluator.evaluate(board);
+
+        long key = board.getHash();
+        long entry = table.probe(key);
+        int hashMove = Move.NONE;
+        if (entry != 0) {
+            hashMove = TranspositionTable.move(entry);
+            if (TranspositionTable.depth(entry) >= depth) {
+                int score = scoreFromTable(TranspositionTable.score(entry), ply);
+                int bound = TranspositionTable.bound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT ||
+                        (bound == TranspositionTable.BOUND_LOWER && score >= beta) ||
+                        (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        validator.generateLegalMoves(side, moves);
+        // Sin movimientos pierde: por jaque mate o, en Gliński, por ahogado
+        if (moves.isEmpty()) return -(MATE - ply);
+
+        int[] scores = orderScores[ply];
+        scoreMoves(moves, ply, hashMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = Move.NONE;
+        for (int i = 0; i < moves.size(); i++) {
+            pickNext(moves, scores, i);
+            int move = moves.get(i);
+
+            board.makeMove(move);
+            int score = -negamax(depth - 1, ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) return 0;
+
+            if (score > best) {
+                best = score;
+                bestMove = move;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) {
+                        if (!isTactical(move)) {
+                            storeKiller(move, ply);
+                            updateHistory(side, move, depth);
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        int bound = best >= beta ? TranspositionTable.BOUND_LOWER :
+                best > originalAlpha ? TranspositionTable.BOUND_EXACT : TranspositionTable.BOUND_UPPER;
+        // Sin cota superior no hay un mejor movimiento fiable que guardar
+        table.store(key, bound == TranspositionTable.BOUND_UPPER ? Move.NONE : bestMove,
+                scoreToTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Las puntuaciones de mate se guardan relativas al nodo y no a la raíz,
+     * para que sigan siendo correctas al encontrarlas desde otro ply
+     */
+    private static int scoreToTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score + ply;
+        if (score <= -(MATE - MAX_PLY)) return score - ply;
+        return score;
+    }
+
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= MATE - MAX_PLY) return score - ply;
+        if (score <= -(MATE - MAX_PLY)) return score + ply;
+        return score;
+    }
+
+    /**
+     * Búsqueda de quietud: solo capturas y promociones (o todas las evasiones en jaque)
+     * hasta que la posición se calme, para no cortar a mitad de un intercambio
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        if (checkTime()) return 0;
+        if (ply >= MAX_PLY) return Evaluator.evaluate(board);
+
+        ChessPiece.PieceColor side = board.getSideToMove();
+        boolean inCheck = validator.isInCheck(side);
+
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        validator.generateLegalMoves(side, moves);
+        if (moves.isEmpty()) return -(MATE - ply);
+
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = Evaluator.evaluate(board);
+            // Con -ea (pruebas) se contrasta de vez en cuando con el recálculo completo
+            assert (nodes & 255) != 0 || best == Evaluator.evaluateFull(board) : "Evaluación incremental desfasada";
+            if (best >= beta) return best;
+            if (best > alpha) alpha = best;
+        }
+
+        int[] scores = orderScores[ply];
+        scoreMoves(moves, ply, Move.NONE);
+
+        for (int i = 0; i < moves.size(); i++) {
+            pickNext(moves, scores, i);
+            int move = moves.get(i);
+            // Las capturas y promociones ocupan la banda alta: al llegar a una quieta ya no quedan
+            if (!inCheck && scores[i] < CAPTURE_SCORE) break;
+
+            board.makeMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            board.unmakeMove();
+            if (stopped) return 0;
+
+            if (score > best) {
+                best = score;
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private boolean checkTime() {
+        if ((++nodes & TIME_CHECK_MASK) == 0 &&
+                (System.nanoTime() > deadline || Thread.currentThread().isInterrupted())) {
+            stopped = true;
+        }
+        return stopped;
+    }
+
+    // ==================== ORDENACIÓN ====================
+
+    private void scoreMoves(MoveList moves, int ply, int hashMove) {
+        int[] scores = orderScores[ply];
+        int side = AttackTables.pawnSide(board.getSideToMove());
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (move == hashMove) {
+                scores[i] = Integer.MAX_VALUE;
+            } else if (isTactical(move)) {
+                scores[i] = CAPTURE_SCORE + tacticalGain(move);
+            } else if (move == killers[ply][0]) {
+                scores[i] = KILLER_SCORE + 1;
+            } else if (move == killers[ply][1]) {
+                scores[i] = KILLER_SCORE;
+            } else {
+                scores[i] = history[side][Move.from(move) * HexBoard.CELL_COUNT + Move.to(move)];
+            }
+        }
+    }
+
+    /**
+     * MVV-LVA: primero la víctima más valiosa, y entre iguales el atacante más barato
+     */
+    private int tacticalGain(int move) {
+        int gain = 0;
+        if (Move.isCapture(move)) {
+            ChessPiece victim = board.getCell(Move.to(move)).getPiece();
+            int victimValue = victim != null ? Evaluator.PIECE_VALUES[victim.getType().ordinal()] :
+                    Evaluator.PIECE_VALUES[ChessPiece.PieceType.PAWN.ordinal()]; // al paso
+            ChessPiece attacker = board.getCell(Move.from(move)).getPiece();
+            gain = victimValue * 16 - Evaluator.PIECE_VALUES[attacker.getType().ordinal()] / 16;
+        }
+        ChessPiece.PieceType promotion = Move.promotion(move);
+        if (promotion != null) {
+            gain += Evaluator.PIECE_VALUES[promotion.ordinal()] * 16;
+        }
+        return gain;
+    }
+
+    private static boolean isTactical(int move) {
+        return Move.isCapture(move) || Move.promotion(move) != null;
+    }
+
+    /**
+     * Selección parcial: lleva a la posición i el movimiento restante con mayor puntuación
+     */
+    private static void pickNext(MoveList moves, int[] scores, int i) {
+        int best = i;
+        for (int j = i + 1; j < moves.size(); j++) {
+            if (scores[j] > scores[best]) best = j;
+        }
+        if (best != i) {
+            int move = moves.get(i);
+            moves.set(i, moves.get(best));
+            moves.set(best, move);
+            int score = scores[i];
+            scores[i] = scores[best];
+            scores[best] = score;
+        }
+    }
+
+    private void storeKiller(int move, int ply) {
+        if (killers[ply][0] != move) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+    }
+
+    private void updateHistory(ChessPiece.PieceColor side, int move, int depth) {
+        int[] table = history[AttackTables.pawnSide(side)];
+        int slot = Move.from(move) * HexBoard.CELL_COUNT + Move.to(move);
+        table[slot] = Math.min(HISTORY_MAX - 1, table[slot] + depth * depth);
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Uso: java SearchEngine [milisegundos] ["posición" como en Perft]
+     * Imprime cada iteración con sus nodos/s, para calibrar el tiempo por dispositivo.
+     */
+    public static void main(String[] args) {
+        long timeMillis = args.length > 0 ? Long.parseLong(args[0]) : 5000;
+        HexBoard board = new HexBoard();
+        if (args.length > 1) {
+            Perft.setupPosition(board, args[1]);
+        }
+
+        SearchEngine engine = new SearchEngine(board);
+        engine.setListener(result -> System.out.println(result));
+        System.out.println("Mejor: " + engine.search(timeMillis, MAX_PLY));
+    }
+}
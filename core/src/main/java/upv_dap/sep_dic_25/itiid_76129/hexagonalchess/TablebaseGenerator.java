@@ -0,0 +1,578 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Genera tablas de finales sin peones por análisis retrógrado, en paralelo.
+ *
+ * Se resuelve por niveles de distancia: en el nivel 0 pierden las posiciones sin
+ * movimientos (mate o ahogado); en un nivel impar d gana quien tiene un movimiento a una
+ * posición perdida en d-1, y en uno par pierde quien solo tiene movimientos a posiciones
+ * ganadas en menos de d. Lo que queda sin resolver es tablas. En cada nivel solo se
+ * revisan los predecesores de lo resuelto en el anterior; como sin peones todo
+ * movimiento es reversible, los predecesores salen del mismo generador de movimientos.
+ *
+ * Cada nivel reparte las posiciones en bloques entre los hilos. Un hilo solo escribe
+ * las posiciones de su bloque y solo lee valores de niveles anteriores, así que el
+ * resultado no depende del número de hilos. Las capturas llevan a tablas con una pieza
+ * menos, que se generan antes.
+ *
+ * Uso: java TablebaseGenerator directorio KQvK KRvK KBBvK ...
+ */
+public class TablebaseGenerator {
+    private static final int CHUNK = 1 << 16; // posiciones por tarea; múltiplo de 64
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+    private static final int KING = ChessPiece.PieceType.KING.ordinal();
+
+    private final int threads;
+    private final Map<String, Table> tables = new LinkedHashMap<>();
+
+    private static final class Table {
+        final TablebaseIndex index;
+        final byte[][] values = new byte[2][];
+        int maxPlies;
+
+        // Por cada pieza que se puede capturar: tabla resultante, si intercambia colores
+        // y de qué pieza de esta tabla sale cada pieza de aquella
+        final Table[] captured;
+        final boolean[] capturedFlipped;
+        final int[][] capturedPieces;
+
+        Table(TablebaseIndex index) {
+            this.index = index;
+            captured = new Table[index.pieceCount];
+            capturedFlipped = new boolean[index.pieceCount];
+            capturedPieces = new int[index.pieceCount][];
+        }
+    }
+
+    public TablebaseGenerator(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Se necesita al menos un hilo: " + threads);
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Genera la tabla del material (p. ej. "KQvK") y las de sus capturas, si aún no estaban
+     */
+    public void generate(String material) {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "TablebaseGenerator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            generate(TablebaseIndex.of(material), executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public List<String> getGenerated() {
+        return new ArrayList<>(tables.keySet());
+    }
+
+    /**
+     * Mayor distancia al final (en plies) de una tabla ya generada
+     */
+    public int getMaxPlies(String material) {
+        return table(material).maxPlies;
+    }
+
+    /**
+     * Cuenta de posiciones legales de una tabla ya generada: {ganadas, tablas, perdidas}
+     * para el bando que mueve, sumando los dos turnos
+     */
+    public long[] count(String material) {
+        long[] counts = new long[3];
+        for (byte[] values : table(material).values) {
+            for (byte value : values) {
+                int v = value & 0xFF;
+                if (v == EndgameTablebase.INVALID) continue;
+                counts[v == 0 ? 1 : EndgameTablebase.isWin(v) ? 0 : 2]++;
+            }
+        }
+        return counts;
+    }
+
+    private Table table(String material) {
+        Table table = tables.get(TablebaseIndex.of(material).name);
+        if (table == null) {
+            throw new IllegalArgumentException("Tabla no generada: " + material);
+        }
+        return table;
+    }
+
+    private Table generate(TablebaseIndex index, ExecutorService executor) {
+        Table table = tables.get(index.name);
+        if (table != null) return table;
+        table = new Table(index);
+
+        int subMaxPlies = 0;
+        for (int piece = 0; piece < index.pieceCount; piece++) {
+            if (index.types[piece] == KING) continue;
+            linkCapture(table, piece, executor);
+            subMaxPlies = Math.max(subMaxPlies, table.captured[piece].maxPlies);
+        }
+
+        solve(table, subMaxPlies, executor);
+        tables.put(index.name, table);
+        return table;
+    }
+
+    /**
+     * Prepara la tabla a la que lleva capturar una pieza, intercambiando colores si
+     * el bando que la pierde deja de ser el más fuerte
+     */
+    private void linkCapture(Table table, int piece, ExecutorService executor) {
+        TablebaseIndex index = table.index;
+        List<Integer> white = new ArrayList<>();
+        List<Integer> black = new ArrayList<>();
+        for (int i = 0; i < index.pieceCount; i++) {
+            if (i != piece) (index.isWhite(i) ? white : black).add(i);
+        }
+
+        int[] whiteTypes = types(index, white);
+        int[] blackTypes = types(index, black);
+        boolean flip = TablebaseIndex.shouldFlip(whiteTypes, blackTypes);
+        Table sub = generate(flip ? TablebaseIndex.of(blackTypes, whiteTypes) : TablebaseIndex.of(whiteTypes, blackTypes),
+                executor);
+
+        List<Integer> order = new ArrayList<>(flip ? black : white);
+        order.addAll(flip ? white : black);
+        int[] pieces = new int[order.size()];
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = order.get(i);
+        }
+
+        table.captured[piece] = sub;
+        table.capturedFlipped[piece] = flip;
+        table.capturedPieces[piece] = pieces;
+    }
+
+    // Tipos sin el rey (el primero de la lista), que ya vienen de mayor a menor
+    private static int[] types(TablebaseIndex index, List<Integer> pieces) {
+        int[] types = new int[pieces.size() - 1];
+        for (int i = 1; i < pieces.size(); i++) {
+            types[i - 1] = index.types[pieces.get(i)];
+        }
+        return types;
+    }
+
+    // ==================== ANÁLISIS RETRÓGRADO ====================
+
+    private void solve(Table table, int subMaxPlies, ExecutorService executor) {
+        int size = table.index.sectionSize;
+        table.values[0] = new byte[size];
+        table.values[1] = new byte[size];
+
+        run(table, executor, (worker, side, start, end) -> worker.markInvalid(side, start, end));
+
+        int words = (size + 63) / 64;
+        AtomicLongArray[] candidates = null;
+        for (int level = 0; ; level++) {
+            if (level > EndgameTablebase.MAX_PLIES) {
+                throw new IllegalStateException(table.index.name + ": distancia mayor que " +
+                        EndgameTablebase.MAX_PLIES + " plies");
+            }
+
+            // Mientras las capturas puedan resolver posiciones se revisa todo; después,
+            // solo los predecesores de lo resuelto en el nivel anterior
+            boolean full = level <= subMaxPlies + 1;
+            AtomicLongArray[] current = full ? null : candidates;
+            AtomicLongArray[] next = {new AtomicLongArray(words), new AtomicLongArray(words)};
+            int currentLevel = level;
+
+            long resolved = run(table, executor, (worker, side, start, end) ->
+                    worker.resolve(side, start, end, currentLevel, current == null ? null : current[side], next));
+
+            if (resolved > 0) {
+                table.maxPlies = level;
+            } else if (!full) {
+                break;
+            }
+            candidates = next;
+        }
+    }
+
+    private interface Task {
+        long run(Worker worker, int side, int start, int end);
+    }
+
+    /**
+     * Ejecuta la tarea sobre todos los bloques de los dos turnos y suma lo que devuelven
+     */
+    private long run(Table table, ExecutorService executor, Task task) {
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int side = 0; side < 2; side++) {
+            for (int start = 0; start < table.index.sectionSize; start += CHUNK) {
+                int s = side;
+                int from = start;
+                int to = Math.min(start + CHUNK, table.index.sectionSize);
+                futures.add(executor.submit(() -> task.run(new Worker(table), s, from, to)));
+            }
+        }
+
+        long total = 0;
+        try {
+            for (Future<Long> future : futures) {
+                total += future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Generación interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        return total;
+    }
+
+    /**
+     * Estado de trabajo de un bloque: la posición decodificada y su ocupación
+     */
+    private static final class Worker {
+        private final Table table;
+        private final TablebaseIndex index;
+        private final int[] cells;
+        private final int[] subCells = new int[TablebaseIndex.MAX_PIECES];
+        private final int[] targets = new int[2 * 6 * 10 + 8];
+        private final int[] twins = new int[TablebaseIndex.SYMMETRIES.length];
+        private long occupiedLo, occupiedHi;
+
+        Worker(Table table) {
+            this.table = table;
+            this.index = table.index;
+            this.cells = new int[index.pieceCount];
+        }
+
+        /**
+         * Decodifica la posición; devuelve false si dos piezas comparten celda
+         */
+        private boolean load(int position) {
+            index.decode(position, cells);
+            occupiedLo = 0;
+            occupiedHi = 0;
+            for (int cell : cells) {
+                if (Bitboard.isSet(occupiedLo, occupiedHi, cell)) return false;
+                occupiedLo |= Bitboard.bitLo(cell);
+                occupiedHi |= Bitboard.bitHi(cell);
+            }
+            return true;
+        }
+
+        /**
+         * Marca como ilegales las posiciones con piezas superpuestas o en las que el
+         * bando que no mueve está en jaque
+         */
+        long markInvalid(int side, int start, int end) {
+            byte[] values = table.values[side];
+            int enemyKing = side == 0 ? index.whiteCount : 0;
+            long invalid = 0;
+            for (int position = start; position < end; position++) {
+                if (!load(position) || isAttacked(cells[enemyKing], side)) {
+                    values[position] = (byte) EndgameTablebase.INVALID;
+                    invalid++;
+                }
+            }
+            return invalid;
+        }
+
+        /**
+         * Resuelve las posiciones del bloque que se deciden en este nivel; con candidates
+         * solo revisa las marcadas. Marca en next los predecesores de las que resuelve.
+         */
+        long resolve(int side, int start, int end, int level, AtomicLongArray candidates, AtomicLongArray[] next) {
+            byte[] values = table.values[side];
+            long resolved = 0;
+
+            if (candidates == null) {
+                for (int position = start; position < end; position++) {
+                    resolved += resolve(values, position, side, level, next);
+                }
+                return resolved;
+            }
+
+            for (int word = start >>> 6; word <= (end - 1) >>> 6; word++) {
+                long bits = candidates.get(word);
+                while (bits != 0) {
+                    resolved += resolve(values, (word << 6) + Long.numberOfTrailingZeros(bits), side, level, next);
+                    bits &= bits - 1;
+                }
+            }
+            return resolved;
+        }
+
+        private int resolve(byte[] values, int position, int side, int level, AtomicLongArray[] next) {
+            if (values[position] != 0) return 0; // ya resuelta o ilegal
+
+            load(position);
+            int value = evaluate(side, level);
+            if (value == 0) return 0;
+
+            values[position] = (byte) value;
+            markPredecessors(side, next[side ^ 1]);
+            return 1;
+        }
+
+        /**
+         * Valor que toma la posición en este nivel, o 0 si todavía no se decide
+         */
+        private int evaluate(int side, int level) {
+            boolean winLevel = (level & 1) != 0;
+            int loss = winLevel ? EndgameTablebase.lossValue(level - 1) : 0;
+            int legal = 0;
+
+            for (int piece = first(side); piece < last(side); piece++) {
+                int count = generate(piece);
+                for (int i = 0; i < count; i++) {
+                    int value = successor(side, piece, targets[i]);
+                    if (value == EndgameTablebase.INVALID) continue; // deja al propio rey en jaque
+                    legal++;
+
+                    if (winLevel) {
+                        if (value == loss) return EndgameTablebase.winValue(level);
+                    } else if (!EndgameTablebase.isWin(value) || EndgameTablebase.winPlies(value) >= level) {
+                        return 0;
+                    }
+                }
+            }
+
+            if (winLevel || (legal == 0 && level > 0)) return 0;
+            return EndgameTablebase.lossValue(level);
+        }
+
+        /**
+         * Valor de la posición tras mover la pieza a la celda (libre o con una pieza rival)
+         */
+        private int successor(int side, int piece, int to) {
+            int victim = pieceAt(to);
+            if (victim < 0) {
+                int from = cells[piece];
+                cells[piece] = to;
+                int value = table.values[side ^ 1][index.index(cells)] & 0xFF;
+                cells[piece] = from;
+                return value;
+            }
+
+            Table sub = table.captured[victim];
+            int[] pieces = table.capturedPieces[victim];
+            for (int i = 0; i < pieces.length; i++) {
+                subCells[i] = pieces[i] == piece ? to : cells[pieces[i]];
+            }
+            int subSide = table.capturedFlipped[victim] ? side : side ^ 1;
+            return sub.values[subSide][sub.index.index(subCells)] & 0xFF;
+        }
+
+        /**
+         * Marca las posiciones desde las que el bando que acaba de mover llegó a esta
+         * sin capturar: cada pieza suya pudo venir de cualquier celda libre a la que
+         * ahora podría ir. Se marcan todas las copias gemelas de cada predecesor, porque
+         * desde cada una se llega a una copia distinta de esta posición.
+         */
+        private void markPredecessors(int side, AtomicLongArray next) {
+            int mover = side ^ 1;
+            for (int piece = first(mover); piece < last(mover); piece++) {
+                int count = generate(piece);
+                int from = cells[piece];
+                for (int i = 0; i < count; i++) {
+                    if (pieceAt(targets[i]) >= 0) continue;
+                    cells[piece] = targets[i];
+                    int copies = index.twins(cells, twins);
+                    for (int j = 0; j < copies; j++) {
+                        set(next, twins[j]);
+                    }
+                }
+                cells[piece] = from;
+            }
+        }
+
+        private static void set(AtomicLongArray bits, int position) {
+            int word = position >>> 6;
+            long mask = 1L << position;
+            long current;
+            while (((current = bits.get(word)) & mask) == 0) {
+                if (bits.compareAndSet(word, current, current | mask)) return;
+            }
+        }
+
+        // ==================== MOVIMIENTOS ====================
+
+        private int first(int side) {
+            return side == 0 ? 0 : index.whiteCount;
+        }
+
+        private int last(int side) {
+            return side == 0 ? index.whiteCount : index.pieceCount;
+        }
+
+        private int pieceAt(int cell) {
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] == cell) return i;
+            }
+            return -1;
+        }
+
+        /**
+         * Deja en targets los destinos de la pieza (vacíos o con una pieza rival), con
+         * las mismas reglas que MoveValidator; devuelve cuántos son
+         */
+        private int generate(int piece) {
+            int from = cells[piece];
+            int count = 0;
+            switch (TYPES[index.types[piece]]) {
+                case KNIGHT:
+                    count = leaper(AttackTables.KNIGHT_TARGETS[from], count);
+                    break;
+                case BISHOP:
+                    count = rays(AttackTables.DIAG_RAYS[from], count);
+                    break;
+                case ROOK:
+                    count = rays(AttackTables.ORTHO_RAYS[from], count);
+                    break;
+                case QUEEN:
+                    count = rays(AttackTables.ORTHO_RAYS[from], count);
+                    count = rays(AttackTables.DIAG_RAYS[from], count);
+                    count = leaper(AttackTables.QUEEN_JUMP_TARGETS[from], count);
+                    break;
+                case KING:
+                    count = leaper(AttackTables.KING_TARGETS[from], count);
+                    break;
+                default:
+                    throw new IllegalStateException("Las tablas no tienen peones");
+            }
+
+            // Fuera las celdas propias
+            boolean white = index.isWhite(piece);
+            int kept = 0;
+            for (int i = 0; i < count; i++) {
+                int other = pieceAt(targets[i]);
+                if (other < 0 || index.isWhite(other) != white) {
+                    targets[kept++] = targets[i];
+                }
+            }
+            return kept;
+        }
+
+        private int leaper(int[] cells, int count) {
+            for (int cell : cells) {
+                targets[count++] = cell;
+            }
+            return count;
+        }
+
+        private int rays(int[][] rays, int count) {
+            for (int[] ray : rays) {
+                for (int cell : ray) {
+                    targets[count++] = cell;
+                    if (Bitboard.isSet(occupiedLo, occupiedHi, cell)) break;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Si alguna pieza del bando dado ataca la celda
+         */
+        private boolean isAttacked(int target, int by) {
+            for (int piece = first(by); piece < last(by); piece++) {
+                int from = cells[piece];
+                switch (TYPES[index.types[piece]]) {
+                    case KNIGHT:
+                        if (Bitboard.isSet(AttackTables.KNIGHT_LO[from], AttackTables.KNIGHT_HI[from], target)) return true;
+                        break;
+                    case BISHOP:
+                        if (rayAttacks(AttackTables.DIAG_RAYS, AttackTables.DIAG_DIRECTION_BETWEEN, from, target)) return true;
+                        break;
+                    case ROOK:
+                        if (rayAttacks(AttackTables.ORTHO_RAYS, AttackTables.ORTHO_DIRECTION_BETWEEN, from, target)) return true;
+                        break;
+                    case QUEEN:
+                        if (Bitboard.isSet(AttackTables.QUEEN_JUMP_LO[from], AttackTables.QUEEN_JUMP_HI[from], target) ||
+                                rayAttacks(AttackTables.ORTHO_RAYS, AttackTables.ORTHO_DIRECTION_BETWEEN, from, target) ||
+                                rayAttacks(AttackTables.DIAG_RAYS, AttackTables.DIAG_DIRECTION_BETWEEN, from, target)) {
+                            return true;
+                        }
+                        break;
+                    case KING:
+                        if (Bitboard.isSet(AttackTables.KING_LO[from], AttackTables.KING_HI[from], target)) return true;
+                        break;
+                    default:
+                        break;
+                }
+            }
+            return false;
+        }
+
+        private boolean rayAttacks(int[][][] rays, byte[] between, int from, int target) {
+            int direction = between[from * HexBoard.CELL_COUNT + target];
+            if (direction < 0) return false;
+            for (int cell : rays[from][direction]) {
+                if (cell == target) return true;
+                if (Bitboard.isSet(occupiedLo, occupiedHi, cell)) return false;
+            }
+            return false;
+        }
+    }
+
+    // ==================== ARCHIVOS ====================
+
+    /**
+     * Escribe cada tabla generada como "material.gtb" en el directorio
+     */
+    public void write(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("No se pudo crear " + directory);
+        }
+        for (Table table : tables.values()) {
+            File file = new File(directory, table.index.name + EndgameTablebase.EXTENSION);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+                TablebaseIndex index = table.index;
+                out.writeInt(EndgameTablebase.MAGIC);
+                out.writeInt(EndgameTablebase.VERSION);
+                out.writeInt(index.pieceCount);
+                out.writeInt(table.maxPlies);
+                for (int i = EndgameTablebase.PIECES_OFFSET; i < EndgameTablebase.HEADER_BYTES; i++) {
+                    int piece = i - EndgameTablebase.PIECES_OFFSET;
+                    // Mismo código de pieza que la posición nativa: tipo + 1 y color en el bit 3
+                    out.writeByte(piece < index.pieceCount ?
+                            (index.types[piece] + 1) | (index.isWhite(piece) ? 0 : 1 << 3) : 0);
+                }
+                out.write(table.values[0]);
+                out.write(table.values[1]);
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: TablebaseGenerator <directorio> <material>... (p. ej. KQvK KRvK KBBvK)");
+            System.exit(1);
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        TablebaseGenerator generator = new TablebaseGenerator(threads);
+        for (int i = 1; i < args.length; i++) {
+            long start = System.nanoTime();
+            generator.generate(args[i]);
+            long[] counts = generator.count(args[i]);
+            System.out.printf("%s: %d ganadas, %d tablas, %d perdidas, máx. %d plies (%d ms, %d hilos)%n",
+                    TablebaseIndex.of(args[i]).name, counts[0], counts[1], counts[2], generator.getMaxPlies(args[i]),
+                    (System.nanoTime() - start) / 1_000_000L, threads);
+        }
+        generator.write(new File(args[0]));
+    }
+}
@@ -0,0 +1,206 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.Arrays;
+
+/**
+ * Numeración de las posiciones de un material sin peones (p. ej. "KQvK") para las tablas
+ * de finales. Lo comparten {@link TablebaseGenerator} y {@link EndgameTablebase}.
+ *
+ * Orden de las piezas: rey blanco, resto de blancas de mayor a menor, rey negro y resto
+ * de negras. El bando blanco es siempre el "más fuerte"; una posición con el material al
+ * revés se consulta intercambiando colores, porque sin peones las reglas son simétricas.
+ *
+ * Simetría: de las 12 del hexágono solo 4 conservan los saltos de la Dama, que incluyen
+ * dos pasos sobre el eje s pero no sobre q ni r. Con ellas el rey blanco se lleva a una de
+ * {@link #KING_SLOTS} celdas representativas; el resto de piezas usa las 91 celdas.
+ */
+final class TablebaseIndex {
+    static final int MAX_PIECES = 4;
+    static final String LETTERS = "PNBRQK"; // por ordinal de PieceType, como en Perft
+
+    private static final int N = HexBoard.CELL_COUNT;
+    private static final int KING = ChessPiece.PieceType.KING.ordinal();
+    private static final int PAWN = ChessPiece.PieceType.PAWN.ordinal();
+
+    /** Celda imagen por simetría: identidad, giro de 180°, (q,r)->(r,q) y (q,r)->(-r,-q) */
+    static final int[][] SYMMETRIES = new int[4][N];
+    static final int KING_SLOTS;
+    private static final int[] KING_SLOT = new int[N];
+    private static final int[] KING_CELL;
+    private static final int[] CANONICAL_SYMMETRY = new int[N];
+
+    static {
+        for (int i = 0; i < N; i++) {
+            int q = HexBoard.qOf(i);
+            int r = HexBoard.rOf(i);
+            SYMMETRIES[0][i] = i;
+            SYMMETRIES[1][i] = HexBoard.indexOf(-q, -r);
+            SYMMETRIES[2][i] = HexBoard.indexOf(r, q);
+            SYMMETRIES[3][i] = HexBoard.indexOf(-r, -q);
+        }
+
+        // Representante de cada órbita: la celda de menor índice
+        int slots = 0;
+        int[] cells = new int[N];
+        for (int i = 0; i < N; i++) {
+            int representative = i;
+            for (int[] symmetry : SYMMETRIES) {
+                representative = Math.min(representative, symmetry[i]);
+            }
+            for (int t = 0; t < SYMMETRIES.length; t++) {
+                if (SYMMETRIES[t][i] == representative) {
+                    CANONICAL_SYMMETRY[i] = t;
+                    break;
+                }
+            }
+            KING_SLOT[i] = representative == i ? slots : -1;
+            if (representative == i) cells[slots++] = i;
+        }
+        KING_SLOTS = slots;
+        KING_CELL = Arrays.copyOf(cells, slots);
+    }
+
+    final String name;
+    /** Ordinal de PieceType de cada pieza, en el orden de la numeración */
+    final int[] types;
+    final int whiteCount;
+    final int pieceCount;
+    /** Posiciones por cada turno */
+    final int sectionSize;
+
+    private TablebaseIndex(int[] white, int[] black) {
+        name = materialName(white, black);
+        pieceCount = white.length + black.length + 2;
+        whiteCount = white.length + 1;
+        types = new int[pieceCount];
+        types[0] = KING;
+        System.arraycopy(white, 0, types, 1, white.length);
+        types[whiteCount] = KING;
+        System.arraycopy(black, 0, types, whiteCount + 1, black.length);
+
+        int size = KING_SLOTS;
+        for (int i = 1; i < pieceCount; i++) {
+            size *= N;
+        }
+        sectionSize = size;
+    }
+
+    /**
+     * Índice para un material escrito como "KQvK" o "KBBvK" (en cualquier orden de piezas y bandos)
+     */
+    static TablebaseIndex of(String material) {
+        String[] sides = material.toUpperCase().split("V");
+        if (sides.length != 2) {
+            throw new IllegalArgumentException("Material inválido: " + material);
+        }
+        int[] white = parseSide(sides[0], material);
+        int[] black = parseSide(sides[1], material);
+        return shouldFlip(white, black) ? of(black, white) : of(white, black);
+    }
+
+    /**
+     * Índice para las piezas sin rey de cada bando, ordenadas de mayor a menor y con
+     * el bando blanco más fuerte (ver {@link #shouldFlip})
+     */
+    static TablebaseIndex of(int[] white, int[] black) {
+        if (white.length + black.length + 2 > MAX_PIECES) {
+            throw new IllegalArgumentException("Máximo " + MAX_PIECES + " piezas: " + materialName(white, black));
+        }
+        return new TablebaseIndex(white, black);
+    }
+
+    private static int[] parseSide(String side, String material) {
+        if (side.isEmpty() || side.charAt(0) != 'K') {
+            throw new IllegalArgumentException("Cada bando empieza por su rey: " + material);
+        }
+        int[] types = new int[side.length() - 1];
+        for (int i = 1; i < side.length(); i++) {
+            int type = LETTERS.indexOf(side.charAt(i));
+            if (type < 0 || type == KING || type == PAWN) {
+                throw new IllegalArgumentException("Pieza no soportada '" + side.charAt(i) + "': " + material);
+            }
+            types[i - 1] = type;
+        }
+        return sortDescending(types);
+    }
+
+    static int[] sortDescending(int[] types) {
+        int[] sorted = types.clone();
+        Arrays.sort(sorted);
+        for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+            int type = sorted[i];
+            sorted[i] = sorted[j];
+            sorted[j] = type;
+        }
+        return sorted;
+    }
+
+    /**
+     * Las tablas guardan como blancas al bando con más piezas (o, a igual número, con
+     * la pieza mayor); devuelve true si hay que intercambiar los bandos dados
+     */
+    static boolean shouldFlip(int[] white, int[] black) {
+        if (white.length != black.length) return black.length > white.length;
+        for (int i = 0; i < white.length; i++) {
+            if (white[i] != black[i]) return black[i] > white[i];
+        }
+        return false;
+    }
+
+    static String materialName(int[] white, int[] black) {
+        StringBuilder name = new StringBuilder("K");
+        for (int type : white) name.append(LETTERS.charAt(type));
+        name.append("vK");
+        for (int type : black) name.append(LETTERS.charAt(type));
+        return name.toString();
+    }
+
+    // ==================== NUMERACIÓN ====================
+
+    /**
+     * Índice dentro de la sección de un turno; las celdas van en el orden de las piezas
+     */
+    int index(int[] cells) {
+        return index(cells, SYMMETRIES[CANONICAL_SYMMETRY[cells[0]]]);
+    }
+
+    /**
+     * Todos los índices con los que está guardada la posición: si el rey blanco queda
+     * sobre un eje de simetría, más de una simetría lo lleva a su representante y la
+     * misma posición aparece varias veces. Devuelve cuántos dejó en indices.
+     */
+    int twins(int[] cells, int[] indices) {
+        int king = cells[0];
+        int representative = SYMMETRIES[CANONICAL_SYMMETRY[king]][king];
+        int count = 0;
+        for (int[] symmetry : SYMMETRIES) {
+            if (symmetry[king] == representative) {
+                indices[count++] = index(cells, symmetry);
+            }
+        }
+        return count;
+    }
+
+    private int index(int[] cells, int[] symmetry) {
+        int index = KING_SLOT[symmetry[cells[0]]];
+        for (int i = 1; i < pieceCount; i++) {
+            index = index * N + symmetry[cells[i]];
+        }
+        return index;
+    }
+
+    /**
+     * Inversa de {@link #index}: devuelve las celdas con el rey blanco en su representante
+     */
+    void decode(int index, int[] cells) {
+        for (int i = pieceCount - 1; i > 0; i--) {
+            cells[i] = index % N;
+            index /= N;
+        }
+        cells[0] = KING_CELL[index];
+    }
+
+    boolean isWhite(int piece) {
+        return piece < whiteCount;
+    }
+}
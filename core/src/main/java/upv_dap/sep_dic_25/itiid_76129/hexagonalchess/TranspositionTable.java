@@ -0,0 +1,125 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.Arrays;
+
+/**
+ * Tabla de transposición de tamaño fijo, compartida sin candados entre hilos de búsqueda.
+ *
+ * Cada entrada son dos longs: (clave XOR datos) y datos. Una escritura concurrente puede
+ * dejar la pareja mezclada, pero entonces la verificación XOR no coincide con la clave y
+ * la lectura se trata como fallo, así que nunca se usa una entrada corrupta.
+ *
+ * Las entradas se agrupan en cubetas de dos. Al guardar se reemplaza la entrada con la
+ * misma clave o, si no hay, la de una búsqueda más antigua o de menor profundidad.
+ */
+public final class TranspositionTable {
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2; // score >= beta (corte)
+    public static final int BOUND_UPPER = 3; // score <= alfa
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int BUCKET_LONGS = 4; // dos entradas de dos longs
+
+    // Datos empaquetados en un long: movimiento 20 bits, puntuación 21 bits con signo,
+    // profundidad 7 bits, tipo de cota 2 bits, edad 8 bits
+    private static final int SCORE_SHIFT = 20;
+    private static final int DEPTH_SHIFT = 41;
+    private static final int BOUND_SHIFT = 48;
+    private static final int AGE_SHIFT = 50;
+    private static final int SCORE_BIAS = 1 << 20;
+
+    private final long[] table;
+    private final long bucketMask;
+    private volatile int age;
+
+    /**
+     * Reserva la mayor potencia de dos de entradas que cabe en el presupuesto de memoria
+     */
+    public TranspositionTable(int megabytes) {
+        long entries = Math.max(2, (long) megabytes * 1024 * 1024 / ENTRY_BYTES);
+        long buckets = Long.highestOneBit(Math.min(entries / 2, Integer.MAX_VALUE / BUCKET_LONGS));
+        table = new long[(int) buckets * BUCKET_LONGS];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * Marca el inicio de una búsqueda nueva; las entradas anteriores pasan a reemplazarse primero
+     */
+    public void newSearch() {
+        age = (age + 1) & 0xFF;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    public int getCapacity() {
+        return table.length / 2;
+    }
+
+    /**
+     * Datos guardados para la clave, o 0 si no hay entrada válida
+     */
+    public long probe(long key) {
+        int bucket = (int) (key & bucketMask) * BUCKET_LONGS;
+        for (int slot = bucket; slot < bucket + BUCKET_LONGS; slot += 2) {
+            long data = table[slot + 1];
+            if ((table[slot] ^ data) == key && data != 0) return data;
+        }
+        return 0;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound) {
+        int bucket = (int) (key & bucketMask) * BUCKET_LONGS;
+        int currentAge = age;
+
+        int victim = bucket;
+        int victimWorth = Integer.MAX_VALUE;
+        for (int slot = bucket; slot < bucket + BUCKET_LONGS; slot += 2) {
+            long data = table[slot + 1];
+            if ((table[slot] ^ data) == key) {
+                // Misma posición: conservar el movimiento si la búsqueda nueva no trae uno
+                if (move == Move.NONE) move = move(data);
+                victim = slot;
+                break;
+            }
+            // Cada búsqueda de antigüedad pesa como 8 niveles de profundidad
+            int worth = depth(data) - 8 * ((currentAge - age(data)) & 0xFF);
+            if (worth < victimWorth) {
+                victimWorth = worth;
+                victim = slot;
+            }
+        }
+
+        long data = (move & 0xFFFFFL)
+                | ((long) (score + SCORE_BIAS) << SCORE_SHIFT)
+                | ((long) Math.min(depth, 127) << DEPTH_SHIFT)
+                | ((long) bound << BOUND_SHIFT)
+                | ((long) currentAge << AGE_SHIFT);
+        table[victim] = key ^ data;
+        table[victim + 1] = data;
+    }
+
+    // ==================== LECTURA DE DATOS ====================
+
+    public static int move(long data) {
+        return (int) (data & 0xFFFFF);
+    }
+
+    public static int score(long data) {
+        return (int) ((data >>> SCORE_SHIFT) & 0x1FFFFF) - SCORE_BIAS;
+    }
+
+    public static int depth(long data) {
+        return (int) ((data >>> DEPTH_SHIFT) & 0x7F);
+    }
+
+    public static int bound(long data) {
+        return (int) ((data >>> BOUND_SHIFT) & 0x3);
+    }
+
+    private static int age(long data) {
+        return (int) ((data >>> AGE_SHIFT) & 0xFF);
+    }
+}
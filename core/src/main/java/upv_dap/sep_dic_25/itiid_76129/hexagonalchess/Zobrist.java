@@ -0,0 +1,61 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+/**
+ * Claves Zobrist de 64 bits para posiciones Gliński: pieza/celda, turno y celda de
+ * captura al paso. Las claves salen de una semilla fija para que el mismo tablero
+ * tenga el mismo hash en cualquier dispositivo (libros de aperturas, partidas guardadas).
+ */
+public final class Zobrist {
+    private static final int COLORS = ChessPiece.PieceColor.values().length;
+    private static final int TYPES = ChessPiece.PieceType.values().length;
+
+    private static final long[] PIECE = new long[COLORS * TYPES * HexBoard.CELL_COUNT];
+    private static final long[] EN_PASSANT = new long[HexBoard.CELL_COUNT];
+    public static final long BLACK_TO_MOVE;
+
+    static {
+        long seed = 0x476C696E736B6921L; // "Glinski!"
+        for (int i = 0; i < PIECE.length; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            PIECE[i] = mix(seed);
+        }
+        for (int i = 0; i < EN_PASSANT.length; i++) {
+            seed += 0x9E3779B97F4A7C15L;
+            EN_PASSANT[i] = mix(seed);
+        }
+        seed += 0x9E3779B97F4A7C15L;
+        BLACK_TO_MOVE = mix(seed);
+    }
+
+    private Zobrist() {}
+
+    // splitmix64
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    public static long piece(ChessPiece piece, int index) {
+        return PIECE[(piece.getColor().ordinal() * TYPES + piece.getType().ordinal()) * HexBoard.CELL_COUNT + index];
+    }
+
+    public static long enPassant(int index) {
+        return EN_PASSANT[index];
+    }
+
+    /**
+     * Calcula el hash desde cero; HexBoard lo mantiene de forma incremental,
+     * esto sirve para verificarlo o para posiciones sueltas
+     */
+    public static long hash(HexBoard board) {
+        long hash = 0;
+        for (int i = 0; i < HexBoard.CELL_COUNT; i++) {
+            ChessPiece piece = board.getCell(i).getPiece();
+            if (piece != null) hash ^= piece(piece, i);
+        }
+        if (board.getSideToMove() != ChessPiece.PieceColor.WHITE) hash ^= BLACK_TO_MOVE;
+        if (board.getEnPassantIndex() >= 0) hash ^= enPassant(board.getEnPassantIndex());
+        return hash;
+    }
+}
@@ -0,0 +1,164 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class EndgameTablebaseTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static EndgameTablebase tablebase;
+
+    @BeforeClass
+    public static void generateTables() throws IOException {
+        TablebaseGenerator generator = new TablebaseGenerator(2);
+        generator.generate("KQvK");
+        generator.generate("KNvK");
+        File directory = folder.newFolder("tablas");
+        generator.write(directory);
+        tablebase = EndgameTablebase.open(directory);
+    }
+
+    @Test
+    public void symmetriesPreserveMoves() {
+        for (int[] symmetry : TablebaseIndex.SYMMETRIES) {
+            for (int from = 0; from < HexBoard.CELL_COUNT; from++) {
+                assertEquals(targets(AttackTables.QUEEN_JUMP_TARGETS[from], symmetry),
+                        sorted(AttackTables.QUEEN_JUMP_TARGETS[symmetry[from]]));
+                assertEquals(targets(AttackTables.KNIGHT_TARGETS[from], symmetry),
+                        sorted(AttackTables.KNIGHT_TARGETS[symmetry[from]]));
+            }
+        }
+    }
+
+    @Test
+    public void probeAgreesWithLegalMoves() {
+        Random random = new Random(76129);
+        checkRandomPositions(random, "KQvK", 1500);
+        checkRandomPositions(random, "KNvK", 500);
+        checkRandomPositions(random, "KvKQ", 500);
+    }
+
+    @Test
+    public void mateDistanceMatchesSearch() {
+        Random random = new Random(5);
+        int checked = 0;
+        for (int attempt = 0; attempt < 20000 && checked < 5; attempt++) {
+            HexBoard board = randomPosition(random, "KQvK");
+            int score = board == null ? EndgameTablebase.NOT_FOUND : tablebase.probe(board);
+            if (score != SearchEngine.MATE - 3) continue;
+
+            HexBoard copy = new HexBoard();
+            copy.copyFrom(board);
+            SearchEngine.SearchResult result = new SearchEngine(copy).search(60_000, 4);
+            assertEquals(score, result.score);
+
+            // Con las tablas en las hojas basta un nivel para ver el mate
+            SearchEngine engine = new SearchEngine(copy);
+            engine.setTablebase(tablebase);
+            assertEquals(score, engine.search(60_000, 1).score);
+
+            board.makeMove(tablebase.bestMove(board));
+            assertEquals(-(SearchEngine.MATE - 2), tablebase.probe(board));
+            checked++;
+        }
+        assertEquals(5, checked);
+    }
+
+    @Test
+    public void missingMaterialIsNotFound() {
+        assertEquals(EndgameTablebase.NOT_FOUND, tablebase.probe(new HexBoard()));
+        assertTrue(tablebase.contains("KvKQ"));
+        assertFalse(tablebase.contains("KRvK"));
+        assertEquals(3, tablebase.getMaxPieces());
+    }
+
+    /**
+     * Cada valor debe salir de los de sus sucesores: el mejor para el que mueve
+     */
+    private static void checkRandomPositions(Random random, String material, int count) {
+        int checked = 0;
+        while (checked < count) {
+            HexBoard board = randomPosition(random, material);
+            if (board == null) continue;
+
+            int score = tablebase.probe(board);
+            assertNotEquals(EndgameTablebase.NOT_FOUND, score);
+
+            MoveList moves = new MoveList();
+            new MoveValidator(board).generateLegalMoves(board.getSideToMove(), moves);
+            int best = -SearchEngine.MATE;
+            for (int i = 0; i < moves.size(); i++) {
+                board.makeMove(moves.get(i));
+                int reply = tablebase.probe(board);
+                board.unmakeMove();
+                assertNotEquals(EndgameTablebase.NOT_FOUND, reply);
+                best = Math.max(best, EndgameTablebase.parentScore(reply));
+            }
+            assertEquals(material + " " + describe(board), best, score);
+            checked++;
+        }
+    }
+
+    /**
+     * Posición al azar con el material dado y turno al azar, o null si no es legal
+     */
+    private static HexBoard randomPosition(Random random, String material) {
+        HexBoard board = new HexBoard();
+        board.clear();
+        ChessPiece.PieceColor color = ChessPiece.PieceColor.WHITE;
+        for (char letter : material.toCharArray()) {
+            if (letter == 'v') {
+                color = ChessPiece.PieceColor.BLACK;
+                continue;
+            }
+            HexCell cell = board.getCell(random.nextInt(HexBoard.CELL_COUNT));
+            if (cell.getPiece() != null) return null;
+            cell.setPiece(new ChessPiece(ChessPiece.PieceType.values()[TablebaseIndex.LETTERS.indexOf(letter)], color));
+        }
+
+        ChessPiece.PieceColor side = random.nextBoolean() ? ChessPiece.PieceColor.WHITE : ChessPiece.PieceColor.BLACK;
+        board.setSideToMove(side);
+        ChessPiece.PieceColor other = side == ChessPiece.PieceColor.WHITE ?
+                ChessPiece.PieceColor.BLACK : ChessPiece.PieceColor.WHITE;
+        return new MoveValidator(board).isInCheck(other) ? null : board;
+    }
+
+    private static String describe(HexBoard board) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < HexBoard.CELL_COUNT; i++) {
+            ChessPiece piece = board.getCell(i).getPiece();
+            if (piece == null) continue;
+            text.append(TablebaseIndex.LETTERS.charAt(piece.getType().ordinal()))
+                    .append(piece.getColor() == ChessPiece.PieceColor.WHITE ? 'w' : 'b')
+                    .append('@').append(HexBoard.qOf(i)).append(',').append(HexBoard.rOf(i)).append(' ');
+        }
+        return text.append(board.getSideToMove() == ChessPiece.PieceColor.WHITE ? 'w' : 'b').toString();
+    }
+
+    private static List<Integer> targets(int[] cells, int[] symmetry) {
+        int[] mapped = new int[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            mapped[i] = symmetry[cells[i]];
+        }
+        return sorted(mapped);
+    }
+
+    private static List<Integer> sorted(int[] cells) {
+        List<Integer> list = new ArrayList<>();
+        for (int cell : cells) list.add(cell);
+        Collections.sort(list);
+        return list;
+    }
+}
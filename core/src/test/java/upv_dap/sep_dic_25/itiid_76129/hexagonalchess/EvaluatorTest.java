@@ -0,0 +1,62 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class EvaluatorTest {
+
+    @Test
+    public void incrementalMatchesFullRescan() {
+        Random random = new Random(76129);
+        HexBoard board = new HexBoard();
+        MoveValidator validator = new MoveValidator(board);
+        MoveList moves = new MoveList();
+
+        for (int game = 0; game < 60; game++) {
+            board.copyFrom(new HexBoard());
+            int initial = Evaluator.evaluate(board);
+
+            int played = 0;
+            for (; played < 150; played++) {
+                moves.clear();
+                validator.generateLegalMoves(board.getSideToMove(), moves);
+                if (moves.isEmpty()) break;
+
+                // Cada jugada se prueba y se deshace antes de jugar una al azar
+                for (int i = 0; i < moves.size(); i++) {
+                    int before = Evaluator.evaluate(board);
+                    board.makeMove(moves.get(i));
+                    assertEquals(Evaluator.evaluateFull(board), Evaluator.evaluate(board));
+                    board.unmakeMove();
+                    assertEquals(before, Evaluator.evaluate(board));
+                }
+                board.makeMove(moves.get(random.nextInt(moves.size())));
+            }
+
+            while (played-- > 0) board.unmakeMove();
+            assertEquals(initial, Evaluator.evaluate(board));
+        }
+    }
+
+    @Test
+    public void pawnStructureAndKingZone() {
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, "Kw@-1,5 Kb@4,-5 Pw@0,1 Pw@0,2 Pw@3,1 Rb@-1,0 w");
+
+        assertEquals(1, board.getDoubledPawns(ChessPiece.PieceColor.WHITE));
+        assertEquals(3, board.getIsolatedPawns(ChessPiece.PieceColor.WHITE));
+        // La torre negra ve la celda del rey y la adyacente (-1,4) por la columna q = -1
+        assertEquals(2, board.getKingZoneAttacks(ChessPiece.PieceColor.WHITE));
+        assertEquals(0, board.getKingZoneAttacks(ChessPiece.PieceColor.BLACK));
+        assertEquals(Evaluator.evaluateFull(board), Evaluator.evaluate(board));
+
+        // Un peón blanco en medio tapa la columna
+        board.getCell(-1, 3).setPiece(new ChessPiece(ChessPiece.PieceType.PAWN, ChessPiece.PieceColor.WHITE));
+        assertEquals(1, board.getIsolatedPawns(ChessPiece.PieceColor.WHITE));
+        assertEquals(0, board.getKingZoneAttacks(ChessPiece.PieceColor.WHITE));
+        assertEquals(Evaluator.evaluateFull(board), Evaluator.evaluate(board));
+    }
+}
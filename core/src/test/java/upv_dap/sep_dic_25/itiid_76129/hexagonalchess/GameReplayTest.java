@@ -0,0 +1,189 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GameReplayTest {
+
+    @Test
+    public void readersFollowTheMoveLog() {
+        GameState stored = new GameState("TEST01");
+        stored.copyPiecesFrom(new HexBoard());
+
+        GameReplay writer = new GameReplay(new HexBoard());
+        GameReplay reader = new GameReplay(new HexBoard());
+        writer.sync(stored);
+        reader.sync(stored);
+
+        Random random = new Random(76129);
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply < 45; ply++) {
+            moves.clear();
+            new MoveValidator(writer.getBoard()).generateLegalMoves(writer.getBoard().getSideToMove(), moves);
+            if (moves.isEmpty()) break;
+
+            Map<String, Object> updates = writer.recordMove(moves.get(random.nextInt(moves.size())));
+            // Una jugada escribe su registro y el turno; la foto solo cada SNAPSHOT_INTERVAL
+            assertEquals(writer.getPly() % GameReplay.SNAPSHOT_INTERVAL == 0, updates.containsKey("board"));
+            write(stored, updates);
+
+            assertEquals(1, reader.sync(stored));
+            assertEquals(writer.getBoard().getHash(), reader.getBoard().getHash());
+            assertEquals(0, writer.sync(stored));
+        }
+
+        // Quien llega tarde parte de la última foto
+        GameReplay late = new GameReplay(new HexBoard());
+        assertEquals(5, late.sync(stored));
+        assertEquals(45, late.getPly());
+        assertEquals(writer.getBoard().getHash(), late.getBoard().getHash());
+    }
+
+    @Test
+    public void firstMoveMigratesLegacyBoard() {
+        // Partida guardada con el mapa de piezas, sin foto ni registro
+        Map<String, GameState.PieceData> pieces = new HashMap<>();
+        for (Map.Entry<String, HexCell> entry : new HexBoard().getAllCells().entrySet()) {
+            if (entry.getValue().getPiece() != null) {
+                pieces.put(entry.getKey(), new GameState.PieceData(entry.getValue().getPiece()));
+            }
+        }
+        GameState stored = new GameState("TEST01");
+        stored.setPieces(pieces);
+
+        GameReplay replay = new GameReplay(new HexBoard());
+        replay.sync(stored);
+        MoveList moves = new MoveList();
+        new MoveValidator(replay.getBoard()).generateLegalMoves(ChessPiece.PieceColor.WHITE, moves);
+        Map<String, Object> updates = replay.recordMove(moves.get(0));
+
+        assertTrue(updates.containsKey("board"));
+        assertTrue(updates.containsKey("pieces"));
+        assertNull(updates.get("pieces"));
+        assertEquals(1, updates.get("snapshotPly"));
+        assertEquals("black", updates.get("currentTurn"));
+    }
+
+    @Test
+    public void rejectsIllegalLoggedMove() {
+        GameState stored = new GameState("TEST01");
+        stored.copyPiecesFrom(new HexBoard());
+        stored.setMoves(new ArrayList<>());
+        stored.getMoves().add(Move.encode(0, 1, 0));
+
+        GameReplay replay = new GameReplay(new HexBoard());
+        try {
+            replay.sync(stored);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertEquals(-1, replay.getPly());
+        }
+    }
+
+    @Test
+    public void pendingMovesAreConfirmedOrRolledBack() {
+        GameState stored = new GameState("TEST01");
+        stored.copyPiecesFrom(new HexBoard());
+        GameReplay server = new GameReplay(new HexBoard());
+        GameReplay local = new GameReplay(new HexBoard());
+        server.sync(stored);
+        local.sync(stored);
+        long before = local.getBoard().getHash();
+
+        MoveList moves = new MoveList();
+        new MoveValidator(local.getBoard()).generateLegalMoves(ChessPiece.PieceColor.WHITE, moves);
+
+        // El eco de la propia jugada la confirma sin tocar el tablero
+        local.applyPending(moves.get(0));
+        long shown = local.getBoard().getHash();
+        assertEquals(ChessPiece.PieceColor.BLACK, local.getBoard().getSideToMove());
+        write(stored, server.recordMove(moves.get(0)));
+        assertEquals(0, local.sync(stored));
+        assertEquals(0, local.getPendingCount());
+        assertEquals(1, local.getPly());
+        assertEquals(shown, local.getBoard().getHash());
+
+        // Otra jugada llegó antes (otro dispositivo): la pendiente se deshace
+        moves.clear();
+        new MoveValidator(local.getBoard()).generateLegalMoves(ChessPiece.PieceColor.BLACK, moves);
+        local.applyPending(moves.get(0));
+        write(stored, server.recordMove(moves.get(1)));
+        assertEquals(1, local.sync(stored));
+        assertEquals(0, local.getPendingCount());
+        assertEquals(server.getBoard().getHash(), local.getBoard().getHash());
+
+        // Escritura rechazada
+        moves.clear();
+        new MoveValidator(local.getBoard()).generateLegalMoves(ChessPiece.PieceColor.WHITE, moves);
+        long confirmed = local.getBoard().getHash();
+        local.applyPending(moves.get(0));
+        local.rollbackPending();
+        assertEquals(confirmed, local.getBoard().getHash());
+        assertEquals(0, local.sync(stored));
+        assertNotEquals(before, confirmed);
+    }
+
+    @Test
+    public void tracksChangedCells() {
+        GameState stored = new GameState("TEST01");
+        stored.copyPiecesFrom(new HexBoard());
+        GameReplay writer = new GameReplay(new HexBoard());
+        GameReplay reader = new GameReplay(new HexBoard());
+        writer.sync(stored);
+        reader.sync(stored);
+        assertEquals(HexBoard.CELL_COUNT, Bitboard.count(reader.getChangedLo(), reader.getChangedHi()));
+
+        // Tras cada jugada solo cambian las celdas cuyo contenido difiere
+        Random random = new Random(7);
+        MoveList moves = new MoveList();
+        for (int ply = 0; ply < 30; ply++) {
+            HexBoard before = new HexBoard();
+            before.copyFrom(reader.getBoard());
+            moves.clear();
+            new MoveValidator(writer.getBoard()).generateLegalMoves(writer.getBoard().getSideToMove(), moves);
+            if (moves.isEmpty()) break;
+            int move = moves.get(random.nextInt(moves.size()));
+            write(stored, writer.recordMove(move));
+
+            reader.clearChanges();
+            reader.sync(stored);
+            for (int i = 0; i < HexBoard.CELL_COUNT; i++) {
+                boolean changed = Bitboard.isSet(reader.getChangedLo(), reader.getChangedHi(), i);
+                ChessPiece a = before.getCell(i).getPiece();
+                ChessPiece b = reader.getBoard().getCell(i).getPiece();
+                boolean differs = a == null ? b != null
+                        : b == null || a.getType() != b.getType() || a.getColor() != b.getColor();
+                assertEquals(differs || i == Move.to(move), changed);
+            }
+        }
+    }
+
+    /**
+     * Lo que haría updateChildren sobre el nodo de la partida
+     */
+    private static void write(GameState state, Map<String, Object> updates) {
+        for (Map.Entry<String, Object> entry : updates.entrySet()) {
+            String path = entry.getKey();
+            Object value = entry.getValue();
+            if (path.startsWith("moves/")) {
+                if (state.getMoves() == null) state.setMoves(new ArrayList<>());
+                assertEquals(state.getMoves().size(), Integer.parseInt(path.substring(6)));
+                state.getMoves().add((Integer) value);
+            } else if (path.equals("board")) {
+                state.setBoard((String) value);
+            } else if (path.equals("snapshotPly")) {
+                state.setSnapshotPly((Integer) value);
+            } else if (path.equals("currentTurn")) {
+                state.setCurrentTurn((String) value);
+            } else if (path.equals("pieces")) {
+                state.setPieces(null);
+            }
+        }
+    }
+}
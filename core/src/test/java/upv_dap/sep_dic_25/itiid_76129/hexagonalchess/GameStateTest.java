@@ -0,0 +1,91 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Test;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class GameStateTest {
+
+    @Test
+    public void compactBoardRoundTrips() {
+        Random random = new Random(76129);
+        HexBoard board = new HexBoard();
+        MoveValidator validator = new MoveValidator(board);
+        MoveList moves = new MoveList();
+        HexBoard decoded = new HexBoard();
+
+        for (int ply = 0; ply < 200; ply++) {
+            GameState state = new GameState("TEST01");
+            state.copyPiecesFrom(board);
+            assertNull(state.getPieces());
+
+            state.applyPiecesTo(decoded);
+            for (int i = 0; i < HexBoard.CELL_COUNT; i++) {
+                ChessPiece expected = board.getCell(i).getPiece();
+                ChessPiece actual = decoded.getCell(i).getPiece();
+                assertEquals(expected == null, actual == null);
+                if (expected == null) continue;
+                assertEquals(expected.getType(), actual.getType());
+                assertEquals(expected.getColor(), actual.getColor());
+                assertEquals(expected.hasMoved(), actual.hasMoved());
+            }
+
+            moves.clear();
+            validator.generateLegalMoves(board.getSideToMove(), moves);
+            if (moves.isEmpty()) board = new HexBoard();
+            else board.makeMove(moves.get(random.nextInt(moves.size())));
+            validator = new MoveValidator(board);
+        }
+    }
+
+    @Test
+    public void base64MatchesJdk() {
+        Random random = new Random(1);
+        for (int length = 0; length < 40; length++) {
+            byte[] bytes = new byte[length];
+            random.nextBytes(bytes);
+            String text = PositionCodec.toBase64(bytes);
+            assertEquals(Base64.getEncoder().encodeToString(bytes), text);
+            assertArrayEquals(bytes, PositionCodec.fromBase64(text));
+        }
+    }
+
+    @Test
+    public void migratesLegacyPieces() {
+        HexBoard board = new HexBoard();
+        Map<String, GameState.PieceData> pieces = new HashMap<>();
+        for (Map.Entry<String, HexCell> entry : board.getAllCells().entrySet()) {
+            if (entry.getValue().getPiece() != null) {
+                pieces.put(entry.getKey(), new GameState.PieceData(entry.getValue().getPiece()));
+            }
+        }
+        GameState legacy = new GameState("TEST01");
+        legacy.setPieces(pieces);
+
+        HexBoard fromLegacy = new HexBoard();
+        fromLegacy.clear();
+        legacy.applyPiecesTo(fromLegacy);
+        assertEquals(board.getHash(), fromLegacy.getHash());
+
+        assertTrue(legacy.migratePieces());
+        assertFalse(legacy.migratePieces());
+        assertNull(legacy.getPieces());
+        HexBoard migrated = new HexBoard();
+        migrated.clear();
+        legacy.applyPiecesTo(migrated);
+        assertEquals(board.getHash(), migrated.getHash());
+
+        // 36 piezas: 4 + 36 * 2 bytes frente a decenas de bytes por pieza en el mapa
+        assertEquals(104, legacy.getBoard().length());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownVersion() {
+        PositionCodec.decode(PositionCodec.toBase64(new byte[]{3, 0, 0, 0}), new HexBoard());
+    }
+}
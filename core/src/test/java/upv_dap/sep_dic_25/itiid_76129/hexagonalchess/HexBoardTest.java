@@ -0,0 +1,94 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class HexBoardTest {
+    private static final String KNIGHTS = "Kw@-1,5 Kb@4,-5 Nw@0,0 Nb@0,-3 Pw@-3,4 Pb@2,1 w";
+
+    @Test
+    public void knightShuffleReachesThreefoldRepetition() {
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, KNIGHTS);
+        assertEquals(1, board.getRepetitionCount());
+
+        play(board, "0,0", "1,2");
+        assertEquals(1, board.getRepetitionCount());
+        play(board, "0,-3", "1,-1");
+        play(board, "1,2", "0,0");
+        play(board, "1,-1", "0,-3");
+        assertEquals(2, board.getRepetitionCount());
+        assertFalse(board.isThreefoldRepetition());
+
+        shuffle(board);
+        assertEquals(3, board.getRepetitionCount());
+        assertTrue(board.isThreefoldRepetition());
+
+        // Deshacer la última jugada vuelve a la cuenta anterior
+        board.unmakeMove();
+        assertEquals(2, board.getRepetitionCount());
+    }
+
+    @Test
+    public void pawnPushResetsRepetitionCount() {
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, KNIGHTS);
+        shuffle(board);
+        assertEquals(2, board.getRepetitionCount());
+
+        play(board, "-3,4", "-3,3");
+        assertEquals(0, board.getHalfmoveClock());
+        assertEquals(1, board.getRepetitionCount());
+
+        // Dos vueltas más solo repiten la posición posterior al avance
+        play(board, "0,-3", "1,-1");
+        play(board, "0,0", "1,2");
+        play(board, "1,-1", "0,-3");
+        play(board, "1,2", "0,0");
+        assertEquals(4, board.getHalfmoveClock());
+        assertEquals(2, board.getRepetitionCount());
+        assertFalse(board.isThreefoldRepetition());
+    }
+
+    @Test
+    public void captureResetsRepetitionCount() {
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, KNIGHTS);
+        shuffle(board);
+        assertEquals(2, board.getRepetitionCount());
+
+        play(board, "0,0", "2,1"); // captura el peón negro
+        assertEquals(0, board.getHalfmoveClock());
+        assertEquals(1, board.getRepetitionCount());
+
+        play(board, "0,-3", "1,-1");
+        play(board, "2,1", "0,0");
+        play(board, "1,-1", "0,-3");
+        play(board, "0,0", "2,1");
+        assertEquals(2, board.getRepetitionCount());
+        assertFalse(board.isThreefoldRepetition());
+    }
+
+    // ==================== AUXILIARES ====================
+
+    /**
+     * Una vuelta completa de los caballos que deja la posición como estaba
+     */
+    private static void shuffle(HexBoard board) {
+        play(board, "0,0", "1,2");
+        play(board, "0,-3", "1,-1");
+        play(board, "1,2", "0,0");
+        play(board, "1,-1", "0,-3");
+    }
+
+    private static void play(HexBoard board, String from, String to) {
+        String[] f = from.split(",");
+        String[] t = to.split(",");
+        int move = new MoveValidator(board).findLegalMove(
+                board.getCell(Integer.parseInt(f[0]), Integer.parseInt(f[1])),
+                board.getCell(Integer.parseInt(t[0]), Integer.parseInt(t[1])));
+        assertNotEquals(from + "->" + to, Move.NONE, move);
+        board.makeMove(move);
+    }
+}
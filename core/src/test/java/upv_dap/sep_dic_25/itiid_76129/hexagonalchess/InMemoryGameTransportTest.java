@@ -0,0 +1,259 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class InMemoryGameTransportTest {
+
+    /**
+     * Jugador automático: en cada actualización en la que le toca, hace una jugada
+     * legal al azar desde el propio callback
+     */
+    private static final class Bot implements GameTransport.OnGameUpdateListener {
+        final GameTransport transport;
+        final GameReplay replay = new GameReplay(new HexBoard());
+        final Random random;
+        final int maxPlies;
+        final List<String> errors = new ArrayList<>();
+        int updates;
+
+        Bot(GameTransport transport, long seed, int maxPlies) {
+            this.transport = transport;
+            this.random = new Random(seed);
+            this.maxPlies = maxPlies;
+        }
+
+        @Override
+        public void onGameUpdate(GameState gameState) {
+            updates++;
+            replay.sync(gameState);
+            boolean white = transport.getPlayerId().equals(gameState.getWhitePlayerId());
+            if (!"playing".equals(gameState.getStatus()) || replay.getPly() >= maxPlies
+                    || !gameState.getCurrentTurn().equals(white ? "white" : "black")) {
+                return;
+            }
+
+            MoveList moves = new MoveList();
+            new MoveValidator(replay.getBoard()).generateLegalMoves(replay.getBoard().getSideToMove(), moves);
+            int move = moves.get(random.nextInt(moves.size()));
+            transport.makeMove(key(Move.from(move)), key(Move.to(move)), new GameTransport.OnMoveCompleteListener() {
+                @Override
+                public void onMoveComplete() {}
+
+                @Override
+                public void onError(String error) {
+                    errors.add(error);
+                }
+            });
+        }
+
+        @Override
+        public void onError(String error) {
+            errors.add(error);
+        }
+    }
+
+    @Test
+    public void botsPlayThroughCallbacks() {
+        assertArrayEquals(playGame(42), playGame(42));
+    }
+
+    private static Object[] playGame(long seed) {
+        InMemoryGameServer server = new InMemoryGameServer();
+        GameTransport white = server.connect();
+        GameTransport black = server.connect();
+        String[] created = new String[1];
+        white.createGame(new GameTransport.OnGameCreatedListener() {
+            @Override
+            public void onGameCreated(String gameId) {
+                created[0] = gameId;
+            }
+
+            @Override
+            public void onError(String error) {
+                fail(error);
+            }
+        });
+        assertNotNull(created[0]);
+
+        Bot whiteBot = new Bot(white, seed, 80);
+        Bot blackBot = new Bot(black, seed + 1, 80);
+        white.listenToGame(whiteBot);
+        black.joinGame(created[0], joined(true));
+        black.listenToGame(blackBot);
+
+        // La unión disparó la primera jugada del blanco y la partida se jugó entera en este hilo
+        GameState stored = server.read(created[0]);
+        int plies = stored.getMoves().size();
+        assertTrue(plies == 80 || "finished".equals(stored.getStatus()));
+        assertTrue(whiteBot.errors.isEmpty());
+        assertTrue(blackBot.errors.isEmpty());
+        assertEquals(plies, whiteBot.replay.getPly());
+        assertEquals(plies, blackBot.replay.getPly());
+        assertEquals(whiteBot.replay.getBoard().getHash(), blackBot.replay.getBoard().getHash());
+        // Cada cliente ve cada escritura una vez: el estado inicial, la unión y las jugadas
+        assertEquals(plies + 2, whiteBot.updates);
+        return stored.getMoves().toArray();
+    }
+
+    @Test
+    public void callbacksOfAGameNeverOverlapOnAThreadPool() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        InMemoryGameServer server = new InMemoryGameServer(pool);
+        GameTransport white = server.connect();
+        GameTransport black = server.connect();
+        BlockingQueue<String> created = new LinkedBlockingQueue<>();
+        white.createGame(new GameTransport.OnGameCreatedListener() {
+            @Override
+            public void onGameCreated(String gameId) {
+                created.add(gameId);
+            }
+
+            @Override
+            public void onError(String error) {
+                created.add("error: " + error);
+            }
+        });
+        String gameId = created.poll(5, TimeUnit.SECONDS);
+
+        // Los dos jugadores comparten la cola de la partida: nunca dos callbacks a la vez
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger overlaps = new AtomicInteger();
+        Bot whiteBot = new Bot(white, 3, 60);
+        Bot blackBot = new Bot(black, 4, 60);
+        white.listenToGame(serialCheck(whiteBot, active, overlaps));
+        black.joinGame(gameId, joined(true));
+        black.listenToGame(serialCheck(blackBot, active, overlaps));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        GameState stored = server.read(gameId);
+        while (plies(stored) < 60 && !"finished".equals(stored.getStatus())
+                && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            stored = server.read(gameId);
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.SECONDS));
+
+        int plies = plies(stored);
+        assertTrue(plies == 60 || "finished".equals(stored.getStatus()));
+        assertEquals(0, overlaps.get());
+        assertTrue(whiteBot.errors.isEmpty());
+        assertTrue(blackBot.errors.isEmpty());
+        assertEquals(plies, whiteBot.replay.getPly());
+        assertEquals(plies, blackBot.replay.getPly());
+        assertEquals(whiteBot.replay.getBoard().getHash(), blackBot.replay.getBoard().getHash());
+    }
+
+    private static int plies(GameState state) {
+        return state.getMoves() != null ? state.getMoves().size() : 0; // sin jugadas aún
+    }
+
+    private static GameTransport.OnGameUpdateListener serialCheck(GameTransport.OnGameUpdateListener listener,
+                                                                  AtomicInteger active, AtomicInteger overlaps) {
+        return new GameTransport.OnGameUpdateListener() {
+            @Override
+            public void onGameUpdate(GameState gameState) {
+                if (active.incrementAndGet() > 1) overlaps.incrementAndGet();
+                try {
+                    Thread.yield();
+                    listener.onGameUpdate(gameState);
+                } finally {
+                    active.decrementAndGet();
+                }
+            }
+
+            @Override
+            public void onError(String error) {
+                listener.onError(error);
+            }
+        };
+    }
+
+    @Test
+    public void enforcesJoinAndTurnRules() {
+        InMemoryGameServer server = new InMemoryGameServer();
+        GameTransport white = server.connect();
+        GameTransport black = server.connect();
+        GameTransport third = server.connect();
+        white.createGame(new GameTransport.OnGameCreatedListener() {
+            @Override
+            public void onGameCreated(String gameId) {}
+
+            @Override
+            public void onError(String error) {
+                fail(error);
+            }
+        });
+        String gameId = white.getCurrentGameId();
+
+        third.joinGame("NOEXISTE", joined(false));
+        black.joinGame(gameId, joined(true));
+        third.joinGame(gameId, joined(false));
+        black.joinGame(gameId, joined(true)); // volver a entrar
+
+        List<String> errors = new ArrayList<>();
+        GameTransport.OnGameUpdateListener ignore = new GameTransport.OnGameUpdateListener() {
+            @Override
+            public void onGameUpdate(GameState gameState) {}
+
+            @Override
+            public void onError(String error) {
+                errors.add(error);
+            }
+        };
+        white.listenToGame(ignore);
+        black.listenToGame(ignore);
+        assertEquals("playing", white.getCurrentGameState().getStatus());
+
+        GameTransport.OnMoveCompleteListener collect = new GameTransport.OnMoveCompleteListener() {
+            @Override
+            public void onMoveComplete() {
+                errors.add("ok");
+            }
+
+            @Override
+            public void onError(String error) {
+                errors.add(error);
+            }
+        };
+        black.makeMove("0,-4", "0,-3", collect);
+        white.makeMove("0,0", "0,1", collect);
+        third.makeMove("0,1", "0,2", collect);
+        white.makeMove("0,1", "0,0", collect);
+        assertEquals("No es tu turno", errors.get(0));
+        assertEquals("No hay pieza en la posición origen", errors.get(1));
+        assertEquals("No hay partida activa", errors.get(2));
+        assertEquals("ok", errors.get(3));
+        assertEquals("black", black.getCurrentGameState().getCurrentTurn());
+    }
+
+    private static String key(int index) {
+        return HexBoard.qOf(index) + "," + HexBoard.rOf(index);
+    }
+
+    private static GameTransport.OnGameJoinedListener joined(boolean expected) {
+        return new GameTransport.OnGameJoinedListener() {
+            @Override
+            public void onGameJoined(String gameId) {
+                assertTrue(expected);
+            }
+
+            @Override
+            public void onError(String error) {
+                assertFalse(error, expected);
+            }
+        };
+    }
+}
@@ -0,0 +1,280 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class MoveTransactionTest {
+    private static final String WHITE = "WHITE1";
+    private static final String BLACK = "BLACK1";
+
+    /**
+     * Sustituto en memoria del nodo de la partida: la transacción se calcula sobre una
+     * copia y solo se guarda si nadie escribió entretanto; si no, se repite con el
+     * estado nuevo, como hace runTransaction. Pasa por MoveTransaction.Commit igual que
+     * FirebaseManager e InMemoryGameTransport.
+     */
+    private static final class GameNode {
+        private GameState state;
+        private long version;
+        private boolean failNextWrite; // la próxima escritura se pierde (red o servidor)
+
+        GameNode(GameState state) {
+            this.state = state;
+        }
+
+        synchronized GameState read() {
+            return copy(state);
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized boolean compareAndSet(long expected, GameState next) {
+            if (failNextWrite) {
+                failNextWrite = false;
+                throw new IllegalStateException("Escritura perdida");
+            }
+            if (version != expected) return false;
+            state = copy(next);
+            version++;
+            return true;
+        }
+
+        /**
+         * Devuelve null si la jugada quedó guardada o el motivo del rechazo. La primera
+         * pasada usa la copia local del cliente, aunque esté atrasada.
+         */
+        String transact(MoveTransaction transaction, GameState cached, long cachedVersion,
+                        String playerId, int from, int to) {
+            MoveTransaction.Commit commit = transaction.commit(playerId, from, to);
+            String[] outcome = new String[1];
+            GameTransport.OnMoveCompleteListener listener = new GameTransport.OnMoveCompleteListener() {
+                @Override
+                public void onMoveComplete() {
+                    outcome[0] = null;
+                }
+
+                @Override
+                public void onError(String error) {
+                    outcome[0] = error;
+                }
+            };
+
+            GameState current = cached;
+            long expected = cachedVersion;
+            while (true) {
+                GameState next = commit.apply(current);
+                if (next == null) {
+                    commit.complete(null, false, false, listener);
+                    return outcome[0];
+                }
+                try {
+                    if (compareAndSet(expected, next)) {
+                        commit.complete(null, true, true, listener);
+                        return outcome[0];
+                    }
+                } catch (IllegalStateException e) {
+                    commit.complete("Error en la base de datos: " + e.getMessage(), false, false, listener);
+                    return outcome[0];
+                }
+
+                synchronized (this) {
+                    current = copy(state);
+                    expected = version;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void racingWriteIsRetriedAndRejected() {
+        GameNode node = new GameNode(newGame());
+        MoveTransaction phone = new MoveTransaction();
+        MoveTransaction tablet = new MoveTransaction();
+
+        // Los dos dispositivos del blanco tienen la misma copia local y mueven a la vez
+        GameState cached = node.read();
+        int[] first = legalMove(cached, 0);
+        int[] second = legalMove(cached, 1);
+        assertNull(node.transact(phone, node.read(), node.version(), WHITE, first[0], first[1]));
+        assertEquals("No es tu turno", node.transact(tablet, cached, 0, WHITE, second[0], second[1]));
+
+        GameState stored = node.read();
+        assertEquals(1, stored.getMoves().size());
+        assertEquals("black", stored.getCurrentTurn());
+    }
+
+    @Test
+    public void failedWriteLeavesTheGameUntouched() {
+        GameNode node = new GameNode(newGame());
+        MoveTransaction transaction = new MoveTransaction();
+        int[] move = legalMove(node.read(), 0);
+
+        // La jugada entera (registro y turno) va en un solo compromiso: si se pierde,
+        // la partida sigue como estaba y el mismo jugador puede repetirla
+        node.failNextWrite = true;
+        assertEquals("Error en la base de datos: Escritura perdida",
+                node.transact(transaction, node.read(), node.version(), WHITE, move[0], move[1]));
+        assertNull(node.read().getMoves());
+        assertEquals("white", node.read().getCurrentTurn());
+
+        assertNull(node.transact(transaction, node.read(), node.version(), WHITE, move[0], move[1]));
+        assertEquals(1, node.read().getMoves().size());
+        assertEquals("black", node.read().getCurrentTurn());
+        int[] reply = legalMove(node.read(), 0);
+        assertNull(node.transact(transaction, node.read(), node.version(), BLACK, reply[0], reply[1]));
+    }
+
+    @Test
+    public void missingGameIsReportedAsNotFound() {
+        MoveTransaction.Commit commit = new MoveTransaction().commit(WHITE, 0, 1);
+        List<String> outcomes = new ArrayList<>();
+        GameTransport.OnMoveCompleteListener listener = new GameTransport.OnMoveCompleteListener() {
+            @Override
+            public void onMoveComplete() {
+                outcomes.add("ok");
+            }
+
+            @Override
+            public void onError(String error) {
+                outcomes.add(error);
+            }
+        };
+
+        assertNull(commit.apply(null));
+        commit.complete(null, false, false, listener);
+        // Firebase confirma un nodo vacío cuando la partida no existe
+        commit.complete(null, true, false, listener);
+        commit.complete("Error en Firebase: sin red", false, false, listener);
+        assertEquals(Arrays.asList("Partida no encontrada", "Partida no encontrada", "Error en Firebase: sin red"),
+                outcomes);
+    }
+
+    @Test
+    public void enforcesMoveRules() {
+        GameNode node = new GameNode(newGame());
+        MoveTransaction transaction = new MoveTransaction();
+        int[] move = legalMove(node.read(), 0);
+
+        assertEquals("No es tu turno", node.transact(transaction, node.read(), 0, BLACK, move[0], move[1]));
+        assertEquals("No es tu turno", node.transact(transaction, node.read(), 0, "OTRO", move[0], move[1]));
+        assertEquals("Movimiento ilegal", node.transact(transaction, node.read(), 0, WHITE, move[0], move[0]));
+        assertEquals("Posición fuera del tablero", node.transact(transaction, node.read(), 0, WHITE, move[0], -1));
+        assertEquals("No hay pieza en la posición origen",
+                node.transact(transaction, node.read(), 0, WHITE, HexBoard.indexOf(0, 0), move[1]));
+        // Pieza del rival
+        assertEquals("No puedes mover esa pieza",
+                node.transact(transaction, node.read(), 0, WHITE, legalMoveOf(node.read(), BLACK), move[1]));
+        assertNull(node.read().getMoves());
+
+        GameState finished = node.read();
+        finished.setStatus("finished");
+        assertEquals("La partida ha terminado", transaction.apply(finished, WHITE, move[0], move[1]).error);
+    }
+
+    @Test
+    public void concurrentClientsKeepTheLogLegal() throws InterruptedException {
+        GameNode node = new GameNode(newGame());
+        AtomicInteger committed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        int plies = 60;
+
+        // Dos dispositivos por jugador escriben sin esperar turno
+        Thread[] clients = new Thread[4];
+        for (int c = 0; c < clients.length; c++) {
+            String playerId = c % 2 == 0 ? WHITE : BLACK;
+            Random random = new Random(c);
+            clients[c] = new Thread(() -> {
+                MoveTransaction transaction = new MoveTransaction();
+                while (committed.get() < plies) {
+                    long version = node.version();
+                    GameState cached = node.read();
+                    if ("finished".equals(cached.getStatus())) return;
+                    int[] move = legalMove(cached, random.nextInt(1000));
+                    if (move == null) return;
+
+                    if (node.transact(transaction, cached, version, playerId, move[0], move[1]) == null) {
+                        committed.incrementAndGet();
+                    } else {
+                        rejected.incrementAndGet();
+                    }
+                }
+            });
+        }
+        for (Thread client : clients) client.start();
+        for (Thread client : clients) client.join();
+
+        GameState stored = node.read();
+        assertEquals(committed.get(), stored.getMoves().size());
+        assertTrue(rejected.get() > 0);
+
+        // Un lector nuevo acepta el registro entero
+        GameReplay reader = new GameReplay(new HexBoard());
+        reader.sync(stored);
+        assertEquals(committed.get(), reader.getPly());
+        assertEquals(stored.getCurrentTurn(), GameReplay.turnName(reader.getBoard().getSideToMove()));
+    }
+
+    // ==================== AUXILIARES ====================
+
+    private static GameState newGame() {
+        GameState state = new GameState("TEST01");
+        state.setWhitePlayerId(WHITE);
+        state.setBlackPlayerId(BLACK);
+        state.setStatus("playing");
+        state.copyPiecesFrom(new HexBoard());
+        return state;
+    }
+
+    /**
+     * Origen y destino de una jugada legal del que mueve en ese estado, o null si no hay
+     */
+    private static int[] legalMove(GameState state, int pick) {
+        GameReplay replay = new GameReplay(new HexBoard());
+        replay.sync(state);
+        MoveList moves = new MoveList();
+        new MoveValidator(replay.getBoard()).generateLegalMoves(replay.getBoard().getSideToMove(), moves);
+        if (moves.isEmpty()) return null;
+        int move = moves.get(pick % moves.size());
+        return new int[]{Move.from(move), Move.to(move)};
+    }
+
+    private static int legalMoveOf(GameState state, String playerId) {
+        GameReplay replay = new GameReplay(new HexBoard());
+        replay.sync(state);
+        ChessPiece.PieceColor color = playerId.equals(WHITE) ? ChessPiece.PieceColor.WHITE : ChessPiece.PieceColor.BLACK;
+        for (int i = 0; i < HexBoard.CELL_COUNT; i++) {
+            ChessPiece piece = replay.getBoard().getCell(i).getPiece();
+            if (piece != null && piece.getColor() == color) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Lo que haría la serialización de ida y vuelta del nodo
+     */
+    private static GameState copy(GameState source) {
+        GameState copy = new GameState();
+        copy.setGameId(source.getGameId());
+        copy.setWhitePlayerId(source.getWhitePlayerId());
+        copy.setBlackPlayerId(source.getBlackPlayerId());
+        copy.setCurrentTurn(source.getCurrentTurn());
+        copy.setBoard(source.getBoard());
+        copy.setSnapshotPly(source.getSnapshotPly());
+        copy.setMoves(source.getMoves() != null ? new ArrayList<>(source.getMoves()) : null);
+        copy.setPieces(source.getPieces());
+        copy.setStatus(source.getStatus());
+        copy.setWinner(source.getWinner());
+        copy.setEndReason(source.getEndReason());
+        copy.setLastMoveTimestamp(source.getLastMoveTimestamp());
+        return copy;
+    }
+}
@@ -0,0 +1,112 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class MoveValidatorTest {
+
+    @Test
+    public void generatorMatchesCellScan() {
+        Random random = new Random(3);
+        HexBoard board = new HexBoard();
+        MoveValidator validator = new MoveValidator(board);
+        MoveList legal = new MoveList();
+        int positions = 0;
+
+        // Posiciones de partidas al azar desde la inicial; cada pieza de ambos colores
+        for (int game = 0; game < 40; game++) {
+            board.copyFrom(new HexBoard());
+            for (int ply = 0; ply < 120; ply++) {
+                for (int from = 0; from < HexBoard.CELL_COUNT; from++) {
+                    HexCell cell = board.getCell(from);
+                    if (cell.getPiece() == null) continue;
+
+                    Set<Integer> scanned = new TreeSet<>();
+                    for (int to = 0; to < HexBoard.CELL_COUNT; to++) {
+                        if (validator.isValidMove(cell, board.getCell(to))) scanned.add(to);
+                    }
+                    Set<Integer> generated = new TreeSet<>();
+                    for (HexCell target : validator.getValidMoves(cell)) {
+                        assertTrue("destino repetido", generated.add(HexBoard.indexOf(target.getQ(), target.getR())));
+                    }
+                    assertEquals(cell.getPiece().getType() + " en " + cell.getQ() + "," + cell.getR(),
+                            scanned, generated);
+                }
+                positions++;
+
+                legal.clear();
+                validator.generateLegalMoves(board.getSideToMove(), legal);
+                if (legal.isEmpty()) break;
+                board.makeMove(legal.get(random.nextInt(legal.size())));
+            }
+        }
+        assertTrue(positions > 1000);
+    }
+
+    @Test
+    public void queenMatesKingInCorner() {
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, "Kb@4,-5 Kw@-2,-1 Qw@3,-3 b");
+        MoveValidator validator = new MoveValidator(board);
+
+        assertTrue(validator.isInCheck(ChessPiece.PieceColor.BLACK));
+        assertFalse(validator.isInCheck(ChessPiece.PieceColor.WHITE));
+        assertEquals(MoveValidator.GameStatus.CHECKMATE, validator.getGameStatus(ChessPiece.PieceColor.BLACK));
+        assertEquals(MoveValidator.GameStatus.PLAYING, validator.getGameStatus(ChessPiece.PieceColor.WHITE));
+    }
+
+    @Test
+    public void kingWithoutMovesOutOfCheckIsStalemate() {
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, "Kb@4,-5 Kw@2,-5 Qw@2,-2 b");
+        MoveValidator validator = new MoveValidator(board);
+
+        MoveList moves = new MoveList();
+        validator.generateLegalMoves(ChessPiece.PieceColor.BLACK, moves);
+        assertTrue(moves.isEmpty());
+        assertFalse(validator.isInCheck(ChessPiece.PieceColor.BLACK));
+        assertEquals(MoveValidator.GameStatus.STALEMATE, validator.getGameStatus(ChessPiece.PieceColor.BLACK));
+    }
+
+    @Test
+    public void pinnedRookOnlyMovesAlongThePin() {
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, "Kw@0,4 Rw@0,2 Rb@0,-2 Kb@4,-5 w");
+        MoveValidator validator = new MoveValidator(board);
+        int rook = HexBoard.indexOf(0, 2);
+
+        MoveList pseudo = new MoveList();
+        validator.generateMoves(rook, pseudo);
+        MoveList legal = new MoveList();
+        validator.generateLegalMoves(rook, legal);
+
+        // Entre el rey y la torre negra, incluida su captura; nada fuera de la columna
+        assertEquals(5, legal.size());
+        assertTrue(pseudo.size() > legal.size());
+        for (int i = 0; i < legal.size(); i++) {
+            assertEquals(0, HexBoard.qOf(Move.to(legal.get(i))));
+        }
+        assertTrue(validator.isLegalMove(board.getCell(0, 2), board.getCell(0, -2)));
+        assertTrue(validator.isValidMove(board.getCell(0, 2), board.getCell(1, 2)));
+        assertFalse(validator.isLegalMove(board.getCell(0, 2), board.getCell(1, 2)));
+    }
+
+    @Test
+    public void pinnedKnightCannotMove() {
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, "Kw@0,4 Nw@0,2 Rb@0,-2 Kb@4,-5 w");
+        MoveValidator validator = new MoveValidator(board);
+
+        MoveList legal = new MoveList();
+        validator.generateLegalMoves(HexBoard.indexOf(0, 2), legal);
+
+        assertTrue(legal.isEmpty());
+        assertFalse(validator.isInCheck(ChessPiece.PieceColor.WHITE));
+        assertEquals(MoveValidator.GameStatus.PLAYING, validator.getGameStatus(ChessPiece.PieceColor.WHITE));
+    }
+}
@@ -0,0 +1,88 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Prueba diferencial del generador nativo contra MoveValidator. Solo corre si la
+ * biblioteca está en java.library.path (./gradlew :core:test -PnativeLibDir=...).
+ */
+public class NativeMoveGeneratorTest {
+    private static final String TACTICAL_POSITION =
+            "Kw@-1,5 Kb@4,-5 Qw@1,4 Rb@3,-5 Pw@2,-4 Pb@-1,-1 Nw@0,0 Bb@0,-3 Pw@-2,3 Pb@-3,2 Pb@2,-2 w";
+
+    @Before
+    public void requireNativeLibrary() {
+        assumeTrue("Biblioteca nativa no disponible", NativeMoveGenerator.isAvailable());
+    }
+
+    @Test
+    public void perftMatchesReferenceCounts() {
+        assertEquals(126142, NativeMoveGenerator.perft(new HexBoard(), 3));
+
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, TACTICAL_POSITION);
+        assertEquals(1081589, NativeMoveGenerator.perft(board, 4));
+    }
+
+    @Test
+    public void randomGamesMatchJavaGenerator() {
+        Random random = new Random(76129);
+        HexBoard board = new HexBoard();
+        MoveValidator validator = new MoveValidator(board);
+        MoveList javaMoves = new MoveList();
+        MoveList nativeMoves = new MoveList();
+        int positions = 0;
+
+        for (int game = 0; game < 200; game++) {
+            if (game % 2 == 0) {
+                board.copyFrom(new HexBoard());
+            } else {
+                Perft.setupPosition(board, TACTICAL_POSITION);
+            }
+
+            for (int ply = 0; ply < 120; ply++) {
+                javaMoves.clear();
+                validator.generateLegalMoves(board.getSideToMove(), javaMoves);
+                nativeMoves.clear();
+                NativeMoveGenerator.generateLegalMoves(board, nativeMoves);
+
+                assertArrayEquals("Posición " + positions, sorted(javaMoves), sorted(nativeMoves));
+                assertEquals(Evaluator.evaluate(board), NativeMoveGenerator.evaluate(board));
+                if (positions % 50 == 0) {
+                    assertEquals(new Perft(board).perft(2), NativeMoveGenerator.perft(board, 2));
+                }
+                positions++;
+
+                if (javaMoves.isEmpty()) break;
+                board.makeMove(javaMoves.get(random.nextInt(javaMoves.size())));
+            }
+        }
+    }
+
+    @Test
+    public void searchCapturesHangingQueen() {
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, "Kw@-1,5 Kb@4,-5 Rw@0,0 Qb@0,-3 w");
+
+        SearchEngine.SearchResult result = NativeMoveGenerator.search(board, 4);
+
+        assertEquals("0,0->0,-3", Move.toString(result.bestMove));
+        assertTrue(result.score > 500);
+    }
+
+    private static int[] sorted(MoveList moves) {
+        int[] array = new int[moves.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = moves.get(i);
+        }
+        Arrays.sort(array);
+        return array;
+    }
+}
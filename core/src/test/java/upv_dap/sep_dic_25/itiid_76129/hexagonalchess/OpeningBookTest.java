@@ -0,0 +1,87 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OpeningBookTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void probeReturnsMovesByWeight() throws IOException {
+        HexBoard board = new HexBoard();
+        int first = legalMove(board, 0);
+        int second = legalMove(board, 1);
+
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        builder.addGame(new int[]{first}, ChessPiece.PieceColor.BLACK);  // peso 0
+        builder.addGame(new int[]{second}, ChessPiece.PieceColor.WHITE); // peso 2
+        builder.addGame(new int[]{second}, null);                        // peso 1
+        OpeningBook book = write(builder);
+
+        MoveList moves = new MoveList();
+        int[] weights = new int[4];
+        assertEquals(2, book.probe(board.getHash(), moves, weights));
+        assertEquals(second, moves.get(0));
+        assertEquals(3, weights[0]);
+        assertEquals(first, moves.get(1));
+        assertEquals(0, weights[1]);
+
+        assertEquals(second, book.bestMove(board));
+        assertEquals(second, book.pickMove(board, new Random(1)));
+    }
+
+    @Test
+    public void storesEveryPlyOfTextGames() throws IOException {
+        HexBoard board = new HexBoard();
+        int first = legalMove(board, 3);
+        board.makeMove(first);
+        int reply = legalMove(board, 5);
+
+        OpeningBookBuilder builder = new OpeningBookBuilder();
+        builder.addGame(Move.toString(first) + " " + Move.toString(reply) + " 0-1");
+        OpeningBook book = write(builder);
+
+        assertEquals(2, book.size());
+        assertEquals(reply, book.bestMove(board));
+        assertEquals(first, book.bestMove(new HexBoard()));
+
+        board.makeMove(reply);
+        assertEquals(Move.NONE, book.bestMove(board));
+        assertEquals(0, book.probe(board.getHash(), new MoveList(), null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsIllegalMoves() {
+        new OpeningBookBuilder().addGame("0,0->0,1 1-0");
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsFileWithoutHeader() throws IOException {
+        File file = folder.newFile("basura.book");
+        try (FileOutputStream output = new FileOutputStream(file)) {
+            output.write(new byte[32]);
+        }
+        OpeningBook.open(file);
+    }
+
+    private OpeningBook write(OpeningBookBuilder builder) throws IOException {
+        File file = folder.newFile();
+        builder.write(file);
+        return OpeningBook.open(file);
+    }
+
+    private static int legalMove(HexBoard board, int i) {
+        MoveList moves = new MoveList();
+        new MoveValidator(board).generateLegalMoves(board.getSideToMove(), moves);
+        return moves.get(i);
+    }
+}
@@ -0,0 +1,49 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Cuentas de referencia de perft para las reglas Gliński de MoveValidator.
+ * Si un cambio en el generador altera alguna cuenta, es un cambio de reglas o un error.
+ */
+public class PerftTest {
+    // Posición con promoción, clavadas y jaques de Dama/alfil cerca del rey negro
+    private static final String TACTICAL_POSITION =
+            "Kw@-1,5 Kb@4,-5 Qw@1,4 Rb@3,-5 Pw@2,-4 Pb@-1,-1 Nw@0,0 Bb@0,-3 Pw@-2,3 Pb@-3,2 Pb@2,-2 w";
+
+    @Test
+    public void initialPosition() {
+        Perft perft = new Perft(new HexBoard());
+
+        assertEquals(50, perft.perft(1));
+        assertEquals(2446, perft.perft(2));
+        assertEquals(126142, perft.perft(3));
+        assertEquals(6478731, perft.perft(4));
+    }
+
+    @Test
+    public void tacticalPosition() {
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, TACTICAL_POSITION);
+        Perft perft = new Perft(board);
+
+        assertEquals(54, perft.perft(1));
+        assertEquals(1093, perft.perft(2));
+        assertEquals(50546, perft.perft(3));
+        assertEquals(1081589, perft.perft(4));
+    }
+
+    @Test
+    public void perftRestoresPosition() {
+        HexBoard board = new HexBoard();
+        long hash = board.getHash();
+
+        new Perft(board).perft(3);
+
+        assertEquals(hash, board.getHash());
+        assertEquals(Zobrist.hash(board), board.getHash());
+        assertEquals(0, board.getPly());
+    }
+}
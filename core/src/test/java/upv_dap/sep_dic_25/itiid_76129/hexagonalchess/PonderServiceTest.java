@@ -0,0 +1,57 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class PonderServiceTest {
+    private static final long TIMEOUT_S = 60; // generoso: en una máquina cargada el análisis va lento
+
+    @Test
+    public void answersTheExpectedReply() throws InterruptedException {
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, "Kw@-1,5 Kb@4,-5 Rw@0,0 Qb@0,-3 b");
+        long hash = board.getHash();
+
+        PonderService ponder = new PonderService(4, 3);
+        // La primera pista de otra posición es la de la réplica esperada (se analiza primero)
+        CountDownLatch replied = new CountDownLatch(1);
+        ponder.setListener((key, result) -> {
+            if (key != hash) replied.countDown();
+        });
+        ponder.start(board);
+        assertTrue(replied.await(TIMEOUT_S, TimeUnit.SECONDS));
+        ponder.stop();
+        assertFalse(ponder.isRunning());
+        assertEquals(hash, board.getHash());
+
+        // La pista del que mueve y la respuesta a su jugada esperada ya están calculadas
+        SearchEngine.SearchResult hint = ponder.getHint(board);
+        assertNotNull(hint);
+        board.makeMove(hint.bestMove);
+        SearchEngine.SearchResult reply = ponder.getHint(board);
+        assertNotNull(reply);
+        assertNotEquals(Move.NONE, reply.bestMove);
+    }
+
+    @Test
+    public void stopsPromptlyAndKeepsHints() throws InterruptedException {
+        HexBoard board = new HexBoard();
+        PonderService ponder = new PonderService(4, PonderService.DEFAULT_REPLIES);
+        CountDownLatch hinted = new CountDownLatch(1);
+        ponder.setListener((key, result) -> hinted.countDown());
+        ponder.start(board);
+        assertTrue(hinted.await(TIMEOUT_S, TimeUnit.SECONDS));
+
+        long start = System.nanoTime();
+        ponder.stop();
+        assertTrue((System.nanoTime() - start) / 1_000_000 < 1000);
+        assertNotEquals(Move.NONE, ponder.getHintMove(board));
+
+        ponder.clearHints();
+        assertNull(ponder.getHint(board));
+    }
+}
@@ -0,0 +1,53 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SearchEngineTest {
+
+    @Test
+    public void capturesHangingQueen() {
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, "Kw@-1,5 Kb@4,-5 Rw@0,0 Qb@0,-3 w");
+
+        SearchEngine.SearchResult result = new SearchEngine(board).search(10000, 4);
+
+        assertEquals("0,0->0,-3", Move.toString(result.bestMove));
+        assertEquals(4, result.depth);
+        assertTrue(result.score > 500);
+    }
+
+    @Test
+    public void searchRestoresPosition() {
+        HexBoard board = new HexBoard();
+        long hash = board.getHash();
+
+        SearchEngine.SearchResult result = new SearchEngine(board).search(10000, 3);
+
+        assertNotEquals(Move.NONE, result.bestMove);
+        assertEquals(hash, board.getHash());
+        assertEquals(hash, Zobrist.hash(board));
+        assertEquals(0, board.getPly());
+    }
+
+    @Test
+    public void noMoveWithoutLegalMoves() {
+        HexBoard board = new HexBoard();
+        board.clear();
+
+        assertEquals(Move.NONE, new SearchEngine(board).search(1000, 3).bestMove);
+    }
+
+    @Test
+    public void parallelSearchFindsSameCapture() {
+        HexBoard board = new HexBoard();
+        Perft.setupPosition(board, "Kw@-1,5 Kb@4,-5 Rw@0,0 Qb@0,-3 w");
+        long hash = board.getHash();
+
+        SearchEngine.SearchResult result = new ParallelSearch(4, 1).search(board, 10000, 4);
+
+        assertEquals("0,0->0,-3", Move.toString(result.bestMove));
+        assertEquals(hash, board.getHash());
+    }
+}
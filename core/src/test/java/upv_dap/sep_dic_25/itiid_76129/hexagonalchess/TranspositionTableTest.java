@@ -0,0 +1,53 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TranspositionTableTest {
+
+    @Test
+    public void storesAndProbesEntry() {
+        TranspositionTable table = new TranspositionTable(1);
+        int move = Move.encode(10, 20, Move.FLAG_CAPTURE, ChessPiece.PieceType.QUEEN);
+        long key = 0x9E3779B97F4A7C15L;
+
+        table.store(key, move, -SearchEngine.MATE + 3, 12, TranspositionTable.BOUND_LOWER);
+        long data = table.probe(key);
+
+        assertEquals(move, TranspositionTable.move(data));
+        assertEquals(-SearchEngine.MATE + 3, TranspositionTable.score(data));
+        assertEquals(12, TranspositionTable.depth(data));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.bound(data));
+        assertEquals(0, table.probe(key + 1));
+    }
+
+    @Test
+    public void bucketKeepsDeeperEntryFromCurrentSearch() {
+        TranspositionTable table = new TranspositionTable(1);
+        long stride = table.getCapacity() / 2; // claves con la misma cubeta
+
+        table.store(1, Move.NONE, 0, 9, TranspositionTable.BOUND_EXACT);
+        table.store(1 + stride, Move.NONE, 0, 2, TranspositionTable.BOUND_EXACT);
+        table.store(1 + 2 * stride, Move.NONE, 0, 5, TranspositionTable.BOUND_EXACT);
+
+        assertNotEquals(0, table.probe(1));
+        assertEquals(0, table.probe(1 + stride));
+        assertNotEquals(0, table.probe(1 + 2 * stride));
+    }
+
+    @Test
+    public void bucketReplacesEntryFromOlderSearchFirst() {
+        TranspositionTable table = new TranspositionTable(1);
+        long stride = table.getCapacity() / 2;
+
+        table.store(1, Move.NONE, 0, 6, TranspositionTable.BOUND_EXACT);
+        table.newSearch();
+        table.store(1 + stride, Move.NONE, 0, 3, TranspositionTable.BOUND_EXACT);
+        table.store(1 + 2 * stride, Move.NONE, 0, 1, TranspositionTable.BOUND_EXACT);
+
+        assertEquals(0, table.probe(1));
+        assertNotEquals(0, table.probe(1 + stride));
+        assertNotEquals(0, table.probe(1 + 2 * stride));
+    }
+}
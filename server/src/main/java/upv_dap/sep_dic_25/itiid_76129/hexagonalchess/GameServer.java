@@ -0,0 +1,291 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor de partidas autoritativo y sin interfaz: mantiene en memoria el tablero de
+ * cada partida abierta, valida cada jugada con las reglas de MoveValidator y difunde
+ * el resultado a los suscriptores de esa partida.
+ *
+ * No hay un cerrojo global: cada partida se protege con uno de {@link #DEFAULT_STRIPES}
+ * monitores elegido por su identificador, así que las jugadas de partidas distintas
+ * solo compiten si caen en la misma franja. La tabla de partidas es concurrente.
+ *
+ * Los suscriptores se llaman con el cerrojo de la partida tomado, en el orden de las
+ * jugadas; no deben bloquearse (lo normal es encolar el aviso y volver).
+ */
+public class GameServer {
+    public static final int DEFAULT_STRIPES = 1024;
+    // Las partidas del servidor solo avanzan: la pila de deshacer empieza pequeña
+    private static final int UNDO_CAPACITY = 16;
+
+    private final ConcurrentHashMap<String, Game> games = new ConcurrentHashMap<>();
+    private final Object[] stripes;
+    private final AtomicLong nextGameId = new AtomicLong();
+
+    public interface Subscriber {
+        void onUpdate(Update update);
+    }
+
+    /**
+     * Cambio difundido a los suscriptores: una jugada (move != Move.NONE) o la unión
+     * del segundo jugador
+     */
+    public static final class Update {
+        public final String gameId;
+        public final int ply; // jugadas tras el cambio
+        public final int move;
+        public final String currentTurn;
+        public final String status;
+        public final String winner;
+        public final String endReason;
+
+        Update(String gameId, int ply, int move, String currentTurn,
+               String status, String winner, String endReason) {
+            this.gameId = gameId;
+            this.ply = ply;
+            this.move = move;
+            this.currentTurn = currentTurn;
+            this.status = status;
+            this.winner = winner;
+            this.endReason = endReason;
+        }
+    }
+
+    public static final class Result {
+        public final String error; // null si se aceptó
+        public final int move;
+        public final int ply;
+
+        private Result(String error, int move, int ply) {
+            this.error = error;
+            this.move = move;
+            this.ply = ply;
+        }
+
+        public boolean isAccepted() {
+            return error == null;
+        }
+
+        static Result rejected(String error) {
+            return new Result(error, Move.NONE, -1);
+        }
+    }
+
+    private static final class Game {
+        final String id;
+        final HexBoard board = new HexBoard(UNDO_CAPACITY);
+        final MoveValidator validator = new MoveValidator(board);
+        final String whitePlayerId;
+        String blackPlayerId;
+        String status = "waiting";
+        String winner;
+        String endReason;
+        int[] log = new int[64];
+        int ply;
+        final List<Subscriber> subscribers = new ArrayList<>(2);
+
+        Game(String id, String whitePlayerId) {
+            this.id = id;
+            this.whitePlayerId = whitePlayerId;
+        }
+
+        void broadcast(int move) {
+            if (subscribers.isEmpty()) return;
+            Update update = new Update(id, ply, move, GameReplay.turnName(board.getSideToMove()),
+                    status, winner, endReason);
+            for (int i = 0; i < subscribers.size(); i++) {
+                subscribers.get(i).onUpdate(update);
+            }
+        }
+    }
+
+    public GameServer() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public GameServer(int stripeCount) {
+        // Potencia de dos para elegir la franja con una máscara
+        int size = stripeCount <= 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        stripes = new Object[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    private Object lockFor(String gameId) {
+        int h = gameId.hashCode();
+        h ^= h >>> 16;
+        return stripes[h & (stripes.length - 1)];
+    }
+
+    public int getGameCount() {
+        return games.size();
+    }
+
+    // ==================== PARTIDAS ====================
+
+    /**
+     * Abre una partida con el jugador dado como blancas y devuelve su identificador
+     */
+    public String createGame(String whitePlayerId) {
+        String gameId = Long.toString(nextGameId.incrementAndGet(), 36).toUpperCase();
+        games.put(gameId, new Game(gameId, whitePlayerId));
+        return gameId;
+    }
+
+    /**
+     * Une al jugador como negras a una partida en espera (o lo deja entrar de nuevo si
+     * ya juega en ella)
+     */
+    public Result joinGame(String gameId, String playerId) {
+        Game game = games.get(gameId);
+        if (game == null) return Result.rejected("Partida no encontrada");
+
+        synchronized (lockFor(gameId)) {
+            if (game.blackPlayerId == null && !playerId.equals(game.whitePlayerId)) {
+                game.blackPlayerId = playerId;
+                game.status = "playing";
+                game.broadcast(Move.NONE);
+            } else if (!playerId.equals(game.whitePlayerId) && !playerId.equals(game.blackPlayerId)) {
+                return Result.rejected("Partida llena o no disponible.");
+            }
+            return new Result(null, Move.NONE, game.ply);
+        }
+    }
+
+    /**
+     * Cierra la partida y olvida a sus suscriptores
+     */
+    public boolean removeGame(String gameId) {
+        Game game = games.remove(gameId);
+        if (game == null) return false;
+        synchronized (lockFor(gameId)) {
+            game.subscribers.clear();
+        }
+        return true;
+    }
+
+    // ==================== JUGADAS ====================
+
+    /**
+     * Valida y aplica la jugada de playerId entre dos celdas (índices densos)
+     */
+    public Result move(String gameId, String playerId, int from, int to) {
+        Game game = games.get(gameId);
+        if (game == null) return Result.rejected("Partida no encontrada");
+        if (from < 0 || from >= HexBoard.CELL_COUNT || to < 0 || to >= HexBoard.CELL_COUNT) {
+            return Result.rejected("Posición fuera del tablero");
+        }
+
+        synchronized (lockFor(gameId)) {
+            if ("finished".equals(game.status)) return Result.rejected("La partida ha terminado");
+            if (!"playing".equals(game.status)) return Result.rejected("Esperando al rival");
+
+            HexBoard board = game.board;
+            boolean white = board.getSideToMove() == ChessPiece.PieceColor.WHITE;
+            if (!playerId.equals(white ? game.whitePlayerId : game.blackPlayerId)) {
+                return Result.rejected("No es tu turno");
+            }
+
+            ChessPiece piece = board.getCell(from).getPiece();
+            if (piece == null) return Result.rejected("No hay pieza en la posición origen");
+            if (piece.getColor() != board.getSideToMove()) return Result.rejected("No puedes mover esa pieza");
+
+            int move = game.validator.findLegalMove(board.getCell(from), board.getCell(to));
+            if (move == Move.NONE) return Result.rejected("Movimiento ilegal");
+
+            ChessPiece.PieceColor mover = board.getSideToMove();
+            board.makeMove(move);
+            if (game.ply == game.log.length) game.log = Arrays.copyOf(game.log, game.log.length * 2);
+            game.log[game.ply++] = move;
+
+            // Terminar la partida si el rival se queda sin movimientos legales
+            MoveValidator.GameStatus result = game.validator.getGameStatus(board.getSideToMove());
+            if (result != MoveValidator.GameStatus.PLAYING) {
+                game.status = "finished";
+                game.winner = GameReplay.turnName(mover);
+                game.endReason = result == MoveValidator.GameStatus.CHECKMATE ? "checkmate" : "stalemate";
+            }
+
+            game.broadcast(move);
+            return new Result(null, move, game.ply);
+        }
+    }
+
+    /**
+     * Copia en out las jugadas legales del que mueve; false si la partida no existe
+     */
+    public boolean legalMoves(String gameId, MoveList out) {
+        Game game = games.get(gameId);
+        if (game == null) return false;
+
+        synchronized (lockFor(gameId)) {
+            out.clear();
+            if ("playing".equals(game.status)) {
+                game.validator.generateLegalMoves(game.board.getSideToMove(), out);
+            }
+            return true;
+        }
+    }
+
+    // ==================== SUSCRIPCIONES ====================
+
+    /**
+     * Suscribe a los cambios de la partida y devuelve su estado en ese momento (foto de
+     * la posición y registro completo, legible con GameReplay), o null si no existe.
+     * Los avisos posteriores traen ply mayor que el del estado devuelto.
+     */
+    public GameState subscribe(String gameId, Subscriber subscriber) {
+        Game game = games.get(gameId);
+        if (game == null) return null;
+
+        synchronized (lockFor(gameId)) {
+            game.subscribers.add(subscriber);
+            return snapshot(game);
+        }
+    }
+
+    public void unsubscribe(String gameId, Subscriber subscriber) {
+        Game game = games.get(gameId);
+        if (game == null) return;
+
+        synchronized (lockFor(gameId)) {
+            game.subscribers.remove(subscriber);
+        }
+    }
+
+    /**
+     * Estado actual de la partida, o null si no existe
+     */
+    public GameState getState(String gameId) {
+        Game game = games.get(gameId);
+        if (game == null) return null;
+
+        synchronized (lockFor(gameId)) {
+            return snapshot(game);
+        }
+    }
+
+    private static GameState snapshot(Game game) {
+        GameState state = new GameState(game.id);
+        state.setWhitePlayerId(game.whitePlayerId);
+        state.setBlackPlayerId(game.blackPlayerId);
+        state.setCurrentTurn(GameReplay.turnName(game.board.getSideToMove()));
+        state.setStatus(game.status);
+        state.setWinner(game.winner);
+        state.setEndReason(game.endReason);
+        state.copyPiecesFrom(game.board);
+        state.setSnapshotPly(game.ply);
+        List<Integer> moves = new ArrayList<>(game.ply);
+        for (int i = 0; i < game.ply; i++) {
+            moves.add(game.log[i]);
+        }
+        state.setMoves(moves);
+        return state;
+    }
+}
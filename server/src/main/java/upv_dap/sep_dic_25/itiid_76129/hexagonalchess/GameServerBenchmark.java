@@ -0,0 +1,157 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Jugadas por segundo y latencia de {@link GameServer#move} con 1, 2, 4... hilos hasta
+ * el número de núcleos, sobre miles de partidas abiertas con un suscriptor cada una.
+ * Cada hilo juega al azar las partidas que le tocan (así no se pisan los turnos) y
+ * reemplaza las que terminan; solo compiten por las franjas de cerrojos.
+ *
+ * No usa JMH porque el número de hilos de JMH es fijo en cada ejecución; aquí se
+ * recorre la escala en una sola pasada.
+ * Ejecutar con: ./gradlew :server:benchmark [-Pgames=20000] [-Pseconds=5]
+ */
+public final class GameServerBenchmark {
+    private static final int MAX_PLIES = 300; // las partidas más largas se reemplazan
+    private static final int SAMPLES_PER_THREAD = 1 << 18;
+
+    private GameServerBenchmark() {}
+
+    public static void main(String[] args) throws InterruptedException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%d partidas, %d s por medición, %d núcleos%n", games, seconds, cores);
+        System.out.println("hilos   jugadas/s   p50 (µs)   p99 (µs)");
+        run(games, 1, 1); // calentamiento
+        for (int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+            Measurement m = run(games, threads, seconds);
+            System.out.printf("%5d %11.0f %10.1f %10.1f%n", threads, m.movesPerSecond, m.p50 / 1e3, m.p99 / 1e3);
+            if (threads == cores) break;
+        }
+    }
+
+    static final class Measurement {
+        final double movesPerSecond;
+        final long p50;
+        final long p99;
+
+        Measurement(double movesPerSecond, long p50, long p99) {
+            this.movesPerSecond = movesPerSecond;
+            this.p50 = p50;
+            this.p99 = p99;
+        }
+    }
+
+    static Measurement run(int games, int threads, int seconds) throws InterruptedException {
+        GameServer server = new GameServer();
+        Worker[] workers = new Worker[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Worker(server, t, (games + threads - 1 - t) / threads);
+        }
+
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        Thread[] running = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            Worker worker = workers[t];
+            running[t] = new Thread(() -> worker.play(deadline), "GameServerBenchmark-" + t);
+            running[t].start();
+        }
+        long start = System.nanoTime();
+        for (Thread thread : running) thread.join();
+        double elapsed = (System.nanoTime() - start) / 1e9;
+
+        long moves = 0;
+        int sampleCount = 0;
+        for (Worker worker : workers) {
+            moves += worker.moves;
+            sampleCount += worker.sampleCount();
+        }
+        long[] samples = new long[sampleCount];
+        int offset = 0;
+        for (Worker worker : workers) {
+            System.arraycopy(worker.samples, 0, samples, offset, worker.sampleCount());
+            offset += worker.sampleCount();
+        }
+        Arrays.sort(samples);
+        return new Measurement(moves / elapsed,
+                percentile(samples, 0.50), percentile(samples, 0.99));
+    }
+
+    static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) return 0;
+        return sorted[Math.min(sorted.length - 1, (int) (sorted.length * fraction))];
+    }
+
+    private static final class Worker {
+        final GameServer server;
+        final String white;
+        final String black;
+        final String[] games;
+        final int[] plies;
+        final long[] samples = new long[SAMPLES_PER_THREAD];
+        final MoveList legal = new MoveList();
+        final Random random;
+        long moves;
+
+        Worker(GameServer server, int id, int gameCount) {
+            this.server = server;
+            this.white = "W" + id;
+            this.black = "B" + id;
+            this.random = new Random(id);
+            games = new String[gameCount];
+            plies = new int[gameCount];
+            for (int i = 0; i < gameCount; i++) {
+                games[i] = newGame();
+            }
+        }
+
+        private String newGame() {
+            String gameId = server.createGame(white);
+            server.joinGame(gameId, black);
+            // Un suscriptor por partida, como el cliente que la está viendo
+            server.subscribe(gameId, update -> { });
+            return gameId;
+        }
+
+        int sampleCount() {
+            return (int) Math.min(moves, samples.length);
+        }
+
+        void play(long deadline) {
+            while (System.nanoTime() < deadline) {
+                int slot = random.nextInt(games.length);
+                server.legalMoves(games[slot], legal);
+                if (legal.isEmpty() || plies[slot] >= MAX_PLIES) {
+                    server.removeGame(games[slot]);
+                    games[slot] = newGame();
+                    plies[slot] = 0;
+                    continue;
+                }
+
+                int move = legal.get(random.nextInt(legal.size()));
+                String player = plies[slot] % 2 == 0 ? white : black;
+                long t0 = System.nanoTime();
+                GameServer.Result result = server.move(games[slot], player, Move.from(move), Move.to(move));
+                long latency = System.nanoTime() - t0;
+                if (!result.isAccepted()) {
+                    throw new IllegalStateException(result.error);
+                }
+                plies[slot]++;
+
+                // Muestreo uniforme cuando se llena el búfer
+                if (moves < samples.length) {
+                    samples[(int) moves] = latency;
+                } else {
+                    long pick = ThreadLocalRandom.current().nextLong(moves + 1);
+                    if (pick < samples.length) samples[(int) pick] = latency;
+                }
+                moves++;
+            }
+        }
+    }
+}
@@ -0,0 +1,546 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Generador de carga del flujo en línea (crear, unirse, escuchar y mover): N pares de
+ * bots juegan a la vez partidas al azar con jugadas legales de MoveValidator contra un
+ * {@link Backend} intercambiable, siempre a través de GameTransport como la app.
+ *
+ * Registra el rendimiento, un histograma de latencias HdrHistogram por operación y la
+ * tasa de errores. Con un fichero de umbrales termina con código 1 si alguno se supera,
+ * para que la integración continua falle ante una regresión.
+ *
+ * Ejecutar con: ./gradlew :server:loadTest [-Pbackend=relay] [-Ppairs=100] [-Pseconds=10]
+ * (argumentos clave=valor; ver {@link Config})
+ */
+public final class LoadTest {
+    private static final long HISTOGRAM_MAX_US = 60_000_000L; // sin auto-ajuste: valores acotados
+
+    /**
+     * Operaciones medidas; la clave es la que usan los umbrales
+     */
+    public enum Operation {
+        CREATE("create"),     // createGame hasta onGameCreated
+        JOIN("join"),         // joinGame hasta onGameJoined
+        LISTEN("listen"),     // listenToGame hasta el primer estado
+        MOVE("move"),         // makeMove hasta onMoveComplete
+        FAN_OUT("fanout");    // makeMove hasta que el aviso llega al rival
+
+        public final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+    }
+
+    /**
+     * Servidor contra el que juegan los bots; cada conexión es un jugador
+     */
+    public interface Backend extends Closeable {
+        GameTransport connect() throws IOException;
+    }
+
+    private final Config config;
+    private final EnumMap<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final EnumMap<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+    private final LongAdder finishedGames = new LongAdder();
+    private final AtomicReference<String> firstFailure = new AtomicReference<>();
+    private volatile boolean running;
+
+    private LoadTest(Config config) {
+        this.config = config;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(HISTOGRAM_MAX_US, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Config config = Config.parse(args);
+        Report report;
+        try (Backend backend = config.openBackend()) {
+            report = run(config, backend);
+        }
+        report.print(System.out);
+        if (config.outputDir != null) {
+            report.writeHistograms(config.outputDir);
+        }
+
+        if (config.thresholds != null) {
+            List<String> violations = report.check(loadThresholds(config.thresholds));
+            for (String violation : violations) {
+                System.out.println("UMBRAL SUPERADO: " + violation);
+            }
+            if (!violations.isEmpty()) System.exit(1);
+            System.out.println("Umbrales respetados (" + config.thresholds + ")");
+        }
+    }
+
+    /**
+     * Abre los pares, calienta, mide durante config.seconds y devuelve el informe. El
+     * backend lo cierra quien lo abrió.
+     */
+    public static Report run(Config config, Backend backend) throws IOException, InterruptedException {
+        LoadTest test = new LoadTest(config);
+        List<Pair> pairs = new ArrayList<>(config.pairs);
+        for (int i = 0; i < config.pairs; i++) {
+            pairs.add(test.new Pair(backend.connect(), backend.connect(), config.seed + i));
+        }
+
+        test.running = true;
+        for (Pair pair : pairs) pair.newGame();
+        Thread.sleep(config.warmupSeconds * 1000L);
+        test.resetCounters();
+
+        long start = System.nanoTime();
+        Thread.sleep(config.seconds * 1000L);
+        Report report = test.snapshot((System.nanoTime() - start) / 1e9);
+        test.running = false;
+        return report;
+    }
+
+    private void resetCounters() {
+        for (Operation operation : Operation.values()) {
+            latencies.get(operation).reset();
+            errors.get(operation).reset();
+        }
+        finishedGames.reset();
+        firstFailure.set(null);
+    }
+
+    private Report snapshot(double seconds) {
+        EnumMap<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        EnumMap<Operation, Long> errorCounts = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, latencies.get(operation).getIntervalHistogram());
+            errorCounts.put(operation, errors.get(operation).sum());
+        }
+        return new Report(config, seconds, histograms, errorCounts, finishedGames.sum(), firstFailure.get());
+    }
+
+    private void record(Operation operation, long startNanos) {
+        latencies.get(operation).recordValue(Math.min((System.nanoTime() - startNanos) / 1000, HISTOGRAM_MAX_US));
+    }
+
+    private void fail(Operation operation) {
+        if (running) errors.get(operation).increment();
+    }
+
+    /**
+     * Excepción dentro de un callback de bot: cuenta como error de la operación (nunca
+     * se escapa de la métrica) y se guarda la primera para el informe
+     */
+    private void fail(Operation operation, RuntimeException e) {
+        if (!running) return;
+        errors.get(operation).increment();
+        firstFailure.compareAndSet(null, operation.key + ": " + e);
+    }
+
+    // ==================== BOTS ====================
+
+    /**
+     * Dos jugadores que juegan entre sí; las blancas abren una partida nueva cuando la
+     * anterior termina o llega a config.maxPlies
+     */
+    private final class Pair {
+        final GameTransport white;
+        final GameTransport black;
+        final Random random;
+        final AtomicLong sentAt = new AtomicLong(); // solo hay una jugada en vuelo por partida
+
+        Pair(GameTransport white, GameTransport black, long seed) {
+            this.white = white;
+            this.black = black;
+            this.random = new Random(seed);
+        }
+
+        void newGame() {
+            if (!running) return;
+            white.cleanup();
+            black.cleanup();
+            long created = System.nanoTime();
+            white.createGame(new GameTransport.OnGameCreatedListener() {
+                @Override
+                public void onGameCreated(String gameId) {
+                    try {
+                        record(Operation.CREATE, created);
+                        white.listenToGame(new Side(white, true, System.nanoTime()));
+                        join(gameId);
+                    } catch (RuntimeException e) {
+                        fail(Operation.CREATE, e);
+                        newGame();
+                    }
+                }
+
+                @Override
+                public void onError(String error) {
+                    fail(Operation.CREATE);
+                    newGame();
+                }
+            });
+        }
+
+        private void join(String gameId) {
+            long joined = System.nanoTime();
+            black.joinGame(gameId, new GameTransport.OnGameJoinedListener() {
+                @Override
+                public void onGameJoined(String gameId) {
+                    try {
+                        record(Operation.JOIN, joined);
+                        black.listenToGame(new Side(black, false, System.nanoTime()));
+                    } catch (RuntimeException e) {
+                        fail(Operation.JOIN, e);
+                        newGame();
+                    }
+                }
+
+                @Override
+                public void onError(String error) {
+                    fail(Operation.JOIN);
+                    newGame();
+                }
+            });
+        }
+
+        /**
+         * Un jugador: mueve al azar cuando le toca y mide cuándo le llega la jugada rival
+         */
+        private final class Side implements GameTransport.OnGameUpdateListener {
+            final GameTransport transport;
+            final boolean white;
+            final long listenedAt;
+            final GameReplay replay = new GameReplay(new HexBoard());
+            final MoveValidator validator = new MoveValidator(replay.getBoard());
+            final MoveList moves = new MoveList();
+            int seenPly = -1;
+
+            Side(GameTransport transport, boolean white, long listenedAt) {
+                this.transport = transport;
+                this.white = white;
+                this.listenedAt = listenedAt;
+            }
+
+            @Override
+            public void onGameUpdate(GameState gameState) {
+                try {
+                    update(gameState);
+                } catch (RuntimeException e) {
+                    fail(Operation.LISTEN, e);
+                    newGame(); // el tablero del bot ya no es fiable: se empieza otra
+                }
+            }
+
+            private void update(GameState gameState) {
+                if (seenPly < 0) record(Operation.LISTEN, listenedAt);
+                replay.sync(gameState);
+                int ply = replay.getPly();
+                boolean myTurn = gameState.getCurrentTurn().equals(white ? "white" : "black");
+                if (seenPly >= 0 && ply > seenPly && myTurn) {
+                    record(Operation.FAN_OUT, sentAt.get());
+                }
+                seenPly = ply;
+
+                if ("finished".equals(gameState.getStatus()) || ply >= config.maxPlies) {
+                    if (white) {
+                        finishedGames.increment();
+                        newGame();
+                    }
+                    return;
+                }
+                if (!running || !"playing".equals(gameState.getStatus()) || !myTurn) return;
+
+                moves.clear();
+                validator.generateLegalMoves(replay.getBoard().getSideToMove(), moves);
+                int move = moves.get(random.nextInt(moves.size()));
+                long start = System.nanoTime();
+                sentAt.set(start);
+                transport.makeMove(key(Move.from(move)), key(Move.to(move)), new GameTransport.OnMoveCompleteListener() {
+                    @Override
+                    public void onMoveComplete() {
+                        record(Operation.MOVE, start);
+                    }
+
+                    @Override
+                    public void onError(String error) {
+                        fail(Operation.MOVE);
+                        newGame(); // la partida queda atascada: se empieza otra
+                    }
+                });
+            }
+
+            @Override
+            public void onError(String error) {
+                fail(Operation.LISTEN);
+            }
+        }
+    }
+
+    private static String key(int index) {
+        return HexBoard.qOf(index) + "," + HexBoard.rOf(index);
+    }
+
+    // ==================== BACKENDS ====================
+
+    /**
+     * InMemoryGameServer con los callbacks repartidos en un hilo por núcleo; los de una
+     * misma partida se entregan de uno en uno, así que cada bot solo se usa desde un hilo
+     * a la vez
+     */
+    public static Backend memory() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        // Al cerrar se descartan los avisos de las jugadas que aún estaban en vuelo
+        ExecutorService dispatcher = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new ThreadPoolExecutor.DiscardPolicy());
+        InMemoryGameServer server = new InMemoryGameServer(dispatcher);
+        return new Backend() {
+            @Override
+            public GameTransport connect() {
+                return server.connect();
+            }
+
+            @Override
+            public void close() {
+                dispatcher.shutdownNow();
+            }
+        };
+    }
+
+    /**
+     * Conexiones TCP a un RelayServer; los clientes leen con hilos virtuales y atienden
+     * los callbacks en ese mismo hilo
+     */
+    public static Backend relay(String host, int port) {
+        ThreadFactory readers = Thread.ofVirtual().name("loadtest-client-", 0).factory();
+        List<RelayGameTransport> connections = new ArrayList<>();
+        return new Backend() {
+            @Override
+            public GameTransport connect() throws IOException {
+                RelayGameTransport transport = RelayGameTransport.connect(host, port, Runnable::run, readers);
+                connections.add(transport);
+                return transport;
+            }
+
+            @Override
+            public void close() throws IOException {
+                for (RelayGameTransport transport : connections) {
+                    transport.close();
+                }
+            }
+        };
+    }
+
+    /**
+     * RelayServer en este mismo proceso, en un puerto libre
+     */
+    public static Backend localRelay() throws IOException {
+        RelayServer server = new RelayServer(new GameServer(), 0).start();
+        Backend clients = relay("localhost", server.getPort());
+        return new Backend() {
+            @Override
+            public GameTransport connect() throws IOException {
+                return clients.connect();
+            }
+
+            @Override
+            public void close() throws IOException {
+                clients.close();
+                server.close();
+            }
+        };
+    }
+
+    // ==================== CONFIGURACIÓN ====================
+
+    /**
+     * Parámetros como argumentos clave=valor: backend (memory, relay o host:puerto de un
+     * relé externo), pairs, seconds, warmup, maxPlies, seed, thresholds (fichero de
+     * propiedades) y out (carpeta para los .hgrm)
+     */
+    public static final class Config {
+        public String backend = "relay";
+        public int pairs = 100;
+        public int seconds = 10;
+        public int warmupSeconds = 2;
+        public int maxPlies = 200;
+        public long seed = 1;
+        public File thresholds;
+        public File outputDir;
+
+        public static Config parse(String[] args) {
+            Config config = new Config();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (eq < 0) throw new IllegalArgumentException("Se esperaba clave=valor: " + arg);
+                String value = arg.substring(eq + 1);
+                switch (arg.substring(0, eq)) {
+                    case "backend": config.backend = value; break;
+                    case "pairs": config.pairs = Integer.parseInt(value); break;
+                    case "seconds": config.seconds = Integer.parseInt(value); break;
+                    case "warmup": config.warmupSeconds = Integer.parseInt(value); break;
+                    case "maxPlies": config.maxPlies = Integer.parseInt(value); break;
+                    case "seed": config.seed = Long.parseLong(value); break;
+                    case "thresholds": config.thresholds = value.isEmpty() ? null : new File(value); break;
+                    case "out": config.outputDir = value.isEmpty() ? null : new File(value); break;
+                    default: throw new IllegalArgumentException("Parámetro desconocido: " + arg);
+                }
+            }
+            return config;
+        }
+
+        Backend openBackend() throws IOException {
+            switch (backend) {
+                case "memory":
+                    return memory();
+                case "relay":
+                    return localRelay();
+                default:
+                    int colon = backend.lastIndexOf(':');
+                    if (colon < 0) throw new IllegalArgumentException("Backend desconocido: " + backend);
+                    return relay(backend.substring(0, colon), Integer.parseInt(backend.substring(colon + 1)));
+            }
+        }
+    }
+
+    static Properties loadThresholds(File file) throws IOException {
+        Properties thresholds = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            thresholds.load(in);
+        }
+        return thresholds;
+    }
+
+    // ==================== INFORME ====================
+
+    public static final class Report {
+        public final Config config;
+        public final double seconds;
+        public final long finishedGames;
+        public final String firstFailure; // primera excepción en un callback, o null
+        private final Map<Operation, Histogram> histograms;
+        private final Map<Operation, Long> errors;
+
+        Report(Config config, double seconds, Map<Operation, Histogram> histograms,
+               Map<Operation, Long> errors, long finishedGames, String firstFailure) {
+            this.config = config;
+            this.seconds = seconds;
+            this.histograms = histograms;
+            this.errors = errors;
+            this.finishedGames = finishedGames;
+            this.firstFailure = firstFailure;
+        }
+
+        public Histogram latency(Operation operation) {
+            return histograms.get(operation);
+        }
+
+        public long count(Operation operation) {
+            return histograms.get(operation).getTotalCount();
+        }
+
+        public long errors(Operation operation) {
+            return errors.get(operation);
+        }
+
+        public double errorRate(Operation operation) {
+            long total = count(operation) + errors(operation);
+            return total == 0 ? 0 : (double) errors(operation) / total;
+        }
+
+        public double movesPerSecond() {
+            return count(Operation.MOVE) / seconds;
+        }
+
+        public void print(PrintStream out) {
+            out.printf("backend %s, %d pares, %.1f s medidos%n", config.backend, config.pairs, seconds);
+            out.printf("%.0f jugadas/s, %.1f partidas/s%n", movesPerSecond(), finishedGames / seconds);
+            out.println("operación      n      errores   p50 (ms)   p99 (ms)  p99.9 (ms)  máx (ms)");
+            for (Operation operation : Operation.values()) {
+                Histogram h = histograms.get(operation);
+                out.printf("%-9s %9d %7d (%4.2f%%) %9.2f %10.2f %11.2f %9.2f%n", operation.key,
+                        h.getTotalCount(), errors(operation), errorRate(operation) * 100,
+                        h.getValueAtPercentile(50) / 1e3, h.getValueAtPercentile(99) / 1e3,
+                        h.getValueAtPercentile(99.9) / 1e3, h.getMaxValue() / 1e3);
+            }
+            if (firstFailure != null) {
+                out.println("primer fallo: " + firstFailure);
+            }
+        }
+
+        /**
+         * Distribución completa de cada operación en el formato .hgrm de HdrHistogram,
+         * en milisegundos
+         */
+        public void writeHistograms(File dir) throws IOException {
+            if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("No se pudo crear " + dir);
+            for (Operation operation : Operation.values()) {
+                try (PrintStream out = new PrintStream(new File(dir, operation.key + ".hgrm"), "UTF-8")) {
+                    histograms.get(operation).outputPercentileDistribution(out, 1000.0);
+                }
+            }
+        }
+
+        /**
+         * Compara con los umbrales y devuelve los que se superan. Claves admitidas:
+         * &lt;op&gt;.p50.ms, &lt;op&gt;.p99.ms, &lt;op&gt;.max.ms, &lt;op&gt;.errorRate
+         * (fracción) y moves.perSecond.min
+         */
+        public List<String> check(Properties thresholds) {
+            List<String> violations = new ArrayList<>();
+            for (String name : thresholds.stringPropertyNames()) {
+                double limit = Double.parseDouble(thresholds.getProperty(name).trim());
+                if (name.equals("moves.perSecond.min")) {
+                    if (movesPerSecond() < limit) {
+                        violations.add(String.format("%s: %.0f < %.0f", name, movesPerSecond(), limit));
+                    }
+                    continue;
+                }
+
+                Operation operation = operation(name.substring(0, Math.max(0, name.indexOf('.'))));
+                String metric = name.substring(name.indexOf('.') + 1);
+                double value;
+                switch (metric) {
+                    case "p50.ms": value = latency(operation).getValueAtPercentile(50) / 1e3; break;
+                    case "p99.ms": value = latency(operation).getValueAtPercentile(99) / 1e3; break;
+                    case "max.ms": value = latency(operation).getMaxValue() / 1e3; break;
+                    case "errorRate": value = errorRate(operation); break;
+                    default: throw new IllegalArgumentException("Umbral desconocido: " + name);
+                }
+                if (value > limit) {
+                    violations.add(String.format("%s: %.3f > %s", name, value, thresholds.getProperty(name).trim()));
+                }
+            }
+            violations.sort(null);
+            return violations;
+        }
+
+        private static Operation operation(String key) {
+            for (Operation operation : Operation.values()) {
+                if (operation.key.equals(key)) return operation;
+            }
+            throw new IllegalArgumentException("Operación desconocida: " + key);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Relé TCP de partidas sobre {@link GameServer}: sustituto local de Firebase que habla
+ * el protocolo binario de {@link RelayProtocol} con {@link RelayGameTransport}.
+ *
+ * Cada conexión usa dos hilos virtuales, uno que lee y atiende peticiones y otro que
+ * vacía su cola de salida, así que miles de conexiones bloqueadas en el socket no
+ * cuestan hilos del sistema. Los avisos de GameServer solo se encolan (se reciben con
+ * el cerrojo de la partida tomado) y comparten la cola con las respuestas, de modo que
+ * el cliente los ve en el orden en que ocurrieron.
+ *
+ * Ejecutar con: ./gradlew :server:relay [-Pport=7410]
+ */
+public class RelayServer implements Closeable {
+    private static final byte[] CLOSE = new byte[0];
+    private static final int BACKLOG = 4096; // ráfagas de miles de conexiones
+
+    private final GameServer games;
+    private final ServerSocket serverSocket;
+    private final ExecutorService threads = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Connection> connections = ConcurrentHashMap.newKeySet();
+    private final AtomicLong nextPlayerId = new AtomicLong();
+
+    public RelayServer(GameServer games, int port) throws IOException {
+        this.games = games;
+        this.serverSocket = new ServerSocket(port, BACKLOG);
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : RelayGameTransport.DEFAULT_PORT;
+        RelayServer relay = new RelayServer(new GameServer(), port).start();
+        System.out.println("Relé de partidas escuchando en el puerto " + relay.getPort());
+        Thread.currentThread().join();
+    }
+
+    public RelayServer start() {
+        threads.execute(this::acceptLoop);
+        return this;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    public GameServer getGameServer() {
+        return games;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Connection connection : connections) {
+            connection.close();
+        }
+        threads.shutdownNow();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Connection connection = new Connection(socket,
+                        "R" + Long.toString(nextPlayerId.incrementAndGet(), 36).toUpperCase());
+                connections.add(connection);
+                threads.execute(connection::readLoop);
+                threads.execute(connection::writeLoop);
+            } catch (IOException e) {
+                // Socket cerrado en close(), o fallo de una sola aceptación
+            }
+        }
+    }
+
+    // ==================== CONEXIONES ====================
+
+    private final class Connection implements GameServer.Subscriber {
+        final Socket socket;
+        final String playerId;
+        final LinkedBlockingQueue<byte[]> outbox = new LinkedBlockingQueue<>();
+        final AtomicBoolean closed = new AtomicBoolean();
+        // Avisos recibidos mientras se suscribe, para enviarlos detrás del estado completo
+        final ArrayDeque<byte[]> early = new ArrayDeque<>();
+        boolean awaitingState; // protegido por early
+        String gameId; // solo lo usa el hilo lector
+        volatile String listening;
+
+        Connection(Socket socket, String playerId) {
+            this.socket = socket;
+            this.playerId = playerId;
+        }
+
+        void readLoop() {
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                outbox.add(RelayProtocol.frame(RelayProtocol.WELCOME, playerId));
+                byte[] frame;
+                while ((frame = RelayProtocol.readFrame(in)) != null) {
+                    handle(frame);
+                }
+            } catch (IOException | RuntimeException e) {
+                // Cliente desconectado o trama inválida
+            } finally {
+                close();
+            }
+        }
+
+        private void handle(byte[] frame) throws IOException {
+            switch (RelayProtocol.type(frame)) {
+                case RelayProtocol.CREATE:
+                    gameId = games.createGame(playerId);
+                    outbox.add(RelayProtocol.frame(RelayProtocol.CREATED, gameId));
+                    break;
+                case RelayProtocol.JOIN: {
+                    String target = RelayProtocol.readText(frame);
+                    GameServer.Result result = games.joinGame(target, playerId);
+                    if (result.isAccepted()) {
+                        gameId = target;
+                        outbox.add(RelayProtocol.frame(RelayProtocol.JOINED, target));
+                    } else {
+                        outbox.add(RelayProtocol.frame(RelayProtocol.ERROR, result.error));
+                    }
+                    break;
+                }
+                case RelayProtocol.MOVE: {
+                    if (gameId == null) {
+                        outbox.add(RelayProtocol.frame(RelayProtocol.ERROR, "No hay partida activa"));
+                        break;
+                    }
+                    GameServer.Result result = games.move(gameId, playerId,
+                            RelayProtocol.moveFrom(frame), RelayProtocol.moveTo(frame));
+                    outbox.add(result.isAccepted()
+                            ? RelayProtocol.frame(RelayProtocol.MOVE_OK)
+                            : RelayProtocol.frame(RelayProtocol.ERROR, result.error));
+                    break;
+                }
+                case RelayProtocol.LISTEN:
+                    listen();
+                    break;
+                case RelayProtocol.LEAVE:
+                    leave();
+                    gameId = null;
+                    break;
+                default:
+                    throw new IOException("Trama desconocida: " + RelayProtocol.type(frame));
+            }
+        }
+
+        private void listen() {
+            if (gameId == null) {
+                outbox.add(RelayProtocol.frame(RelayProtocol.ERROR, "No hay partida activa"));
+                return;
+            }
+            leave();
+
+            // subscribe() toma el cerrojo de la partida: no se llama con early tomado
+            synchronized (early) {
+                awaitingState = true;
+            }
+            GameState state = games.subscribe(gameId, this);
+            synchronized (early) {
+                awaitingState = false;
+                if (state == null) {
+                    outbox.add(RelayProtocol.frame(RelayProtocol.ERROR, "Partida no encontrada"));
+                    return;
+                }
+                listening = gameId;
+                outbox.add(RelayProtocol.state(state));
+                outbox.addAll(early);
+                early.clear();
+            }
+        }
+
+        private void leave() {
+            String current = listening;
+            if (current != null) {
+                games.unsubscribe(current, this);
+                listening = null;
+            }
+        }
+
+        @Override
+        public void onUpdate(GameServer.Update update) {
+            byte[] frame = RelayProtocol.update(update.ply, update.move, update.currentTurn,
+                    update.status, update.winner, update.endReason);
+            synchronized (early) {
+                if (awaitingState) {
+                    early.add(frame);
+                } else {
+                    outbox.add(frame);
+                }
+            }
+        }
+
+        void writeLoop() {
+            try {
+                OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+                while (true) {
+                    byte[] frame = outbox.take();
+                    if (frame == CLOSE) break;
+                    out.write(frame);
+                    // Agrupar en una escritura lo que ya esté en cola
+                    if (outbox.isEmpty()) out.flush();
+                }
+            } catch (IOException | InterruptedException e) {
+                // Socket cerrado
+            } finally {
+                close();
+            }
+        }
+
+        void close() {
+            if (!closed.compareAndSet(false, true)) return;
+            leave();
+            outbox.add(CLOSE);
+            connections.remove(this);
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class GameServerTest {
+
+    @Test
+    public void concurrentMovesStayLegalAndOrdered() throws InterruptedException {
+        GameServer server = new GameServer(8); // pocas franjas: muchas partidas por cerrojo
+        int gameCount = 64;
+        String[] games = new String[gameCount];
+        List<List<Integer>> received = new ArrayList<>();
+        for (int i = 0; i < gameCount; i++) {
+            games[i] = server.createGame("W");
+            assertTrue(server.joinGame(games[i], "B").isAccepted());
+            List<Integer> plies = new ArrayList<>();
+            received.add(plies);
+            server.subscribe(games[i], update -> plies.add(update.ply)); // con el cerrojo tomado
+        }
+
+        // Todos los hilos juegan todas las partidas, con ambos colores y a ciegas
+        AtomicInteger accepted = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            Random random = new Random(t);
+            threads[t] = new Thread(() -> {
+                MoveList legal = new MoveList();
+                for (int i = 0; i < 3000; i++) {
+                    String gameId = games[random.nextInt(gameCount)];
+                    server.legalMoves(gameId, legal);
+                    if (legal.isEmpty()) continue;
+                    int move = legal.get(random.nextInt(legal.size()));
+                    String player = random.nextBoolean() ? "W" : "B";
+                    if (server.move(gameId, player, Move.from(move), Move.to(move)).isAccepted()) {
+                        accepted.incrementAndGet();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        int total = 0;
+        for (int i = 0; i < gameCount; i++) {
+            GameState state = server.getState(games[i]);
+            int plies = state.getMoves().size();
+            total += plies;
+
+            // Los avisos llegan en orden, uno por jugada
+            List<Integer> updates = received.get(i);
+            assertEquals(plies, updates.size());
+            for (int k = 0; k < updates.size(); k++) {
+                assertEquals(k + 1, (int) updates.get(k));
+            }
+
+            // El registro es legal desde la posición inicial y lleva a la misma posición
+            GameState fromStart = new GameState(state);
+            fromStart.copyPiecesFrom(new HexBoard());
+            fromStart.setSnapshotPly(0);
+            GameReplay replay = new GameReplay(new HexBoard());
+            replay.sync(fromStart);
+            GameReplay snapshot = new GameReplay(new HexBoard());
+            snapshot.sync(state);
+            assertEquals(snapshot.getBoard().getHash(), replay.getBoard().getHash());
+        }
+        assertEquals(accepted.get(), total);
+    }
+
+    @Test
+    public void enforcesJoinAndTurnRules() {
+        GameServer server = new GameServer();
+        String gameId = server.createGame("W");
+        int pawn = HexBoard.indexOf(0, 1);
+        int ahead = HexBoard.indexOf(0, 0);
+
+        assertEquals("Esperando al rival", server.move(gameId, "W", pawn, ahead).error);
+        assertEquals("Partida no encontrada", server.joinGame("X", "B").error);
+        assertTrue(server.joinGame(gameId, "B").isAccepted());
+        assertTrue(server.joinGame(gameId, "B").isAccepted());
+        assertEquals("Partida llena o no disponible.", server.joinGame(gameId, "C").error);
+
+        assertEquals("No es tu turno", server.move(gameId, "B", pawn, ahead).error);
+        assertEquals("No hay pieza en la posición origen", server.move(gameId, "W", ahead, pawn).error);
+        assertEquals("Movimiento ilegal", server.move(gameId, "W", pawn, pawn).error);
+        assertEquals("Posición fuera del tablero", server.move(gameId, "W", pawn, -1).error);
+
+        List<GameServer.Update> updates = new ArrayList<>();
+        GameState state = server.subscribe(gameId, updates::add);
+        assertEquals(0, state.getMoves().size());
+        GameServer.Result result = server.move(gameId, "W", pawn, ahead);
+        assertTrue(result.isAccepted());
+        assertEquals(1, result.ply);
+        assertEquals(1, updates.size());
+        assertEquals(result.move, updates.get(0).move);
+        assertEquals("black", updates.get(0).currentTurn);
+
+        assertTrue(server.removeGame(gameId));
+        assertEquals(0, server.getGameCount());
+    }
+}
@@ -0,0 +1,131 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class LoadTestTest {
+
+    @Test
+    public void botPairsPlayWithoutErrors() throws Exception {
+        LoadTest.Config config = LoadTest.Config.parse(new String[]{
+                "backend=memory", "pairs=8", "seconds=1", "warmup=0", "maxPlies=40"});
+        LoadTest.Report report;
+        try (LoadTest.Backend backend = LoadTest.memory()) {
+            report = LoadTest.run(config, backend);
+        }
+
+        assertTrue(report.count(LoadTest.Operation.MOVE) > 0);
+        assertTrue(report.count(LoadTest.Operation.FAN_OUT) > 0);
+        assertTrue(report.finishedGames > 0); // partidas cortas: se reemplazan durante la medición
+        for (LoadTest.Operation operation : LoadTest.Operation.values()) {
+            assertEquals(operation.key, 0, report.errors(operation));
+        }
+
+        Properties generous = new Properties();
+        generous.setProperty("move.p99.ms", "60000");
+        generous.setProperty("move.errorRate", "0");
+        generous.setProperty("moves.perSecond.min", "1");
+        assertTrue(report.check(generous).isEmpty());
+
+        Properties strict = new Properties();
+        strict.setProperty("move.max.ms", "0");
+        strict.setProperty("moves.perSecond.min", "1e12");
+        List<String> violations = report.check(strict);
+        assertEquals(2, violations.size());
+        assertTrue(violations.get(0).startsWith("move.max.ms"));
+        assertTrue(violations.get(1).startsWith("moves.perSecond.min"));
+    }
+
+    @Test
+    public void callbackExceptionsCountAsErrors() throws Exception {
+        LoadTest.Config config = LoadTest.Config.parse(new String[]{
+                "backend=memory", "pairs=4", "seconds=1", "warmup=0"});
+        LoadTest.Report report;
+        try (LoadTest.Backend memory = LoadTest.memory()) {
+            // Cliente roto: makeMove lanza dentro del callback del bot
+            LoadTest.Backend broken = new LoadTest.Backend() {
+                @Override
+                public GameTransport connect() throws IOException {
+                    return new ThrowingMoves(memory.connect());
+                }
+
+                @Override
+                public void close() {}
+            };
+            report = LoadTest.run(config, broken);
+        }
+
+        assertEquals(0, report.count(LoadTest.Operation.MOVE));
+        assertTrue(report.errors(LoadTest.Operation.LISTEN) > 0);
+        assertTrue(report.firstFailure, report.firstFailure.contains("listen"));
+        Properties thresholds = new Properties();
+        thresholds.setProperty("listen.errorRate", "0");
+        assertEquals(1, report.check(thresholds).size());
+    }
+
+    private static final class ThrowingMoves implements GameTransport {
+        final GameTransport delegate;
+
+        ThrowingMoves(GameTransport delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void createGame(OnGameCreatedListener listener) {
+            delegate.createGame(listener);
+        }
+
+        @Override
+        public void joinGame(String gameId, OnGameJoinedListener listener) {
+            delegate.joinGame(gameId, listener);
+        }
+
+        @Override
+        public void makeMove(String fromKey, String toKey, OnMoveCompleteListener listener) {
+            throw new IllegalStateException("fallo simulado");
+        }
+
+        @Override
+        public void listenToGame(OnGameUpdateListener listener) {
+            delegate.listenToGame(listener);
+        }
+
+        @Override
+        public void cleanup() {
+            delegate.cleanup();
+        }
+
+        @Override
+        public String getPlayerId() {
+            return delegate.getPlayerId();
+        }
+
+        @Override
+        public GameState getCurrentGameState() {
+            return delegate.getCurrentGameState();
+        }
+
+        @Override
+        public String getCurrentGameId() {
+            return delegate.getCurrentGameId();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownThresholds() throws Exception {
+        LoadTest.Config config = LoadTest.Config.parse(new String[]{
+                "backend=memory", "pairs=1", "seconds=0", "warmup=0"});
+        LoadTest.Report report;
+        try (LoadTest.Backend backend = LoadTest.memory()) {
+            report = LoadTest.run(config, backend);
+        }
+        Properties thresholds = new Properties();
+        thresholds.setProperty("move.p42.ms", "1");
+        report.check(thresholds);
+    }
+}
@@ -0,0 +1,222 @@
+package upv_dap.sep_dic_25.itiid_76129.hexagonalchess;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RelayServerTest {
+    private static final Executor DIRECT = Runnable::run; // callbacks en el hilo lector
+
+    private RelayServer relay;
+
+    @Before
+    public void startRelay() throws IOException {
+        relay = new RelayServer(new GameServer(), 0).start();
+    }
+
+    @After
+    public void stopRelay() throws IOException {
+        relay.close();
+    }
+
+    /**
+     * Jugador automático que mueve desde el callback cuando le toca
+     */
+    private static final class Bot implements GameTransport.OnGameUpdateListener {
+        final GameTransport transport;
+        final GameReplay replay = new GameReplay(new HexBoard());
+        final Random random;
+        final int maxPlies;
+        final CountDownLatch done = new CountDownLatch(1);
+        final List<String> errors = new CopyOnWriteArrayList<>();
+
+        Bot(GameTransport transport, long seed, int maxPlies) {
+            this.transport = transport;
+            this.random = new Random(seed);
+            this.maxPlies = maxPlies;
+        }
+
+        @Override
+        public void onGameUpdate(GameState gameState) {
+            replay.sync(gameState);
+            if ("finished".equals(gameState.getStatus()) || replay.getPly() >= maxPlies) {
+                done.countDown();
+                return;
+            }
+            boolean white = transport.getPlayerId().equals(gameState.getWhitePlayerId());
+            if (!"playing".equals(gameState.getStatus()) || !gameState.getCurrentTurn().equals(white ? "white" : "black")) {
+                return;
+            }
+
+            MoveList moves = new MoveList();
+            new MoveValidator(replay.getBoard()).generateLegalMoves(replay.getBoard().getSideToMove(), moves);
+            int move = moves.get(random.nextInt(moves.size()));
+            transport.makeMove(key(Move.from(move)), key(Move.to(move)), new GameTransport.OnMoveCompleteListener() {
+                @Override
+                public void onMoveComplete() {}
+
+                @Override
+                public void onError(String error) {
+                    errors.add(error);
+                }
+            });
+        }
+
+        @Override
+        public void onError(String error) {
+            errors.add(error);
+        }
+    }
+
+    @Test
+    public void botsPlayOverSockets() throws Exception {
+        try (RelayGameTransport white = connect(); RelayGameTransport black = connect()) {
+            BlockingQueue<String> created = new LinkedBlockingQueue<>();
+            white.createGame(new GameTransport.OnGameCreatedListener() {
+                @Override
+                public void onGameCreated(String gameId) {
+                    created.add(gameId);
+                }
+
+                @Override
+                public void onError(String error) {
+                    created.add("error: " + error);
+                }
+            });
+            String gameId = created.poll(5, TimeUnit.SECONDS);
+            assertNotNull(gameId);
+            assertEquals(gameId, white.getCurrentGameId());
+
+            Bot whiteBot = new Bot(white, 7, 60);
+            Bot blackBot = new Bot(black, 8, 60);
+            white.listenToGame(whiteBot);
+            BlockingQueue<String> joins = new LinkedBlockingQueue<>();
+            black.joinGame(gameId, joined(joins));
+            assertEquals("joined", joins.poll(5, TimeUnit.SECONDS));
+            black.listenToGame(blackBot);
+
+            assertTrue(whiteBot.done.await(10, TimeUnit.SECONDS));
+            assertTrue(blackBot.done.await(10, TimeUnit.SECONDS));
+            assertTrue(whiteBot.errors.toString(), whiteBot.errors.isEmpty());
+            assertTrue(blackBot.errors.toString(), blackBot.errors.isEmpty());
+
+            // Ambos clientes reconstruyen la misma posición que el servidor
+            GameState stored = relay.getGameServer().getState(gameId);
+            GameReplay authoritative = new GameReplay(new HexBoard());
+            authoritative.sync(stored);
+            assertEquals(stored.getMoves().size(), whiteBot.replay.getPly());
+            assertEquals(stored.getMoves().size(), blackBot.replay.getPly());
+            assertEquals(authoritative.getBoard().getHash(), whiteBot.replay.getBoard().getHash());
+            assertEquals(authoritative.getBoard().getHash(), blackBot.replay.getBoard().getHash());
+            assertEquals(stored.getMoves(), white.getCurrentGameState().getMoves());
+        }
+    }
+
+    @Test
+    public void enforcesRulesAndReportsLostConnection() throws Exception {
+        RelayGameTransport white = connect();
+        RelayGameTransport black = connect();
+        RelayGameTransport third = connect();
+        BlockingQueue<String> events = new LinkedBlockingQueue<>();
+        GameTransport.OnMoveCompleteListener collect = new GameTransport.OnMoveCompleteListener() {
+            @Override
+            public void onMoveComplete() {
+                events.add("ok");
+            }
+
+            @Override
+            public void onError(String error) {
+                events.add(error);
+            }
+        };
+
+        white.createGame(new GameTransport.OnGameCreatedListener() {
+            @Override
+            public void onGameCreated(String gameId) {
+                events.add(gameId);
+            }
+
+            @Override
+            public void onError(String error) {
+                events.add(error);
+            }
+        });
+        String gameId = events.poll(5, TimeUnit.SECONDS);
+        white.makeMove("0,1", "0,0", collect);
+        assertEquals("Esperando al rival", events.poll(5, TimeUnit.SECONDS));
+
+        third.joinGame("NOEXISTE", joined(events));
+        assertEquals("Partida no encontrada", events.poll(5, TimeUnit.SECONDS));
+        black.joinGame(gameId, joined(events));
+        assertEquals("joined", events.poll(5, TimeUnit.SECONDS));
+        third.joinGame(gameId, joined(events));
+        assertEquals("Partida llena o no disponible.", events.poll(5, TimeUnit.SECONDS));
+        third.makeMove("0,1", "0,0", collect);
+        assertEquals("No hay partida activa", events.poll(5, TimeUnit.SECONDS));
+
+        black.makeMove("0,-4", "0,-3", collect);
+        assertEquals("No es tu turno", events.poll(5, TimeUnit.SECONDS));
+        white.makeMove("0,0", "0,1", collect);
+        assertEquals("No hay pieza en la posición origen", events.poll(5, TimeUnit.SECONDS));
+        white.makeMove("0,1", "0,0", collect);
+        assertEquals("ok", events.poll(5, TimeUnit.SECONDS));
+
+        // Al escuchar llega el estado completo con la jugada ya hecha
+        BlockingQueue<GameState> states = new LinkedBlockingQueue<>();
+        black.listenToGame(new GameTransport.OnGameUpdateListener() {
+            @Override
+            public void onGameUpdate(GameState gameState) {
+                states.add(gameState);
+            }
+
+            @Override
+            public void onError(String error) {
+                events.add(error);
+            }
+        });
+        GameState state = states.poll(5, TimeUnit.SECONDS);
+        assertEquals(1, state.getMoves().size());
+        assertEquals("black", state.getCurrentTurn());
+
+        relay.close();
+        assertEquals("Conexión perdida con el servidor", events.poll(5, TimeUnit.SECONDS));
+        black.makeMove("0,-4", "0,-3", collect);
+        assertEquals("Sin conexión con el servidor", events.poll(5, TimeUnit.SECONDS));
+        white.close();
+        third.close();
+    }
+
+    private RelayGameTransport connect() throws IOException {
+        return RelayGameTransport.connect("localhost", relay.getPort(), DIRECT);
+    }
+
+    private static String key(int index) {
+        return HexBoard.qOf(index) + "," + HexBoard.rOf(index);
+    }
+
+    private static GameTransport.OnGameJoinedListener joined(BlockingQueue<String> events) {
+        return new GameTransport.OnGameJoinedListener() {
+            @Override
+            public void onGameJoined(String gameId) {
+                events.add("joined");
+            }
+
+            @Override
+            public void onError(String error) {
+                events.add(error);
+            }
+        };
+    }
+}
@@ -15,4 +15,7 @@ dependencyResolutionManagement {
 }
 
 rootProject.name = "HexagonalChess2"
-include(":app")
\ No newline at end of file
+include(":app")
+include(":core")
+include(":bench")
+include(":server")
\ No newline at end of file